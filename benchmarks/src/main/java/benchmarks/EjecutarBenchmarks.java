@@ -0,0 +1,30 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Lanza los benchmarks con el perfil de asignación (-prof gc) y el resultado en JSON,
+ * para comparar una versión con otra. Acepta las mismas opciones que el Main de JMH,
+ * que se suman a estas (p. ej. un filtro de benchmarks o -p pastores=10,1000).
+ * El archivo de salida se toma de la propiedad benchmarks.resultado.
+ */
+public class EjecutarBenchmarks {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions linea = new CommandLineOptions(args);
+        Options opciones = new OptionsBuilder()
+                .parent(linea)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(System.getProperty("benchmarks.resultado", "jmh-resultados.json"))
+                .build();
+        new Runner(opciones).run();
+    }
+}
@@ -0,0 +1,110 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import model.AccionPastor;
+import model.JuegoRueda;
+import model.MesaPrimitiva;
+import model.TipoCorro;
+
+/**
+ * Turnos sueltos y partidas completas, de 10 a un millón de pastores.
+ */
+public class JuegoBench {
+
+    /**
+     * Un turno de degüello seguido de un rescate, para que la mesa no se vacíe
+     */
+    @State(Scope.Thread)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(1)
+    public static class Turno {
+        @Param({"10", "1000", "100000", "1000000"})
+        int pastores;
+
+        @Param({"LISTA", "INDEXADO"})
+        TipoCorro tipoCorro;
+
+        private JuegoRueda juego;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            juego = new JuegoRueda(pastores, 3, tipoCorro, new Random(42));
+            juego.empezarDanza();
+        }
+
+        @Benchmark
+        public void tomarTurno(Blackhole bh) {
+            bh.consume(juego.tomarTurno(AccionPastor.ARRIMAR_GUADAÑA_DERECHA, true));
+            bh.consume(juego.tomarTurno(AccionPastor.SACAR_DEL_OLVIDO, true));
+        }
+    }
+
+    /**
+     * Una partida entera arrimando siempre la guadaña a la derecha.
+     * El corro LISTA es cuadrático en partidas grandes, por eso aquí se mide el INDEXADO.
+     */
+    @State(Scope.Thread)
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    @Fork(1)
+    public static class Partida {
+        @Param({"10", "1000", "100000", "1000000"})
+        int pastores;
+
+        @Param({"1", "3"})
+        int n;
+
+        private JuegoRueda juego;
+
+        @Setup(Level.Invocation)
+        public void preparar() {
+            juego = new JuegoRueda(pastores, n, TipoCorro.INDEXADO, new Random(42));
+            juego.empezarDanza();
+        }
+
+        @Benchmark
+        public int partidaCompleta() {
+            return juego.avanzarHastaFin();
+        }
+    }
+
+    /**
+     * La misma partida sobre la mesa primitiva, sin objetos Pastor
+     */
+    @State(Scope.Thread)
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    @Fork(1)
+    public static class PartidaPrimitiva {
+        @Param({"10", "1000", "100000", "1000000"})
+        int pastores;
+
+        @Param({"1", "3"})
+        int n;
+
+        private MesaPrimitiva mesa;
+
+        @Setup(Level.Invocation)
+        public void preparar() {
+            mesa = JuegoRueda.crearMesaPrimitiva(pastores, n, new Random(42));
+            mesa.empezarDanza();
+        }
+
+        @Benchmark
+        public int partidaCompleta() {
+            return mesa.avanzarHastaFin();
+        }
+    }
+}
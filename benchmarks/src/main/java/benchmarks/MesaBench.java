@@ -0,0 +1,91 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import model.Mesa;
+import model.Pastor;
+import model.TipoCorro;
+
+/**
+ * Operaciones de la mesa sobre corros de 10 a un millón de pastores.
+ * Las que cambian la mesa la dejan del mismo tamaño (sacar y volver a sentar).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MesaBench {
+    private static final int N = 3;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int pastores;
+
+    @Param({"LISTA", "INDEXADO"})
+    TipoCorro tipoCorro;
+
+    private Mesa mesa;
+    private int[] posiciones;
+    private int siguiente;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        mesa = new Mesa(pastores, N, tipoCorro);
+        mesa.reorganizarCorro();
+        mesa.empezarConMasRico();
+        Random random = new Random(42);
+        posiciones = new int[1024];
+        for (int i = 0; i < posiciones.length; i++) {
+            posiciones[i] = random.nextInt(pastores);
+        }
+    }
+
+    private int posicion() {
+        return posiciones[siguiente++ & (posiciones.length - 1)];
+    }
+
+    @Benchmark
+    public Pastor sacarPastor() {
+        Pastor pastor = mesa.sacarPastor(posicion());
+        mesa.sentarPastor(pastor);
+        return pastor;
+    }
+
+    @Benchmark
+    public void mirarHacia(Blackhole bh) {
+        bh.consume(mesa.mirarHacia(true, N));
+        mesa.darVuelta();
+    }
+
+    @Benchmark
+    public Pastor buscarMenorGreyHacia() {
+        mesa.darVuelta();
+        return mesa.buscarMenorGreyHacia(true, N);
+    }
+
+    @Benchmark
+    public boolean reorganizarCorro() {
+        // Sentar al final a alguien de en medio suele dejar un conflicto que reparar
+        mesa.sentarPastor(mesa.sacarPastor(posicion()));
+        return mesa.reorganizarCorro();
+    }
+
+    @Benchmark
+    public Object obtenerInstantanea() {
+        // Un turno típico: alguien se va, otro vuelve y a uno le cambian los doblones
+        Pastor pastor = mesa.sacarPastor(posicion());
+        mesa.sentarPastor(pastor);
+        pastor.setDoblones(pastor.getDoblones() + 1);
+        return mesa.obtenerInstantanea();
+    }
+
+    @Benchmark
+    public Pastor encontrarMasRico() {
+        return mesa.encontrarMasRico();
+    }
+}
@@ -0,0 +1,65 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import model.Pastor;
+import model.PilaDesposeidos;
+
+/**
+ * Operaciones de la pila de desposeídos con 10 a un millón de pastores dentro.
+ * Cada operación devuelve la pila a su tamaño.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PilaBench {
+    private static final String[] TRATOS = {"Mercader", "Artesano", "Labrador", "Escribano", "Barbero"};
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int pastores;
+
+    private PilaDesposeidos pila;
+    private Pastor suelto;
+    private int[] ids;
+    private int siguiente;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        pila = new PilaDesposeidos();
+        for (int i = 1; i <= pastores; i++) {
+            pila.echarAPila(new Pastor(i, "Pastor " + i, 300, 150, TRATOS[i % TRATOS.length]));
+        }
+        suelto = new Pastor(pastores + 1, "Suelto", 300, 150, TRATOS[0]);
+        Random random = new Random(42);
+        ids = new int[1024];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 1 + random.nextInt(pastores);
+        }
+    }
+
+    @Benchmark
+    public Pastor echarAPila() {
+        pila.echarAPila(suelto);
+        return pila.sacarDePila();
+    }
+
+    @Benchmark
+    public Pastor sacarDePila() {
+        Pastor rescatado = pila.sacarDePila();
+        pila.echarAPila(rescatado);
+        return rescatado;
+    }
+
+    @Benchmark
+    public Pastor restaurarPastorEspecifico() {
+        Pastor restaurado = pila.restaurarPastorEspecifico(ids[siguiente++ & (ids.length - 1)]);
+        pila.echarAPila(restaurado);
+        return restaurado;
+    }
+}
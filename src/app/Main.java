@@ -5,6 +5,7 @@ import view.VistaSwing;
 import javax.swing.SwingUtilities;
 
 import controller.ControladorJuego;
+import model.PoliticaAccion;
 
 /**
  * Clase Main para iniciar la aplicación Swing del juego.
@@ -14,13 +15,20 @@ public class Main {
 
     /**
      * Punto de entrada de la aplicación.
-     * argumentos de línea de comandos (no usados)
+     * argumentos de línea de comandos: --auto politica para que los turnos los juegue una
+     * política de serie (derecha, aleatoria, codiciosa o mcts) en vez de los botones
      */
     public static void main(String[] args) {
+        PoliticaAccion politica = null;
+        if (args.length >= 2 && args[0].equals("--auto")) {
+            politica = PoliticaAccion.porNombre(args[1]);
+        }
+        PoliticaAccion automatica = politica;
         SwingUtilities.invokeLater(() -> {
             VistaSwing vista = new VistaSwing();
             // Crear el controlador y pasarle la vista
             ControladorJuego controlador = new ControladorJuego(vista);
+            controlador.setPolitica(automatica);
             // Establecer la referencia del controlador en la vista
             vista.setControlador(controlador);
 
@@ -0,0 +1,117 @@
+package app;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+import controller.ServidorRuedas;
+import model.ConfiguracionRueda;
+import model.PoliticaAccion;
+import model.PoliticaMCTS;
+
+/**
+ * Punto de entrada del servidor de mesas: mantiene abiertas muchas partidas a la vez, jugadas
+ * por una política, y cada segundo informa de las partidas activas, los turnos por segundo y la
+ * latencia de los turnos. Las partidas que acaban se reponen con otras nuevas.
+ * Uso: MainServidor [--mesas 10000] [--max-partidas 10000] [--hilos núcleos] [--pastores 10]
+ *                   [--n 2] [--politica aleatoria] [--pausa 0] [--tiempo-limite 30000]
+ *                   [--segundos 10] [--semilla 1] [--puerto 0]
+ * Con --puerto las métricas se sirven además en http://localhost:puerto/metricas.
+ * --pastores va de 2 a 20 y --n de 1 a pastores - 1; fuera de ahí se rechazan.
+ */
+public class MainServidor {
+
+    /** Estados que caben en la tabla de cada partida con mcts */
+    private static final int RANURAS_MCTS_POR_PARTIDA = 1 << 10;
+
+    public static void main(String[] args) {
+        int mesas = 10_000;
+        int maxPartidas = -1;
+        int hilos = Runtime.getRuntime().availableProcessors();
+        int pastores = 10;
+        int n = 2;
+        String politica = "aleatoria";
+        long pausa = 0;
+        long tiempoLimite = ServidorRuedas.TIEMPO_LIMITE_POR_DEFECTO_MS;
+        int segundos = 10;
+        long semilla = 1;
+        int puerto = -1;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String valor = i + 1 < args.length ? args[i + 1] : null;
+                switch (args[i]) {
+                    case "--mesas": mesas = Integer.parseInt(valor); i++; break;
+                    case "--max-partidas": maxPartidas = Integer.parseInt(valor); i++; break;
+                    case "--hilos": hilos = Integer.parseInt(valor); i++; break;
+                    case "--pastores": pastores = Integer.parseInt(valor); i++; break;
+                    case "--n": n = Integer.parseInt(valor); i++; break;
+                    case "--politica": politica = valor; i++; break;
+                    case "--pausa": pausa = Long.parseLong(valor); i++; break;
+                    case "--tiempo-limite": tiempoLimite = Long.parseLong(valor); i++; break;
+                    case "--segundos": segundos = Integer.parseInt(valor); i++; break;
+                    case "--semilla": semilla = Long.parseLong(valor); i++; break;
+                    case "--puerto": puerto = Integer.parseInt(valor); i++; break;
+                    default: throw new IllegalArgumentException("Opción desconocida: " + args[i]);
+                }
+            }
+            // La configuración ajustaría en silencio lo que se salga de rango
+            ConfiguracionRueda.exigirEnRango(pastores, n);
+        } catch (RuntimeException e) {
+            System.err.println("Argumentos no válidos: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        // Cada partida juega con su propia política: las que guardan estado no se comparten
+        Supplier<PoliticaAccion> fabrica;
+        try {
+            fabrica = fabricaDePolitica(politica);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Argumentos no válidos: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        try (ServidorRuedas servidor = new ServidorRuedas(maxPartidas > 0 ? maxPartidas : mesas, hilos)) {
+            servidor.setPausaMs(pausa);
+            servidor.setTiempoLimiteTurnoMs(tiempoLimite);
+            if (!politica.equalsIgnoreCase("mcts")) {
+                servidor.setEjecutorPolitica(Runnable::run); // políticas baratas: deciden en el planificador
+            }
+            if (puerto >= 0) {
+                System.out.println("Métricas en http://localhost:" + servidor.publicarMetricas(puerto) + "/metricas");
+            }
+
+            long partida = 0;
+            long fin = System.nanoTime() + segundos * 1_000_000_000L;
+            while (System.nanoTime() < fin) {
+                // Reponer las mesas que acabaron; el servidor rechaza las que no quepan
+                while (servidor.getPartidasActivas() < mesas) {
+                    ConfiguracionRueda configuracion = new ConfiguracionRueda(pastores, n, 300, 100, true,
+                                                                              semilla + partida++);
+                    if (servidor.abrirPartida(configuracion, fabrica) < 0) {
+                        break;
+                    }
+                }
+                Thread.sleep(1000);
+                System.out.println(servidor.medir());
+            }
+        } catch (IOException e) {
+            System.err.println("No se pudieron publicar las métricas: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Fábrica de la política de cada partida. La de mcts lleva una tabla pequeña y un solo hilo:
+     * hay una por partida y las partidas ya se reparten entre los núcleos.
+     */
+    private static Supplier<PoliticaAccion> fabricaDePolitica(String nombre) {
+        if (nombre.equalsIgnoreCase("mcts")) {
+            return () -> new PoliticaMCTS(PoliticaMCTS.PRESUPUESTO_POR_DEFECTO_MS, RANURAS_MCTS_POR_PARTIDA, false);
+        }
+        PoliticaAccion.porNombre(nombre); // falla ya si el nombre no existe
+        return () -> PoliticaAccion.porNombre(nombre);
+    }
+}
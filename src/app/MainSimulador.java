@@ -0,0 +1,204 @@
+package app;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import model.BitacoraRueda;
+import model.ConfiguracionRueda;
+import model.PoliticaAccion;
+import model.ResultadoSimulacion;
+import model.ResultadoTorneo;
+import model.SimuladorRueda;
+import model.TipoCorro;
+import model.TorneoRueda;
+
+/**
+ * Punto de entrada sin interfaz: juega muchas partidas seguidas e informa cuántas
+ * partidas y turnos por segundo se alcanzan.
+ * Uso: MainSimulador [--pastores 10] [--n 2] [--partidas 100000] [--semilla 1]
+ *                    [--politica derecha|aleatoria|codiciosa|mcts] [--corro LISTA|INDEXADO]
+ *                    [--max-turnos 10000] [--calentamiento 0] [--bitacora partidas.bin]
+ *                    [--torneo [--hilos núcleos] [--rejilla-pastores 4,6,8 --rejilla-n 1,2,3]]
+ *                    [--verificar-primitiva]
+ * Con --torneo las partidas se reparten entre varios hilos (TorneoRueda) y, si se da una
+ * rejilla, se juega el número de partidas indicado en cada combinación de pastores y n.
+ * Con --bitacora (sin --torneo) cada partida se añade turno a turno a ese archivo binario.
+ * --torneo solo admite políticas sin estado (no mcts).
+ * --pastores va de 2 a 20 y --n de 1 a pastores - 1; fuera de ahí se rechazan, también en la
+ * rejilla: cada combinación de --rejilla-pastores y --rejilla-n tiene que caber.
+ * Con --verificar-primitiva no se mide nada: cada partida se juega a la vez sobre JuegoRueda y
+ * sobre MesaPrimitiva, se comparan turno a turno y se termina con código 1 si alguna difiere.
+ */
+public class MainSimulador {
+
+    public static void main(String[] args) {
+        int pastores = 10;
+        int n = 2;
+        int partidas = 100_000;
+        long semilla = 1;
+        String politica = "aleatoria";
+        TipoCorro corro = TipoCorro.LISTA;
+        int maxTurnos = SimuladorRueda.MAX_TURNOS_POR_DEFECTO;
+        int calentamiento = 0;
+        boolean torneo = false;
+        int hilos = Runtime.getRuntime().availableProcessors();
+        int[] rejillaPastores = null;
+        int[] rejillaN = null;
+        String bitacora = null;
+        boolean verificarPrimitiva = false;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String valor = i + 1 < args.length ? args[i + 1] : null;
+                switch (args[i]) {
+                    case "--pastores": pastores = Integer.parseInt(valor); i++; break;
+                    case "--n": n = Integer.parseInt(valor); i++; break;
+                    case "--partidas": partidas = Integer.parseInt(valor); i++; break;
+                    case "--semilla": semilla = Long.parseLong(valor); i++; break;
+                    case "--politica": politica = valor; i++; break;
+                    case "--corro": corro = TipoCorro.valueOf(valor.toUpperCase()); i++; break;
+                    case "--max-turnos": maxTurnos = Integer.parseInt(valor); i++; break;
+                    case "--calentamiento": calentamiento = Integer.parseInt(valor); i++; break;
+                    case "--torneo": torneo = true; break;
+                    case "--hilos": hilos = Integer.parseInt(valor); i++; break;
+                    case "--rejilla-pastores": rejillaPastores = leerLista(valor); i++; break;
+                    case "--rejilla-n": rejillaN = leerLista(valor); i++; break;
+                    case "--bitacora": bitacora = valor; i++; break;
+                    case "--verificar-primitiva": verificarPrimitiva = true; break;
+                    default: throw new IllegalArgumentException("Opción desconocida: " + args[i]);
+                }
+            }
+            // La configuración ajustaría en silencio lo que se salga de rango
+            ConfiguracionRueda.exigirEnRango(pastores, n);
+        } catch (RuntimeException e) {
+            System.err.println("Argumentos no válidos: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        ConfiguracionRueda configuracion = new ConfiguracionRueda(pastores, n);
+        PoliticaAccion decision = PoliticaAccion.porNombre(politica);
+        
+        if (torneo) {
+            if (!decision.isSinEstado()) {
+                // Repartida entre partidas, unas influirían en otras y el torneo no se podría repetir
+                System.err.println("La política " + politica + " guarda estado: no se puede usar con --torneo");
+                System.exit(2);
+                return;
+            }
+            try {
+                jugarTorneo(configuracion, decision, semilla, corro, maxTurnos, partidas, hilos,
+                            rejillaPastores != null ? rejillaPastores : new int[]{pastores},
+                            rejillaN != null ? rejillaN : new int[]{n});
+            } catch (IllegalArgumentException e) {
+                // Una celda de la rejilla fuera de rango: el torneo la rechaza antes de jugar
+                System.err.println("Argumentos no válidos: " + e.getMessage());
+                System.exit(2);
+            }
+            return;
+        }
+
+        if (verificarPrimitiva) {
+            verificarMesaPrimitiva(configuracion, decision, semilla, corro, maxTurnos, partidas);
+            return;
+        }
+
+        // Calentar la JVM con otra semilla para no medir el arranque del compilador
+        if (calentamiento > 0) {
+            SimuladorRueda previo = new SimuladorRueda(configuracion, decision, semilla ^ 0x5DEECE66DL, corro);
+            previo.setMaxTurnos(maxTurnos);
+            previo.simular(calentamiento);
+        }
+
+        SimuladorRueda simulador = new SimuladorRueda(configuracion, decision, semilla, corro);
+        simulador.setMaxTurnos(maxTurnos);
+        ResultadoSimulacion resultado;
+        if (bitacora == null) {
+            resultado = simulador.simular(partidas);
+        } else {
+            try (BitacoraRueda archivo = new BitacoraRueda(Path.of(bitacora))) {
+                simulador.setBitacora(archivo);
+                resultado = simulador.simular(partidas);
+            } catch (IOException e) {
+                System.err.println("No se pudo escribir la bitácora: " + e.getMessage());
+                System.exit(1);
+                return;
+            }
+        }
+
+        System.out.println(configuracion.getDescripcion().replace('\n', ' '));
+        System.out.println("Política: " + politica + ", corro: " + corro + ", semilla: " + semilla);
+        System.out.printf("Partidas: %d (terminadas %d), turnos: %d%n",
+                          resultado.getPartidas(), resultado.getPartidasTerminadas(), resultado.getTurnos());
+        System.out.printf("Tiempo: %.3f s, %.1f partidas/s, %.1f turnos/s%n",
+                          resultado.getSegundos(), resultado.getPartidasPorSegundo(), resultado.getTurnosPorSegundo());
+        System.out.println("Victorias por trato: " + resultado.getVictoriasPorTrato());
+    }
+
+    private static void verificarMesaPrimitiva(ConfiguracionRueda configuracion, PoliticaAccion decision,
+                                               long semilla, TipoCorro corro, int maxTurnos, int partidas) {
+        SimuladorRueda simulador = new SimuladorRueda(configuracion, decision, semilla, corro);
+        simulador.setMaxTurnos(maxTurnos);
+        int distintas = 0;
+        for (int i = 0; i < partidas; i++) {
+            String diferencia = simulador.compararConMesaPrimitiva(i);
+            if (diferencia != null) {
+                if (distintas++ < 10) {
+                    System.out.println("Partida " + i + ": " + diferencia);
+                }
+            }
+        }
+        System.out.printf("MesaPrimitiva frente a JuegoRueda: %d de %d partidas distintas%n", distintas, partidas);
+        if (distintas > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void jugarTorneo(ConfiguracionRueda configuracion, PoliticaAccion decision, long semilla,
+                                    TipoCorro corro, int maxTurnos, int partidas, int hilos,
+                                    int[] rejillaPastores, int[] rejillaN) {
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, hilos));
+        try {
+            TorneoRueda torneo = new TorneoRueda(decision, semilla, pool);
+            torneo.setTipoCorro(corro);
+            torneo.setMaxTurnos(maxTurnos);
+            
+            long inicio = System.nanoTime();
+            Map<ConfiguracionRueda, ResultadoTorneo> resultados = torneo.barrer(rejillaPastores, rejillaN, partidas);
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            
+            for (ResultadoTorneo resultado : resultados.values()) {
+                ConfiguracionRueda celda = resultado.getConfiguracion();
+                System.out.printf("Pastores %d, n %d: %d partidas (terminadas %d), %.1f partidas/s, %.1f turnos/s%n",
+                                  celda.getNumPastores(), celda.getValorN(), resultado.getPartidas(),
+                                  resultado.getPartidasTerminadas(), resultado.getPartidasPorSegundo(),
+                                  resultado.getTurnosPorSegundo());
+                System.out.println("  Victorias por asiento: " + tasas(celda.getNumPastores(), resultado, true));
+                System.out.println("  Victorias por riqueza: " + tasas(celda.getNumPastores(), resultado, false));
+                System.out.println("  Victorias por trato: " + resultado.getVictoriasPorTrato());
+                System.out.printf("  Doblones del rey: p50 %.0f, p90 %.0f, p99 %.0f%n",
+                                  resultado.getCuantilDoblonesDelRey(0.5), resultado.getCuantilDoblonesDelRey(0.9),
+                                  resultado.getCuantilDoblonesDelRey(0.99));
+            }
+            System.out.printf("Torneo con %d hilos en %.3f s%n", pool.getParallelism(), segundos);
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    private static String tasas(int numPastores, ResultadoTorneo resultado, boolean porAsiento) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < numPastores; i++) {
+            double tasa = porAsiento ? resultado.getTasaVictoriaAsiento(i) : resultado.getTasaVictoriaRiqueza(i);
+            sb.append(i > 0 ? ", " : "").append(String.format("%.3f", tasa));
+        }
+        return sb.append("]").toString();
+    }
+    
+    private static int[] leerLista(String valor) {
+        return Arrays.stream(valor.split(",")).mapToInt(texto -> Integer.parseInt(texto.trim())).toArray();
+    }
+}
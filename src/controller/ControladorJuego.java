@@ -1,46 +1,110 @@
 package controller;
 
 import model.AccionPastor;
+import model.BitacoraRueda;
+import model.ConfiguracionRueda;
+import model.JuegoRueda;
 import model.Mesa;
 import model.Pastor;
 import model.PilaDesposeidos;
+import model.PoliticaAccion;
+import model.TipoCorro;
 import view.VistaJuego;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.ArrayList;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 /**
- * Controlador principal del juego. Coordina la Mesa, la Pila de desposeídos y la Vista.
+ * Controlador principal del juego. Coordina un JuegoRueda (mesa y pila de desposeídos) y la Vista.
  * <p>
- * Este controlador usa los métodos públicos definidos en las clases del modelo (Mesa, Pastor, PilaDesposeidos).
+ * Es una máquina de estados movida por eventos: no tiene hilo propio ni espera a nadie. Cada
+ * turno se abre, se queda en ESPERANDO_ACCION hasta que llega la acción (un clic de la vista por
+ * recibirAccion o la decisión de la política automática), la aplica y programa la apertura del
+ * siguiente en el planificador tras la pausa configurada. Mientras espera no ocupa ningún hilo,
+ * así que un solo hilo planificador puede llevar muchas partidas a la vez. Si se fija un tiempo
+ * límite y la acción no llega a tiempo, se juega la acción por defecto.
  * </p>
+ * Todos los eventos de un controlador pasan por su propio buzón y se atienden de uno en uno en el
+ * planificador, aunque este tenga varios hilos: el estado de la partida solo lo toca un hilo a la vez.
  */
 public class ControladorJuego {
 
+    /** Pausa por defecto entre un turno y el siguiente, para que se pueda seguir en la vista */
+    public static final long PAUSA_POR_DEFECTO_MS = 300;
+
+    /** Estados de la máquina */
+    public enum Fase {
+        SIN_PARTIDA,        // aún no se llamó a iniciar
+        ESPERANDO_ACCION,   // turno abierto: falta la acción del pastor
+        EN_PAUSA,           // turno jugado: el siguiente se abrirá cuando venza la pausa
+        TERMINADA           // la danza acabó o se detuvo
+    }
+
     private final VistaJuego vista;
-    private Mesa mesa;
-    private PilaDesposeidos pilaDesposeidos;
-    private boolean juegoTerminado = false;
-    private int nVecinos = 1;
-    private int turno = 0;
+    private final ScheduledExecutorService planificador;
+    private Executor ejecutorPolitica = ForkJoinPool.commonPool();
+    private JuegoRueda juego;
+    private volatile Fase fase = Fase.SIN_PARTIDA;
+    private volatile int partida = 0; // sube con cada iniciar: los eventos de partidas viejas se ignoran
+    private volatile long pausaMs = PAUSA_POR_DEFECTO_MS;
+    private volatile PoliticaAccion politica; // null: las acciones las da la vista
+    private volatile long tiempoLimiteMs = 0; // 0: sin límite por turno
+    private volatile ObservadorPartida observador;
+    private volatile int apertura = 0; // sube con cada turno abierto: las acciones tardías se ignoran
+    private ScheduledFuture<?> vencimiento; // aviso del tiempo límite del turno abierto
+    private boolean decidiendo; // hay una decisión de la política en camino
+    private boolean decisionPendiente; // el turno abierto espera a que acabe la decisión en camino
+    private BitacoraRueda bitacora; // null si no se anotan los turnos
+
+    // Buzón de eventos: se drena en el planificador, con un solo drenaje en marcha a la vez
+    private final Queue<Runnable> eventos = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drenando = new AtomicBoolean();
 
     /**
-     * Crea un controlador asociado a una vista. No inicia el juego automáticamente;
+     * Crea un controlador asociado a una vista, con el planificador compartido (un hilo para
+     * todos los controladores que no den el suyo). No inicia el juego automáticamente;
      * llame a {iniciar(int,int)} para crear la mesa y comenzar.
      *
      * vista vista que implementa la interfaz {VistaJuego}
      * IllegalArgumentException si la vista es null
      */
     public ControladorJuego(VistaJuego vista) {
+        this(vista, PlanificadorCompartido.INSTANCIA);
+    }
+
+    /**
+     * Crea un controlador que programa sus turnos en el planificador dado
+     *
+     * vista vista que implementa la interfaz {VistaJuego}
+     * planificador donde se atienden los eventos y vencen las pausas; puede compartirse entre partidas
+     * IllegalArgumentException si la vista o el planificador son null
+     */
+    public ControladorJuego(VistaJuego vista, ScheduledExecutorService planificador) {
         if (vista == null) {
             throw new IllegalArgumentException("La vista no puede ser null");
         }
+        if (planificador == null) {
+            throw new IllegalArgumentException("El planificador no puede ser null");
+        }
         this.vista = vista;
+        this.planificador = planificador;
     }
 
     /**
-     * Inicializa la mesa y la pila con los parámetros suministrados y comienza el ciclo
-     * principal en un hilo separado para no bloquear la UI.
+     * Crea el juego con los parámetros suministrados y abre el primer turno. Vuelve en seguida:
+     * la partida sigue en el planificador.
      *
      * numPastores número de pastores iniciales (>= 2)
      * n           número de vecinos a considerar para degüello (1 <= n < numPastores)
@@ -53,222 +117,415 @@ public class ControladorJuego {
         if (n < 1 || n >= numPastores) {
             throw new IllegalArgumentException("El valor de n debe ser >=1 y menor que numPastores.");
         }
-        this.nVecinos = n;
-        // Construcción de la mesa y pila — se asume que Mesa tiene un constructor (numPastores, n)
-        this.mesa = new Mesa(numPastores, n);
-        this.pilaDesposeidos = new PilaDesposeidos();
+        iniciar(() -> new JuegoRueda(numPastores, n));
+    }
 
-        // Mostrar estado inicial en la vista
-        actualizarVista(0);
+    /**
+     * Como iniciar(int,int), pero con los pastores, n, recursos y semilla de la configuración:
+     * la misma configuración da la misma partida si se juegan las mismas acciones
+     */
+    public void iniciar(ConfiguracionRueda configuracion) {
+        iniciar(() -> new JuegoRueda(configuracion, TipoCorro.LISTA));
+    }
 
-        // Iniciar el bucle de turnos en un hilo separado para no bloquear la UI
-        new Thread(this::bucleTurnos, "Rueda-Turnos").start();
+    private void iniciar(Supplier<JuegoRueda> crear) {
+        int nueva;
+        synchronized (this) {
+            nueva = ++partida;
+        }
+        encolar(() -> empezarPartida(nueva, crear));
     }
 
-    /** Bucle principal de turnos. Termina cuando queda un solo pastor en la mesa. */
-    private void bucleTurnos() {
-        try {
-            // El que inicia: el más rico (si la Mesa tiene un método, se podría usar; aquí buscamos en la lista)
-            List<Pastor> lista = mesa.obtenerPastoresEnMesa();
-            int posicionActual = 0;
-            int maxD = -1;
-            for (int i = 0; i < lista.size(); i++) {
-                Pastor p = lista.get(i);
-                if (p.getDoblones() > maxD) {
-                    maxD = p.getDoblones();
-                    posicionActual = i;
-                }
+    /**
+     * Entrega la acción elegida para el turno abierto. Se puede llamar desde cualquier hilo
+     * (normalmente el de la vista) y vuelve en seguida; si no hay turno esperando acción,
+     * o la partida la lleva una política, se ignora.
+     *
+     * accion acción del pastor con turno (null: arrimar la guadaña a la derecha)
+     */
+    public void recibirAccion(AccionPastor accion) {
+        int actual = partida;
+        int turnoAbierto = apertura;
+        long recibida = System.nanoTime();
+        encolar(() -> {
+            if (politica == null) {
+                procesarAccion(actual, turnoAbierto, accion, recibida);
             }
+        });
+    }
 
-            while (!mesa.quedaUnSolo() && !juegoTerminado) {
-                turno++;
-                Pastor actual = mesa.obtenerPastorActual();
-                if (actual == null) {
-                    // sincronizar con la lista por si la implementación de Mesa usa posición interna
-                    if (lista.size() > 0) {
-                        actual = lista.get(posicionActual % lista.size());
-                    } else {
-                        vista.mostrarError("Error: No hay pastores en la mesa.");
-                        break;
-                    }
-                }
-
-                // Mostrar turno en la vista
-                vista.mostrarTurno(actual, puedeHurtar(actual), !pilaDesposeidos.estaVacia(), turno);
-
-                // Crear lista de acciones disponibles
-                List<AccionPastor> accionesDisponibles = new ArrayList<>();
-                accionesDisponibles.add(AccionPastor.ARRIMAR_GUADAÑA_DERECHA);
-                accionesDisponibles.add(AccionPastor.ARRIMAR_GUADAÑA_IZQUIERDA);
-                
-                // Si la pila no está vacía, se puede rescatar
-                if (!pilaDesposeidos.estaVacia()) {
-                    accionesDisponibles.add(AccionPastor.SACAR_DEL_OLVIDO);
-                }
-                
-                // Si puede hurtar (es el más pobre), puede meter mano
-                if (puedeHurtar(actual)) {
-                    accionesDisponibles.add(AccionPastor.METER_MANO_FALTRIQUERA);
-                }
-                
-                AccionPastor accion = vista.pedirAccion(accionesDisponibles);
-                if (accion == null) {
-                    // En caso de que la vista no proporcione acción, tomamos una por defecto: degüello a la derecha
-                    accion = AccionPastor.ARRIMAR_GUADAÑA_DERECHA;
-                }
+    /**
+     * Pausa entre el final de un turno y la apertura del siguiente; 0 para jugar a toda
+     * velocidad (útil con una política)
+     */
+    public void setPausaMs(long pausaMs) {
+        this.pausaMs = Math.max(0, pausaMs);
+    }
 
-                switch (accion) {
-                    case SACAR_DEL_OLVIDO:
-                        if (!pilaDesposeidos.estaVacia()) {
-                            Pastor rescatado = pilaDesposeidos.sacarDePila();
-                            if (rescatado != null) {
-                                // la regla dice: el actual da la mitad cabal de sus fieles y riqueza
-                                int mitD = actual.getDoblones() / 2;
-                                int mitF = actual.getFeligreses() / 2;
-                                // El actual entrega la mitad
-                                actual.setDoblones(actual.getDoblones() - mitD);
-                                actual.setFeligreses(actual.getFeligreses() - mitF);
-                                // El rescatado recibe la mitad
-                                rescatado.recibirMitad(mitD, mitF);
-                                // Sentar nuevamente a rescatado en la mesa (método público de Mesa)
-                                mesa.sentarPastor(rescatado);
-                                vista.mostrarRescate(rescatado, actual);
-                            }
-                        } else {
-                            vista.mostrarError("La pila está vacía: no es posible rescatar.");
-                        }
-                        break;
-
-                    case METER_MANO_FALTRIQUERA:
-                        if (puedeHurtar(actual)) {
-                            Pastor masRico = mesa.encontrarMasRico();
-                            if (masRico != null && !masRico.equals(actual)) {
-                                int roboD = masRico.getDoblones() / 3;
-                                int roboF = masRico.getFeligreses() / 3;
-                                masRico.setDoblones(masRico.getDoblones() - roboD);
-                                masRico.setFeligreses(masRico.getFeligreses() - roboF);
-                                actual.setDoblones(actual.getDoblones() + roboD);
-                                actual.setFeligreses(actual.getFeligreses() + roboF);
-                                vista.mostrarHurtoPiadoso(actual, masRico, roboD, roboF);
-                            }
-                        } else {
-                            vista.mostrarError("No puede hurtar: no es el pastor más pobre.");
-                        }
-                        break;
-
-                    case ARRIMAR_GUADAÑA_DERECHA:
-                    case ARRIMAR_GUADAÑA_IZQUIERDA:
-                        boolean derecha = (accion == AccionPastor.ARRIMAR_GUADAÑA_DERECHA);
-                        List<Pastor> vecinos = mesa.mirarHacia(derecha, nVecinos);
-                        if (vecinos == null || vecinos.isEmpty()) {
-                            vista.mostrarError("No hay vecinos en la dirección seleccionada.");
-                            break;
-                        }
-                        // Elegir entre los vecinos al de menor feligreses
-                        Pastor victima = vecinos.get(0);
-                        for (Pastor c : vecinos) {
-                            if (c.tieneMenosFeligreses(victima)) {
-                                victima = c;
-                            }
-                        }
-                        // El victima pasa sus recursos al actual y va a la pila
-                        victima.traspasarRecursos(actual);
-                        // Sacar victima de la mesa (buscar su posición)
-                        List<Pastor> current = mesa.obtenerPastoresEnMesa();
-                        int pos = -1;
-                        for (int i = 0; i < current.size(); i++) {
-                            if (current.get(i).equals(victima)) {
-                                pos = i;
-                                break;
-                            }
-                        }
-                        if (pos != -1) {
-                            mesa.sacarPastor(pos);
-                            pilaDesposeidos.echarAPila(victima);
-                            vista.mostrarDeguello(victima, actual, derecha);
-                            // Tras cada eliminación se debe reorganizar el corro para que a la derecha no haya mismo trato
-                            mesa.reorganizarCorro();
-                        } else {
-                            vista.mostrarError("Error interno: no se encontró la víctima en la mesa.");
-                        }
-                        break;
-
-                    default:
-                        vista.mostrarError("Acción no reconocida por el controlador.");
-                }
+    public long getPausaMs() {
+        return pausaMs;
+    }
 
-                // Actualizar la vista después de la acción
-                // buscar posición actual si aplica y pasarla a pintarMesa
-                List<Pastor> listaActual = mesa.obtenerPastoresEnMesa();
-                int posActual = 0;
-                for (int i = 0; i < listaActual.size(); i++) {
-                    if (listaActual.get(i).equals(actual)) {
-                        posActual = i;
-                        break;
-                    }
-                }
-                actualizarVista(posActual);
+    /**
+     * Hace que los turnos los decida una política en vez de la vista, desde el próximo turno
+     * que se abra. La política decide en ejecutorPolitica y su elección vuelve como un evento.
+     *
+     * politica la política, o null para volver a pedir las acciones a la vista
+     */
+    public void setPolitica(PoliticaAccion politica) {
+        this.politica = politica;
+    }
 
-                // Avanzar al siguiente en la mesa si queda más de 1
-                if (!mesa.quedaUnSolo()) {
-                    mesa.darVuelta();
-                }
+    /**
+     * Dónde decide la política (por defecto el pool común), para que una búsqueda larga no
+     * ocupe el planificador que mueve las demás partidas
+     */
+    public void setEjecutorPolitica(Executor ejecutorPolitica) {
+        this.ejecutorPolitica = ejecutorPolitica;
+    }
 
-                // Pequeña pausa para no saturar la interfaz
-                try {
-                    Thread.sleep(300);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
+    /**
+     * Tiempo que tiene el pastor (la vista o la política) para dar su acción desde que se abre
+     * el turno; si vence, se juega la acción por defecto. 0 para esperar sin límite.
+     */
+    public void setTiempoLimiteTurnoMs(long tiempoLimiteMs) {
+        this.tiempoLimiteMs = Math.max(0, tiempoLimiteMs);
+    }
 
-            // Fin del juego
-            juegoTerminado = true;
-            Pastor ganador = null;
-            List<Pastor> finalList = mesa.obtenerPastoresEnMesa();
-            if (!finalList.isEmpty()) {
-                ganador = finalList.get(0);
-            }
-            vista.mostrarReyFinal(ganador);
+    /**
+     * Quién recibe aviso de cada turno jugado y del final de la partida (null para nadie).
+     * Los avisos llegan en el hilo del planificador, uno a uno.
+     */
+    public void setObservador(ObservadorPartida observador) {
+        this.observador = observador;
+    }
 
-        } catch (Exception ex) {
-            // Cualquier excepción se comunica a la vista
-            vista.mostrarError("Error en el controlador: " + ex.getMessage());
-            ex.printStackTrace();
-        }
+    public Fase getFase() {
+        return fase;
     }
 
-    private boolean puedeHurtar(Pastor p) {
-        if (p == null) return false;
-        Pastor masPobre = mesa.encontrarMasPobre();
-        return masPobre != null && masPobre.equals(p);
+    /**
+     * @return el juego en curso (null antes de empezar la primera partida); solo debe leerse
+     * mientras la partida no avanza, p. ej. desde el observador
+     */
+    public JuegoRueda getJuego() {
+        return juego;
     }
 
-    private void actualizarVista(int posicionActual) {
-        List<Pastor> pastores = mesa.obtenerPastoresEnMesa();
-        vista.pintarMesa(pastores, posicionActual);
-        vista.pintarPila(pilaDesposeidos.obtenerDesposeidos());
+    /**
+     * Anota en la bitácora las partidas que se inicien desde ahora, un registro por turno.
+     * El controlador solo la vacía al acabar cada partida; cerrarla es cosa de quien la abrió.
+     * Las partidas las juega un JuegoRueda, así que se pueden volver a jugar con
+     * LectorBitacora.reproducir.
+     *
+     * bitacora la bitácora, o null para dejar de anotar
+     */
+    public void setBitacora(BitacoraRueda bitacora) {
+        this.bitacora = bitacora;
     }
 
     /** Método para forzar la finalización del juego desde la vista (botón "detener"). */
     public void detenerJuego() {
-        this.juegoTerminado = true;
+        int actual = partida;
+        encolar(() -> {
+            if (actual == partida && fase != Fase.TERMINADA && fase != Fase.SIN_PARTIDA) {
+                terminar();
+            }
+        });
     }
-    
+
     /** Método para reiniciar el juego con nuevos parámetros */
     public void reiniciarJuego(int numPastores, int n) {
-        // Detener el juego actual
-        this.juegoTerminado = true;
-        
-        // Limpiar la vista
+        // Limpiar la vista; la partida actual queda atrás en cuanto iniciar cambia el número
         vista.limpiar();
-        
-        // Reiniciar variables
-        this.turno = 0;
-        this.juegoTerminado = false;
-        
+
         // Reiniciar con nuevos parámetros
         iniciar(numPastores, n);
     }
+
+    // --- Transiciones: solo se ejecutan dentro de drenar(), de una en una ---
+
+    private void empezarPartida(int nueva, Supplier<JuegoRueda> crear) {
+        if (nueva != partida) {
+            return;
+        }
+        cancelarVencimiento();
+        juego = crear.get();
+        if (bitacora != null) {
+            juego.setBitacora(bitacora);
+        }
+        // "empiece la danza aquel pastor que más doblones guarda en sus arcas"
+        juego.empezarDanza();
+        fase = Fase.EN_PAUSA;
+
+        // Mostrar estado inicial en la vista
+        actualizarVista();
+        abrirTurno(nueva);
+    }
+
+    /** Muestra el turno y pide la acción a la vista o a la política */
+    private void abrirTurno(int actual) {
+        if (actual != partida || fase != Fase.EN_PAUSA) {
+            return;
+        }
+        if (juego.isJuegoTerminado()) {
+            terminar();
+            return;
+        }
+        Pastor pastorActual = juego.getMesa().obtenerPastorActual();
+        if (pastorActual == null) {
+            vista.mostrarError("Error: No hay pastores en la mesa.");
+            terminar();
+            return;
+        }
+
+        // El turno ya está en la vista: lo llevó el último estado publicado
+        fase = Fase.ESPERANDO_ACCION;
+        int turnoAbierto = ++apertura;
+        long limite = tiempoLimiteMs;
+        if (limite > 0) {
+            vencimiento = programar(() -> vencerTurno(actual, turnoAbierto), limite);
+        }
+
+        if (politica == null) {
+            vista.ofrecerAcciones(juego.obtenerAccionesDisponibles());
+            return;
+        }
+        pedirDecision(actual, turnoAbierto);
+    }
+
+    /**
+     * Pide a la política la acción del turno abierto. La política decide en otro hilo sobre una
+     * copia del juego hecha aquí, así que el buzón puede seguir moviendo la partida (p. ej. si
+     * vence el turno) sin que nadie lea lo que cambia. Hay como mucho una decisión en camino
+     * por partida: si el turno se abre mientras otra no volvió, se pide cuando vuelva.
+     */
+    private void pedirDecision(int actual, int turnoAbierto) {
+        PoliticaAccion decide = politica;
+        if (decide == null) {
+            return;
+        }
+        if (decidiendo) {
+            decisionPendiente = true;
+            return;
+        }
+        decidiendo = true;
+        // La copia saca su azar del de la partida: con la misma semilla decide lo mismo
+        JuegoRueda copia = juego.copiar(new SplittableRandom(juego.getAzar().nextLong()));
+        try {
+            ejecutorPolitica.execute(() -> {
+                AccionPastor accion;
+                try {
+                    accion = decide.elegir(copia, copia.getAzar());
+                } catch (RuntimeException ex) {
+                    accion = null; // se juega la acción por defecto
+                    ex.printStackTrace();
+                }
+                AccionPastor elegida = accion;
+                long recibida = System.nanoTime();
+                encolar(() -> decisionRecibida(actual, turnoAbierto, elegida, recibida));
+            });
+        } catch (RejectedExecutionException ex) {
+            decidiendo = false; // sin dónde decidir: el turno se queda al tiempo límite o a detenerJuego
+        }
+    }
+
+    private void decisionRecibida(int actual, int turnoAbierto, AccionPastor accion, long recibida) {
+        decidiendo = false;
+        procesarAccion(actual, turnoAbierto, accion, recibida);
+        // Si llegó tarde y entretanto se abrió otro turno, ahora le toca a ese
+        if (decisionPendiente) {
+            decisionPendiente = false;
+            if (fase == Fase.ESPERANDO_ACCION) {
+                pedirDecision(partida, apertura);
+            }
+        }
+    }
+
+    /** Venció el tiempo del turno sin acción: se juega la de por defecto */
+    private void vencerTurno(int actual, int turnoAbierto) {
+        if (actual != partida || turnoAbierto != apertura || fase != Fase.ESPERANDO_ACCION) {
+            return;
+        }
+        vencimiento = null;
+        vista.mostrarMensaje("Se acabó el tiempo del turno: se arrima la guadaña a la derecha.");
+        procesarAccion(actual, turnoAbierto, null, System.nanoTime());
+    }
+
+    private void cancelarVencimiento() {
+        if (vencimiento != null) {
+            vencimiento.cancel(false);
+            vencimiento = null;
+        }
+    }
+
+    /**
+     * recibida cuándo llegó la acción (System.nanoTime), para medir cuánto tardó en jugarse
+     */
+    private void procesarAccion(int actual, int turnoAbierto, AccionPastor accion, long recibida) {
+        if (actual != partida || turnoAbierto != apertura || fase != Fase.ESPERANDO_ACCION) {
+            return;
+        }
+        if (accion == null) {
+            // En caso de que no llegue acción, tomamos una por defecto: degüello a la derecha
+            accion = AccionPastor.ARRIMAR_GUADAÑA_DERECHA;
+        }
+
+        // Lo que hace falta para contar a la vista qué pasó: el juego solo dice si avanzó
+        Mesa mesa = juego.getMesa();
+        PilaDesposeidos pila = juego.getPilaDesposeidos();
+        Pastor pastorActual = mesa.obtenerPastorActual();
+        Pastor cimaAntes = pila.obtenerPostrero();
+        Pastor masRicoAntes = mesa.encontrarMasRico();
+        int doblonesAntes = pastorActual.getDoblones();
+        int feligresesAntes = pastorActual.getFeligreses();
+        int turnoAntes = juego.getTurno();
+        boolean derecha = accion != AccionPastor.ARRIMAR_GUADAÑA_IZQUIERDA;
+
+        juego.tomarTurno(accion, derecha);
+        if (juego.getTurno() == turnoAntes && !juego.isJuegoTerminado()) {
+            // La acción no se pudo hacer: el turno sigue abierto
+            vista.mostrarError(motivoDeRechazo(accion));
+            if (politica == null) {
+                vista.ofrecerAcciones(juego.obtenerAccionesDisponibles());
+            } else if (accion != AccionPastor.ARRIMAR_GUADAÑA_DERECHA) {
+                procesarAccion(actual, turnoAbierto, AccionPastor.ARRIMAR_GUADAÑA_DERECHA, recibida);
+            } else {
+                terminar();
+            }
+            return;
+        }
+
+        switch (accion) {
+            case SACAR_DEL_OLVIDO:
+                vista.mostrarRescate(cimaAntes, pastorActual);
+                break;
+            case METER_MANO_FALTRIQUERA:
+                vista.mostrarHurtoPiadoso(pastorActual, masRicoAntes,
+                                          pastorActual.getDoblones() - doblonesAntes,
+                                          pastorActual.getFeligreses() - feligresesAntes);
+                break;
+            default:
+                vista.mostrarDeguello(pila.obtenerPostrero(), pastorActual, derecha);
+        }
+
+        // Actualizar la vista después de la acción
+        cancelarVencimiento();
+        actualizarVista();
+        ObservadorPartida aviso = observador;
+        if (aviso != null) {
+            aviso.turnoJugado(this, System.nanoTime() - recibida);
+        }
+
+        if (juego.isJuegoTerminado()) {
+            terminar();
+            return;
+        }
+
+        // El siguiente turno se abre cuando venza la pausa, sin dormir ningún hilo
+        fase = Fase.EN_PAUSA;
+        long pausa = pausaMs;
+        if (pausa == 0) {
+            encolar(() -> abrirTurno(actual));
+        } else {
+            programar(() -> abrirTurno(actual), pausa);
+        }
+    }
+
+    private static String motivoDeRechazo(AccionPastor accion) {
+        switch (accion) {
+            case SACAR_DEL_OLVIDO:
+                return "La pila está vacía: no es posible rescatar.";
+            case METER_MANO_FALTRIQUERA:
+                return "No puede hurtar: no es el pastor más pobre.";
+            default:
+                return "No hay vecinos en la dirección seleccionada.";
+        }
+    }
+
+    private void terminar() {
+        fase = Fase.TERMINADA;
+        cancelarVencimiento();
+        Pastor ganador = null;
+        List<Pastor> finalList = juego.getMesa().obtenerPastoresEnMesa();
+        if (!finalList.isEmpty()) {
+            ganador = finalList.get(0);
+        }
+        vista.mostrarReyFinal(ganador);
+        ObservadorPartida aviso = observador;
+        if (aviso != null) {
+            aviso.partidaTerminada(this, ganador);
+        }
+        if (bitacora != null) {
+            try {
+                bitacora.vaciar();
+            } catch (IOException ex) {
+                vista.mostrarError("No se pudo escribir la bitácora: " + ex.getMessage());
+            }
+        }
+    }
+
+    private void actualizarVista() {
+        // Un solo estado inmutable por turno (mesa, pila, turno y estadísticas) que se arma sin
+        // copiar listas; la vista pinta el último que tenga cuando le toque, mientras la partida sigue
+        vista.actualizarEstado(juego.obtenerEstadoRueda());
+    }
+
+    // --- Buzón ---
+
+    /** Echa el evento al buzón cuando pasen ms milisegundos (null si el planificador se cerró) */
+    private ScheduledFuture<?> programar(Runnable evento, long ms) {
+        try {
+            return planificador.schedule(() -> encolar(evento), ms, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            return null;
+        }
+    }
+
+    private void encolar(Runnable evento) {
+        eventos.add(evento);
+        if (drenando.compareAndSet(false, true)) {
+            try {
+                planificador.execute(this::drenar);
+            } catch (RejectedExecutionException ex) {
+                // El planificador se cerró: la partida ya no avanza
+                eventos.clear();
+            }
+        }
+    }
+
+    /**
+     * Atiende los eventos pendientes. Si llegan más mientras se suelta el buzón, vuelve a
+     * tomarlo, así que ningún evento se queda sin atender ni se atienden dos a la vez.
+     */
+    private void drenar() {
+        do {
+            Runnable evento;
+            while ((evento = eventos.poll()) != null) {
+                try {
+                    evento.run();
+                } catch (Exception ex) {
+                    // Cualquier excepción se comunica a la vista
+                    vista.mostrarError("Error en el controlador: " + ex.getMessage());
+                    ex.printStackTrace();
+                }
+            }
+            drenando.set(false);
+        } while (!eventos.isEmpty() && drenando.compareAndSet(false, true));
+    }
+
+    /** Planificador de un solo hilo (demonio) para los controladores que no traen el suyo */
+    private static final class PlanificadorCompartido {
+        static final ScheduledExecutorService INSTANCIA = crear();
+
+        private static ScheduledExecutorService crear() {
+            ScheduledThreadPoolExecutor planificador = new ScheduledThreadPoolExecutor(1, tarea -> {
+                Thread hilo = new Thread(tarea, "Rueda-Turnos");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            planificador.setRemoveOnCancelPolicy(true);
+            return planificador;
+        }
+    }
 }
@@ -0,0 +1,74 @@
+package controller;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias en nanosegundos que muchos hilos llenan a la vez sin cerrojos.
+ * Cada valor cae en un cubo logarítmico: 16 cubos por cada potencia de dos, así que un
+ * cuantil sale con error relativo menor que 1/16 sin guardar los valores. Los cubos son
+ * contadores atómicos; para leer se copian (instantanea) y los cuantiles se sacan de la copia,
+ * lo que permite restar dos copias y medir solo un intervalo.
+ */
+final class HistogramaLatencias {
+    private static final int SUBCUBOS_BITS = 4;
+    private static final int SUBCUBOS = 1 << SUBCUBOS_BITS;
+    private static final int CUBOS = (64 - SUBCUBOS_BITS) * SUBCUBOS;
+
+    private final AtomicLongArray cuentas = new AtomicLongArray(CUBOS);
+
+    void agregar(long nanos) {
+        cuentas.getAndIncrement(indiceDe(Math.max(0, nanos)));
+    }
+
+    /** Copia de las cuentas de cada cubo */
+    long[] instantanea() {
+        long[] copia = new long[CUBOS];
+        for (int i = 0; i < CUBOS; i++) {
+            copia[i] = cuentas.get(i);
+        }
+        return copia;
+    }
+
+    /**
+     * Cuantil q (0..1) de unas cuentas copiadas con instantanea (o la resta de dos):
+     * el límite superior del cubo donde cae, en nanosegundos; 0 si no hay valores
+     */
+    static long cuantil(long[] cuentas, double q) {
+        long total = 0;
+        for (long cuenta : cuentas) {
+            total += cuenta;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rango = (long) Math.ceil(q * total);
+        long acumulado = 0;
+        for (int i = 0; i < cuentas.length; i++) {
+            acumulado += cuentas[i];
+            if (acumulado >= Math.max(1, rango)) {
+                return limiteSuperior(i);
+            }
+        }
+        return limiteSuperior(cuentas.length - 1);
+    }
+
+    /** Los valores menores que SUBCUBOS tienen cubo propio; los demás, según su exponente y sus 4 bits siguientes */
+    private static int indiceDe(long valor) {
+        if (valor < SUBCUBOS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int sub = (int) (valor >>> (exponente - SUBCUBOS_BITS)) & (SUBCUBOS - 1);
+        return (exponente - SUBCUBOS_BITS + 1) * SUBCUBOS + sub;
+    }
+
+    private static long limiteSuperior(int indice) {
+        if (indice < SUBCUBOS) {
+            return indice;
+        }
+        int exponente = indice / SUBCUBOS + SUBCUBOS_BITS - 1;
+        long sub = indice % SUBCUBOS;
+        long desde = (SUBCUBOS + sub) << (exponente - SUBCUBOS_BITS);
+        return desde + (1L << (exponente - SUBCUBOS_BITS)) - 1;
+    }
+}
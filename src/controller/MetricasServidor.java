@@ -0,0 +1,87 @@
+package controller;
+
+import java.util.Locale;
+
+/**
+ * Métricas de un ServidorRuedas tomadas con ServidorRuedas.medir(). Los totales cuentan desde
+ * que se creó el servidor; el ritmo de turnos y las latencias, solo desde la medición anterior.
+ */
+public class MetricasServidor {
+    private final int partidasActivas;
+    private final long partidasAdmitidas;
+    private final long partidasRechazadas;
+    private final long partidasTerminadas;
+    private final long turnos;
+    private final long turnosIntervalo;
+    private final long nanosIntervalo;
+    private final long latenciaP50Nanos;
+    private final long latenciaP99Nanos;
+
+    MetricasServidor(int partidasActivas, long partidasAdmitidas, long partidasRechazadas,
+                     long partidasTerminadas, long turnos, long turnosIntervalo, long nanosIntervalo,
+                     long latenciaP50Nanos, long latenciaP99Nanos) {
+        this.partidasActivas = partidasActivas;
+        this.partidasAdmitidas = partidasAdmitidas;
+        this.partidasRechazadas = partidasRechazadas;
+        this.partidasTerminadas = partidasTerminadas;
+        this.turnos = turnos;
+        this.turnosIntervalo = turnosIntervalo;
+        this.nanosIntervalo = nanosIntervalo;
+        this.latenciaP50Nanos = latenciaP50Nanos;
+        this.latenciaP99Nanos = latenciaP99Nanos;
+    }
+
+    public int getPartidasActivas() {
+        return partidasActivas;
+    }
+
+    public long getPartidasAdmitidas() {
+        return partidasAdmitidas;
+    }
+
+    /**
+     * @return partidas que no se abrieron porque el servidor estaba lleno
+     */
+    public long getPartidasRechazadas() {
+        return partidasRechazadas;
+    }
+
+    public long getPartidasTerminadas() {
+        return partidasTerminadas;
+    }
+
+    public long getTurnos() {
+        return turnos;
+    }
+
+    public double getSegundosIntervalo() {
+        return nanosIntervalo / 1e9;
+    }
+
+    public double getTurnosPorSegundo() {
+        return nanosIntervalo == 0 ? 0 : turnosIntervalo / getSegundosIntervalo();
+    }
+
+    /**
+     * @return mediana de lo que tardó un turno desde que llegó su acción, en milisegundos
+     */
+    public double getLatenciaP50Ms() {
+        return latenciaP50Nanos / 1e6;
+    }
+
+    /**
+     * @return percentil 99 de lo que tardó un turno desde que llegó su acción, en milisegundos
+     */
+    public double getLatenciaP99Ms() {
+        return latenciaP99Nanos / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "MetricasServidor[activas=%d, admitidas=%d, rechazadas=%d, terminadas=%d, turnos=%d, "
+                + "turnos/s=%.1f, p50=%.3f ms, p99=%.3f ms]",
+                partidasActivas, partidasAdmitidas, partidasRechazadas, partidasTerminadas, turnos,
+                getTurnosPorSegundo(), getLatenciaP50Ms(), getLatenciaP99Ms());
+    }
+}
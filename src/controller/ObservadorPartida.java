@@ -0,0 +1,23 @@
+package controller;
+
+import model.Pastor;
+
+/**
+ * Recibe aviso de lo que pasa en una partida llevada por un ControladorJuego.
+ * Los avisos llegan en el hilo del planificador del controlador, dentro de su turno de
+ * eventos: deben volver pronto y no deben esperar a nadie.
+ */
+public interface ObservadorPartida {
+
+    /**
+     * controlador el que jugó el turno
+     * latenciaNanos tiempo desde que llegó la acción hasta que el turno quedó jugado y pintado
+     */
+    void turnoJugado(ControladorJuego controlador, long latenciaNanos);
+
+    /**
+     * controlador el de la partida que acabó (o se detuvo)
+     * ganador el pastor que quedó en la mesa, o null si no quedó ninguno
+     */
+    void partidaTerminada(ControladorJuego controlador, Pastor ganador);
+}
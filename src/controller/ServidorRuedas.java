@@ -0,0 +1,277 @@
+package controller;
+
+import model.AccionPastor;
+import model.ConfiguracionRueda;
+import model.Pastor;
+import model.PoliticaAccion;
+import view.VistaJuego;
+import view.VistaSinPantalla;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Anfitrión de muchas mesas a la vez: abre, sigue y cierra partidas, cada una con su propio
+ * ControladorJuego. Todas comparten un planificador con unos pocos hilos; como cada controlador
+ * atiende sus eventos de uno en uno desde su buzón, el estado de cada partida solo lo toca un
+ * hilo a la vez sin que las partidas compartan cerrojos, y una partida que espera una acción no
+ * ocupa ningún hilo. Así caben miles de partidas con tantos hilos como núcleos.
+ * <p>
+ * Admite partidas hasta maxPartidas activas (las demás se rechazan), da a cada turno un tiempo
+ * límite tras el que se juega la acción por defecto, y mide las partidas activas, los turnos
+ * por segundo y la latencia de los turnos (medir(), o por HTTP con publicarMetricas).
+ * </p>
+ * Cada partida recibe su propia política, hecha por la fábrica que se da al abrirla: las
+ * políticas con estado (como PoliticaMCTS) no se comparten y una partida no influye en otra.
+ */
+public class ServidorRuedas implements AutoCloseable {
+    public static final long TIEMPO_LIMITE_POR_DEFECTO_MS = 30_000;
+
+    private final int maxPartidas;
+    private final ScheduledThreadPoolExecutor planificador;
+    private final Map<Integer, ControladorJuego> partidas = new ConcurrentHashMap<>();
+    private final AtomicInteger siguienteId = new AtomicInteger();
+    private final AtomicInteger activas = new AtomicInteger();
+    private final LongAdder admitidas = new LongAdder();
+    private final LongAdder rechazadas = new LongAdder();
+    private final LongAdder terminadas = new LongAdder();
+    private final LongAdder turnos = new LongAdder();
+    private final HistogramaLatencias latencias = new HistogramaLatencias();
+    private long tiempoLimiteMs = TIEMPO_LIMITE_POR_DEFECTO_MS;
+    private long pausaMs = 0;
+    private Executor ejecutorPolitica;
+    private HttpServer http;
+
+    // Lo visto en la medición anterior, para dar ritmo y latencias solo del último intervalo
+    private long[] latenciasAntes;
+    private long turnosAntes;
+    private long nanosAntes = System.nanoTime();
+
+    /**
+     * maxPartidas cuántas partidas puede haber activas a la vez
+     * hilos hilos del planificador que mueve todas las partidas
+     */
+    public ServidorRuedas(int maxPartidas, int hilos) {
+        if (maxPartidas < 1 || hilos < 1) {
+            throw new IllegalArgumentException("Se requiere al menos una partida y un hilo");
+        }
+        this.maxPartidas = maxPartidas;
+        AtomicInteger numeroHilo = new AtomicInteger();
+        this.planificador = new ScheduledThreadPoolExecutor(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "Rueda-Servidor-" + numeroHilo.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        this.planificador.setRemoveOnCancelPolicy(true); // los vencimientos cancelados no se acumulan
+        this.planificador.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.latenciasAntes = latencias.instantanea();
+    }
+
+    /**
+     * Tiempo límite de cada turno de las partidas que se abran desde ahora (0: sin límite)
+     */
+    public void setTiempoLimiteTurnoMs(long tiempoLimiteMs) {
+        this.tiempoLimiteMs = Math.max(0, tiempoLimiteMs);
+    }
+
+    /**
+     * Pausa entre turnos de las partidas que se abran desde ahora (0: a toda velocidad)
+     */
+    public void setPausaMs(long pausaMs) {
+        this.pausaMs = Math.max(0, pausaMs);
+    }
+
+    /**
+     * Dónde deciden las políticas de las partidas que se abran desde ahora (null: el pool común).
+     * Con Runnable::run deciden en el propio planificador, lo mejor para políticas baratas.
+     */
+    public void setEjecutorPolitica(Executor ejecutorPolitica) {
+        this.ejecutorPolitica = ejecutorPolitica;
+    }
+
+    /**
+     * Abre una partida sin pantalla que juega una política nueva de la fábrica
+     * @return el id de la partida, o -1 si el servidor está lleno
+     */
+    public int abrirPartida(ConfiguracionRueda configuracion, Supplier<? extends PoliticaAccion> fabricaPolitica) {
+        return abrirPartida(configuracion, fabricaPolitica, new VistaSinPantalla());
+    }
+
+    /**
+     * Abre una partida. Sin política, las acciones las da quien atienda la vista, llamando a
+     * recibirAccion(id, accion); si no llegan a tiempo se juega la acción por defecto.
+     * fabricaPolitica da la política de esta partida (se llama una vez, en este hilo), o null
+     * vista a quién se le muestra la partida (se le llama desde los hilos del servidor)
+     * @return el id de la partida, o -1 si el servidor está lleno
+     */
+    public int abrirPartida(ConfiguracionRueda configuracion, Supplier<? extends PoliticaAccion> fabricaPolitica,
+                            VistaJuego vista) {
+        if (planificador.isShutdown()) {
+            throw new IllegalStateException("El servidor está cerrado");
+        }
+        // Control de admisión: se reserva la plaza antes de crear nada
+        if (activas.incrementAndGet() > maxPartidas) {
+            activas.decrementAndGet();
+            rechazadas.increment();
+            return -1;
+        }
+        admitidas.increment();
+        int id = siguienteId.incrementAndGet();
+        ControladorJuego controlador = new ControladorJuego(vista, planificador);
+        controlador.setPolitica(fabricaPolitica != null ? fabricaPolitica.get() : null);
+        controlador.setPausaMs(pausaMs);
+        controlador.setTiempoLimiteTurnoMs(tiempoLimiteMs);
+        if (ejecutorPolitica != null) {
+            controlador.setEjecutorPolitica(ejecutorPolitica);
+        }
+        controlador.setObservador(new Contador(id));
+        partidas.put(id, controlador);
+        controlador.iniciar(configuracion);
+        return id;
+    }
+
+    /**
+     * Entrega la acción del pastor con turno en una partida sin política
+     * @return false si la partida no existe (o ya terminó)
+     */
+    public boolean recibirAccion(int id, AccionPastor accion) {
+        ControladorJuego controlador = partidas.get(id);
+        if (controlador == null) {
+            return false;
+        }
+        controlador.recibirAccion(accion);
+        return true;
+    }
+
+    /**
+     * Detiene una partida y libera su plaza
+     * @return false si la partida no existe (o ya terminó)
+     */
+    public boolean cerrarPartida(int id) {
+        ControladorJuego controlador = partidas.get(id);
+        if (controlador == null) {
+            return false;
+        }
+        controlador.detenerJuego(); // al terminar, el observador la quita y libera la plaza
+        return true;
+    }
+
+    /**
+     * @return el controlador de una partida activa, o null
+     */
+    public ControladorJuego getPartida(int id) {
+        return partidas.get(id);
+    }
+
+    public int getPartidasActivas() {
+        return activas.get();
+    }
+
+    public int getMaxPartidas() {
+        return maxPartidas;
+    }
+
+    /**
+     * Toma las métricas: totales desde el principio, y turnos por segundo y latencias desde la
+     * medición anterior
+     */
+    public synchronized MetricasServidor medir() {
+        long ahora = System.nanoTime();
+        long[] cuentas = latencias.instantanea();
+        long[] intervalo = new long[cuentas.length];
+        for (int i = 0; i < cuentas.length; i++) {
+            intervalo[i] = cuentas[i] - latenciasAntes[i];
+        }
+        long totalTurnos = turnos.sum();
+        MetricasServidor metricas = new MetricasServidor(activas.get(), admitidas.sum(), rechazadas.sum(),
+                                                         terminadas.sum(), totalTurnos, totalTurnos - turnosAntes,
+                                                         ahora - nanosAntes,
+                                                         HistogramaLatencias.cuantil(intervalo, 0.50),
+                                                         HistogramaLatencias.cuantil(intervalo, 0.99));
+        latenciasAntes = cuentas;
+        turnosAntes = totalTurnos;
+        nanosAntes = ahora;
+        return metricas;
+    }
+
+    /**
+     * Sirve las métricas en texto plano en http://host:puerto/metricas; cada petición es una
+     * medición, así que el intervalo es el que pasa entre peticiones
+     * puerto puerto donde escuchar (0 para uno libre cualquiera)
+     * @return el puerto donde quedó escuchando
+     */
+    public synchronized int publicarMetricas(int puerto) throws IOException {
+        if (http != null) {
+            return http.getAddress().getPort();
+        }
+        http = HttpServer.create(new InetSocketAddress(puerto), 0);
+        http.createContext("/metricas", intercambio -> {
+            byte[] cuerpo = (medir() + "\n").getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            intercambio.sendResponseHeaders(200, cuerpo.length);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(cuerpo);
+            }
+        });
+        http.start();
+        return http.getAddress().getPort();
+    }
+
+    /**
+     * Detiene todas las partidas, el planificador y, si se publicó, el servicio de métricas
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (http != null) {
+                http.stop(0);
+                http = null;
+            }
+        }
+        for (ControladorJuego controlador : partidas.values()) {
+            controlador.detenerJuego();
+        }
+        planificador.shutdown();
+        try {
+            planificador.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        planificador.shutdownNow();
+    }
+
+    /** Cuenta los turnos y su latencia, y libera la plaza de la partida cuando acaba */
+    private final class Contador implements ObservadorPartida {
+        private final int id;
+
+        Contador(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public void turnoJugado(ControladorJuego controlador, long latenciaNanos) {
+            turnos.increment();
+            latencias.agregar(latenciaNanos);
+        }
+
+        @Override
+        public void partidaTerminada(ControladorJuego controlador, Pastor ganador) {
+            if (partidas.remove(id, controlador)) {
+                activas.decrementAndGet();
+                terminadas.increment();
+            }
+        }
+    }
+}
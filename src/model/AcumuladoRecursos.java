@@ -0,0 +1,136 @@
+package model;
+
+/**
+ * Totales corrientes de los recursos de un grupo de pastores (la mesa o la pila):
+ * cuántos son, la suma y la suma de cuadrados de sus doblones y feligreses, y un
+ * BosquejoCuantiles de cada recurso para percentiles y Gini.
+ * Se actualizan al entrar, salir o cambiar los recursos de cada pastor, de modo que
+ * totales, promedios y varianzas salen en O(1) sin recorrer a nadie.
+ * Las sumas de cuadrados van en 128 bits (dos long) para no desbordarse nunca.
+ * Con -Drueda.verificarTotales=true cada consulta se contrasta con un recuento completo.
+ */
+final class AcumuladoRecursos {
+    /** Modo de depuración: recontar y comparar en cada consulta */
+    static final boolean VERIFICAR = Boolean.getBoolean("rueda.verificarTotales");
+    
+    private static final double DOS_A_LA_64 = 0x1p64;
+    
+    private int pastores;
+    private long doblones;
+    private long feligreses;
+    private final long[] cuadradosDoblones = new long[2];    // {alto, bajo} sin signo
+    private final long[] cuadradosFeligreses = new long[2];
+    private BosquejoCuantiles bosquejoDoblones = new BosquejoCuantiles();
+    private BosquejoCuantiles bosquejoFeligreses = new BosquejoCuantiles();
+    
+    void sumar(Pastor pastor) {
+        pastores++;
+        sumar(pastor.getDoblones(), pastor.getFeligreses(), true);
+    }
+    
+    void restar(Pastor pastor) {
+        pastores--;
+        sumar(pastor.getDoblones(), pastor.getFeligreses(), false);
+    }
+    
+    /**
+     * Cambia los recursos de un pastor que ya está contado
+     */
+    void cambiar(int doblonesAntes, int feligresesAntes, int doblonesAhora, int feligresesAhora) {
+        sumar(doblonesAntes, feligresesAntes, false);
+        sumar(doblonesAhora, feligresesAhora, true);
+    }
+    
+    private void sumar(long d, long f, boolean agregar) {
+        if (agregar) {
+            doblones += d;
+            feligreses += f;
+            bosquejoDoblones.agregar(d);
+            bosquejoFeligreses.agregar(f);
+        } else {
+            doblones -= d;
+            feligreses -= f;
+            bosquejoDoblones.quitar(d);
+            bosquejoFeligreses.quitar(f);
+        }
+        sumarCuadrado(cuadradosDoblones, d, agregar);
+        sumarCuadrado(cuadradosFeligreses, f, agregar);
+    }
+    
+    /** Suma o resta v² a un acumulador de 128 bits */
+    private static void sumarCuadrado(long[] acumulador, long v, boolean agregar) {
+        long bajo = v * v;
+        long alto = Math.multiplyHigh(v, v);
+        if (agregar) {
+            long nuevoBajo = acumulador[1] + bajo;
+            acumulador[0] += alto + (Long.compareUnsigned(nuevoBajo, bajo) < 0 ? 1 : 0);
+            acumulador[1] = nuevoBajo;
+        } else {
+            long nuevoBajo = acumulador[1] - bajo;
+            acumulador[0] -= alto + (Long.compareUnsigned(acumulador[1], bajo) < 0 ? 1 : 0);
+            acumulador[1] = nuevoBajo;
+        }
+    }
+    
+    private static double comoDouble(long[] acumulador) {
+        double bajo = acumulador[1] >= 0 ? acumulador[1] : acumulador[1] + DOS_A_LA_64;
+        return acumulador[0] * DOS_A_LA_64 + bajo;
+    }
+    
+    void vaciar() {
+        pastores = 0;
+        doblones = 0;
+        feligreses = 0;
+        cuadradosDoblones[0] = cuadradosDoblones[1] = 0;
+        cuadradosFeligreses[0] = cuadradosFeligreses[1] = 0;
+        bosquejoDoblones = new BosquejoCuantiles();
+        bosquejoFeligreses = new BosquejoCuantiles();
+    }
+    
+    int getPastores() {
+        return pastores;
+    }
+    
+    long getDoblones() {
+        return doblones;
+    }
+    
+    long getFeligreses() {
+        return feligreses;
+    }
+    
+    /**
+     * Fotografía de los totales para el estado del juego (copia los bosquejos)
+     */
+    EstadisticasRecursos comoEstadisticas() {
+        return new EstadisticasRecursos(doblones, feligreses, pastores,
+                comoDouble(cuadradosDoblones), comoDouble(cuadradosFeligreses),
+                bosquejoDoblones.copiar(), bosquejoFeligreses.copiar());
+    }
+    
+    /**
+     * En modo de depuración, recuenta a los pastores dados y falla si los totales no cuadran
+     * donde nombre del contenedor, para el mensaje
+     * @throws IllegalStateException si algún total corriente se ha desviado
+     */
+    void verificar(Iterable<Pastor> todos, String donde) {
+        if (!VERIFICAR) {
+            return;
+        }
+        AcumuladoRecursos recuento = new AcumuladoRecursos();
+        for (Pastor pastor : todos) {
+            recuento.sumar(pastor);
+        }
+        if (recuento.pastores != pastores || recuento.doblones != doblones || recuento.feligreses != feligreses
+                || recuento.cuadradosDoblones[0] != cuadradosDoblones[0]
+                || recuento.cuadradosDoblones[1] != cuadradosDoblones[1]
+                || recuento.cuadradosFeligreses[0] != cuadradosFeligreses[0]
+                || recuento.cuadradosFeligreses[1] != cuadradosFeligreses[1]
+                || !recuento.bosquejoDoblones.equals(bosquejoDoblones)
+                || !recuento.bosquejoFeligreses.equals(bosquejoFeligreses)) {
+            throw new IllegalStateException(String.format(
+                    "Totales de %s desviados: llevados [%d, %d, %d], recontados [%d, %d, %d]",
+                    donde, pastores, doblones, feligreses, recuento.pastores, recuento.doblones, recuento.feligreses));
+        }
+    }
+}
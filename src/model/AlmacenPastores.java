@@ -0,0 +1,168 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Guarda a los pastores columna a columna en arreglos primitivos, sin un objeto por pastor.
+ * Cada pastor es un asa: un índice en los arreglos de id, doblones, feligreses, trato y
+ * enlaces con sus vecinos de asiento. Un pastor está sentado mientras tiene enlaces.
+ * Solo se fabrica un Pastor cuando alguien lo pide con materializar(), p. ej. la vista.
+ */
+final class AlmacenPastores {
+    /** Asa vacía: ningún pastor, o ningún vecino. */
+    static final int NINGUNO = -1;
+
+    private int cantidad;
+    private int[] ids;
+    private long[] doblones;
+    private long[] feligreses;
+    private int[] tratos;       // ordinales de RegistroTratos
+    private int[] siguiente;    // vecino a la derecha, o NINGUNO si no está sentado
+    private int[] anterior;     // vecino a la izquierda, o NINGUNO si no está sentado
+    private String[] nombres;   // null si el pastor no tiene nombre propio
+
+    AlmacenPastores(int capacidad) {
+        capacidad = Math.max(capacidad, 4);
+        ids = new int[capacidad];
+        doblones = new long[capacidad];
+        feligreses = new long[capacidad];
+        tratos = new int[capacidad];
+        siguiente = new int[capacidad];
+        anterior = new int[capacidad];
+        nombres = new String[capacidad];
+    }
+
+    /**
+     * Da de alta a un pastor, todavía sin sentar
+     * nombre su nombre, o null para llamarlo "Pastor id"
+     * trato ordinal del trato en RegistroTratos
+     * @return el asa del pastor
+     */
+    int agregar(int id, String nombre, long doblones, long feligreses, int trato) {
+        if (cantidad == ids.length) {
+            int capacidad = cantidad * 2;
+            ids = Arrays.copyOf(ids, capacidad);
+            this.doblones = Arrays.copyOf(this.doblones, capacidad);
+            this.feligreses = Arrays.copyOf(this.feligreses, capacidad);
+            tratos = Arrays.copyOf(tratos, capacidad);
+            siguiente = Arrays.copyOf(siguiente, capacidad);
+            anterior = Arrays.copyOf(anterior, capacidad);
+            nombres = Arrays.copyOf(nombres, capacidad);
+        }
+        int asa = cantidad++;
+        ids[asa] = id;
+        nombres[asa] = nombre;
+        this.doblones[asa] = Math.max(0, doblones);
+        this.feligreses[asa] = Math.max(0, feligreses);
+        tratos[asa] = trato;
+        siguiente[asa] = NINGUNO;
+        anterior[asa] = NINGUNO;
+        return asa;
+    }
+
+    int cantidad() {
+        return cantidad;
+    }
+
+    int getId(int asa) {
+        return ids[asa];
+    }
+
+    String getNombre(int asa) {
+        return nombres[asa] != null ? nombres[asa] : "Pastor " + ids[asa];
+    }
+
+    long getDoblones(int asa) {
+        return doblones[asa];
+    }
+
+    long getFeligreses(int asa) {
+        return feligreses[asa];
+    }
+
+    int getTrato(int asa) {
+        return tratos[asa];
+    }
+
+    boolean esDelMismoTrato(int a, int b) {
+        return tratos[a] == tratos[b];
+    }
+
+    boolean estaSentado(int asa) {
+        return siguiente[asa] != NINGUNO;
+    }
+
+    int siguiente(int asa) {
+        return siguiente[asa];
+    }
+
+    int anterior(int asa) {
+        return anterior[asa];
+    }
+
+    /** Deja a b sentado justo a la derecha de a */
+    void enlazar(int a, int b) {
+        siguiente[a] = b;
+        anterior[b] = a;
+    }
+
+    /** Borra los enlaces de un pastor que se levanta de la mesa */
+    void soltar(int asa) {
+        siguiente[asa] = NINGUNO;
+        anterior[asa] = NINGUNO;
+    }
+
+    /**
+     * "traspasándole su gente y su tesoro"
+     */
+    void traspasarRecursos(int origen, int destino) {
+        doblones[destino] += doblones[origen];
+        feligreses[destino] += feligreses[origen];
+        doblones[origen] = 0;
+        feligreses[origen] = 0;
+    }
+
+    /**
+     * "dándole la mitad cabal de sus fieles y de su riqueza"
+     */
+    void darMitad(int origen, int destino) {
+        long mitadDoblones = doblones[origen] / 2;
+        long mitadFeligreses = feligreses[origen] / 2;
+        doblones[origen] -= mitadDoblones;
+        feligreses[origen] -= mitadFeligreses;
+        doblones[destino] += mitadDoblones;
+        feligreses[destino] += mitadFeligreses;
+    }
+
+    /**
+     * "llevarse de ella la tercia parte, tanto en ovejas como en moneda"
+     * @return true si el hurto se realizó
+     */
+    boolean aplicarHurtoPiadoso(int ladron, int victima) {
+        if (doblones[victima] > 0 && feligreses[victima] > 0) {
+            long doblonesRobados = doblones[victima] / 3;
+            long feligresesRobados = feligreses[victima] / 3;
+            doblones[ladron] += doblonesRobados;
+            feligreses[ladron] += feligresesRobados;
+            doblones[victima] -= doblonesRobados;
+            feligreses[victima] -= feligresesRobados;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Fabrica un Pastor con los datos actuales del asa, para quien necesite objetos (la vista).
+     * Es una copia: cambiarla no toca el almacén.
+     */
+    Pastor materializar(int asa) {
+        Pastor pastor = new Pastor(ids[asa], getNombre(asa), acotar(doblones[asa]), acotar(feligreses[asa]),
+                                   RegistroTratos.nombre(tratos[asa]));
+        pastor.setEnMesa(estaSentado(asa));
+        return pastor;
+    }
+
+    private static int acotar(long valor) {
+        return (int) Math.min(Integer.MAX_VALUE, valor);
+    }
+}
@@ -0,0 +1,220 @@
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Bitácora binaria de partidas: un registro de ancho fijo por cada turno jugado, añadido
+ * siempre al final del archivo. Los registros se juntan en un lote en memoria y se escriben
+ * de una vez por el FileChannel cuando el lote se llena, al vaciar() y al cerrar.
+ * Con LectorBitacora se puede saltar a cualquier turno o recorrer millones de partidas.
+ * <p>
+ * El archivo empieza con una cabecera del mismo tamaño que un registro (número mágico,
+ * versión y tamaño de registro). Cada partida ocupa registros seguidos: uno de PARTIDA,
+ * uno de ASIENTO por cada pastor sentado al empezar y uno de TURNO por cada turno.
+ * Todos los enteros van en little-endian:
+ * </p>
+ * <pre>
+ *  desde  campo       PARTIDA             ASIENTO              TURNO
+ *   0     int         partida             partida              partida
+ *   4     int         turno inicial       0                    turno
+ *   8     int         pastores sentados   id del pastor        id del actor
+ *  12     int         n                   ordinal del trato    id de la víctima (0 si no hay)
+ *  16     int         posición del turno  asiento              asiento del actor
+ *  20     int         tipo de corro       doblones             cambio de doblones del actor
+ *  24     int         0                   feligreses           cambio de feligreses del actor
+ *  28     int         siguiente orden     orden de asiento     cambio de doblones de la víctima
+ *  32     int         0                   0                    cambio de feligreses de la víctima
+ *  36     byte        tipo de registro
+ *  37     byte        -1                  -1                   ordinal de la acción
+ *  38     byte        0                   0                    1 si miró a la derecha
+ *  39     byte        reservado
+ * </pre>
+ * Las partidas se numeran desde 0 en cada archivo; al abrir uno que ya tiene partidas se sigue
+ * la cuenta. No es segura entre hilos: cada hilo que juegue debe tener su propia bitácora.
+ */
+public class BitacoraRueda implements AutoCloseable {
+    public static final int TAMAÑO_REGISTRO = 40;
+    public static final byte TIPO_PARTIDA = 0;
+    public static final byte TIPO_ASIENTO = 1;
+    public static final byte TIPO_TURNO = 2;
+
+    static final int MAGICO = 0x52554544; // "RUED"
+    static final int VERSION = 1;
+    static final ByteOrder ORDEN_BYTES = ByteOrder.LITTLE_ENDIAN;
+
+    /** Registros que se juntan antes de escribir al canal (40 KiB) */
+    private static final int REGISTROS_POR_LOTE = 1024;
+
+    private final FileChannel canal;
+    private final ByteBuffer lote;
+    private int siguientePartida;
+    private int partidaActual = -1;
+    private boolean cerrada;
+
+    /**
+     * Abre la bitácora para añadir partidas al final, creando el archivo si no existe.
+     * Si el último registro quedó a medio escribir (p. ej. el programa murió en mitad de un lote),
+     * se descarta ese trozo.
+     * @throws IOException si no se puede abrir o el archivo no es una bitácora de la rueda
+     */
+    public BitacoraRueda(Path ruta) throws IOException {
+        this.canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                      StandardOpenOption.WRITE);
+        this.lote = ByteBuffer.allocateDirect(REGISTROS_POR_LOTE * TAMAÑO_REGISTRO).order(ORDEN_BYTES);
+        try {
+            prepararArchivo();
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    private void prepararArchivo() throws IOException {
+        long tamaño = canal.size();
+        if (tamaño == 0) {
+            lote.putInt(MAGICO).putInt(VERSION).putInt(TAMAÑO_REGISTRO);
+            lote.position(TAMAÑO_REGISTRO);
+            escribirLote();
+            return;
+        }
+
+        ByteBuffer cabecera = ByteBuffer.allocate(TAMAÑO_REGISTRO).order(ORDEN_BYTES);
+        leerCompleto(cabecera, 0);
+        if (cabecera.getInt(0) != MAGICO || cabecera.getInt(4) != VERSION
+                || cabecera.getInt(8) != TAMAÑO_REGISTRO) {
+            throw new IOException("El archivo no es una bitácora de la rueda (versión " + VERSION + ")");
+        }
+
+        long completos = (tamaño - TAMAÑO_REGISTRO) / TAMAÑO_REGISTRO;
+        long fin = TAMAÑO_REGISTRO + completos * TAMAÑO_REGISTRO;
+        if (fin != tamaño) {
+            canal.truncate(fin);
+        }
+        if (completos > 0) {
+            ByteBuffer ultimo = ByteBuffer.allocate(TAMAÑO_REGISTRO).order(ORDEN_BYTES);
+            leerCompleto(ultimo, fin - TAMAÑO_REGISTRO);
+            siguientePartida = ultimo.getInt(0) + 1;
+        }
+        canal.position(fin);
+    }
+
+    private void leerCompleto(ByteBuffer destino, long posicion) throws IOException {
+        while (destino.hasRemaining()) {
+            if (canal.read(destino, posicion + destino.position()) < 0) {
+                throw new IOException("La bitácora está truncada");
+            }
+        }
+    }
+
+    /**
+     * Empieza una partida nueva con los pastores tal como están sentados ahora
+     * turno turno con el que empieza (el que tendrá el primer TURNO)
+     * @return el número de la partida en este archivo
+     */
+    public int empezarPartida(Mesa mesa, int turno) {
+        exigirAbierta();
+        partidaActual = siguientePartida++;
+        List<Pastor> sentados = mesa.obtenerPastoresEnMesa();
+        long siguienteOrden = mesa.getSiguienteOrden();
+        registro(turno, sentados.size(), mesa.getN(), mesa.getPosicionActual(),
+                 mesa.getTipoCorro().ordinal(), 0, (int) siguienteOrden, 0, TIPO_PARTIDA, (byte) -1, false);
+        for (int asiento = 0; asiento < sentados.size(); asiento++) {
+            Pastor pastor = sentados.get(asiento);
+            registro(0, pastor.getId(), pastor.getTratoOrdinal(), asiento, pastor.getDoblones(),
+                     pastor.getFeligreses(), (int) mesa.ordenDe(pastor), 0, TIPO_ASIENTO, (byte) -1, false);
+        }
+        return partidaActual;
+    }
+
+    /**
+     * Anota un turno de la partida en curso
+     * asiento posición del actor al empezar el turno
+     * victima id del pastor al que tocó la acción, o 0 si no hubo
+     */
+    public void anotarTurno(int turno, int asiento, int actor, AccionPastor accion, boolean derecha, int victima,
+                            int deltaDoblonesActor, int deltaFeligresesActor,
+                            int deltaDoblonesVictima, int deltaFeligresesVictima) {
+        exigirAbierta();
+        if (partidaActual < 0) {
+            throw new IllegalStateException("La bitácora no tiene ninguna partida empezada");
+        }
+        registro(turno, actor, victima, asiento, deltaDoblonesActor, deltaFeligresesActor,
+                 deltaDoblonesVictima, deltaFeligresesVictima, TIPO_TURNO, (byte) accion.ordinal(), derecha);
+    }
+
+    private void registro(int turno, int a, int b, int asiento, int c, int d, int e, int f,
+                          byte tipo, byte accion, boolean derecha) {
+        if (!lote.hasRemaining()) {
+            try {
+                escribirLote();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        lote.putInt(partidaActual).putInt(turno).putInt(a).putInt(b).putInt(asiento)
+            .putInt(c).putInt(d).putInt(e).putInt(f)
+            .put(tipo).put(accion).put((byte) (derecha ? 1 : 0)).put((byte) 0);
+    }
+
+    private void escribirLote() throws IOException {
+        lote.flip();
+        while (lote.hasRemaining()) {
+            canal.write(lote);
+        }
+        lote.clear();
+    }
+
+    /**
+     * Escribe en el archivo los registros que esperan en el lote
+     */
+    public void vaciar() throws IOException {
+        exigirAbierta();
+        if (lote.position() > 0) {
+            escribirLote();
+        }
+    }
+
+    /**
+     * Vacía el lote, fuerza los datos al disco y cierra el archivo
+     */
+    @Override
+    public void close() throws IOException {
+        if (cerrada) {
+            return;
+        }
+        try {
+            vaciar();
+            canal.force(false);
+        } finally {
+            cerrada = true;
+            canal.close();
+        }
+    }
+
+    private void exigirAbierta() {
+        if (cerrada) {
+            throw new IllegalStateException("La bitácora está cerrada");
+        }
+    }
+
+    /**
+     * @return número de la partida en curso, o -1 si todavía no se empezó ninguna
+     */
+    public int getPartidaActual() {
+        return partidaActual;
+    }
+
+    /**
+     * @return cuántas partidas tiene el archivo, contando las escritas antes de abrirlo
+     */
+    public int getPartidas() {
+        return siguientePartida;
+    }
+}
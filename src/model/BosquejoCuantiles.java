@@ -0,0 +1,213 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Bosquejo de cuantiles para valores no negativos (doblones, feligreses) con error relativo acotado.
+ * Cada valor cae en un cubo logarítmico: el cubo k cubre (γ^(k-1), γ^k] con γ = (1+α)/(1-α),
+ * así que cualquier cuantil sale con error relativo ≤ α sin guardar los valores.
+ * Admite quitar valores (cuando la riqueza de un pastor cambia se quita el viejo y se pone
+ * el nuevo) y dos bosquejos de la misma precisión se combinan sumando sus cubos, lo que
+ * permite que cada hilo de una simulación lleve el suyo y juntarlos al final.
+ */
+public final class BosquejoCuantiles {
+    /** Precisión relativa por defecto: 1 % */
+    public static final double PRECISION_POR_DEFECTO = 0.01;
+
+    private final double precision;
+    private final double logGamma;
+    private long ceros;             // los valores 0 van aparte: no tienen logaritmo
+    private long[] cubos = new long[0];
+    private int primerIndice;       // índice de cubo de cubos[0]
+    private long cantidad;
+
+    public BosquejoCuantiles() {
+        this(PRECISION_POR_DEFECTO);
+    }
+
+    /**
+     * precision error relativo máximo de los cuantiles, entre 0 y 1 (p. ej. 0.01)
+     */
+    public BosquejoCuantiles(double precision) {
+        if (!(precision > 0 && precision < 1)) {
+            throw new IllegalArgumentException("Precisión fuera de (0, 1): " + precision);
+        }
+        this.precision = precision;
+        this.logGamma = Math.log((1 + precision) / (1 - precision));
+    }
+
+    /**
+     * Copia independiente del bosquejo
+     */
+    public BosquejoCuantiles copiar() {
+        BosquejoCuantiles copia = new BosquejoCuantiles(precision);
+        copia.ceros = ceros;
+        copia.cubos = cubos.clone();
+        copia.primerIndice = primerIndice;
+        copia.cantidad = cantidad;
+        return copia;
+    }
+
+    public void agregar(long valor) {
+        sumar(valor, 1);
+    }
+
+    /**
+     * Quita un valor que se agregó antes (p. ej. la riqueza vieja de un pastor)
+     */
+    public void quitar(long valor) {
+        sumar(valor, -1);
+    }
+
+    private void sumar(long valor, long delta) {
+        cantidad += delta;
+        if (valor <= 0) {
+            ceros += delta;
+            return;
+        }
+        int indice = indiceDe(valor);
+        asegurarIndice(indice);
+        cubos[indice - primerIndice] += delta;
+    }
+
+    /**
+     * Suma a este bosquejo los valores de otro de la misma precisión, en O(cubos)
+     * @return este mismo bosquejo
+     */
+    public BosquejoCuantiles combinar(BosquejoCuantiles otro) {
+        if (otro.precision != precision) {
+            throw new IllegalArgumentException("No se pueden combinar bosquejos de distinta precisión");
+        }
+        if (otro.cubos.length > 0) {
+            asegurarIndice(otro.primerIndice);
+            asegurarIndice(otro.primerIndice + otro.cubos.length - 1);
+            for (int i = 0; i < otro.cubos.length; i++) {
+                cubos[otro.primerIndice + i - primerIndice] += otro.cubos[i];
+            }
+        }
+        ceros += otro.ceros;
+        cantidad += otro.cantidad;
+        return this;
+    }
+
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    public double getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Valor aproximado del cuantil q (0 = mínimo, 0.5 = mediana, 1 = máximo)
+     * @return el cuantil con error relativo ≤ precisión, o NaN si el bosquejo está vacío
+     */
+    public double cuantil(double q) {
+        if (cantidad <= 0) {
+            return Double.NaN;
+        }
+        long rango = (long) Math.floor(Math.min(1, Math.max(0, q)) * (cantidad - 1));
+        if (rango < ceros) {
+            return 0;
+        }
+        long acumulado = ceros;
+        for (int i = 0; i < cubos.length; i++) {
+            acumulado += cubos[i];
+            if (acumulado > rango) {
+                return representante(primerIndice + i);
+            }
+        }
+        return representante(primerIndice + cubos.length - 1);
+    }
+
+    /**
+     * Coeficiente de Gini aproximado (0 = todos iguales, cerca de 1 = uno lo tiene todo),
+     * calculado sobre los cubos con la fórmula de datos agrupados: G = 1 - Σ f_k (L_{k-1} + L_k),
+     * donde f_k es la fracción de pastores del cubo k y L_k la parte acumulada del total
+     * @return el Gini, o NaN si no hay nadie o el total es 0
+     */
+    public double gini() {
+        if (cantidad <= 0) {
+            return Double.NaN;
+        }
+        double total = 0;
+        for (int i = 0; i < cubos.length; i++) {
+            total += cubos[i] * representante(primerIndice + i);
+        }
+        if (total <= 0) {
+            return Double.NaN;
+        }
+        double suma = 0;
+        double anterior = 0;                           // L_{k-1}; los ceros no aportan riqueza
+        for (int i = 0; i < cubos.length; i++) {
+            if (cubos[i] == 0) {
+                continue;
+            }
+            double actual = anterior + cubos[i] * representante(primerIndice + i) / total;
+            suma += ((double) cubos[i] / cantidad) * (anterior + actual);
+            anterior = actual;
+        }
+        return 1 - suma;
+    }
+
+    private int indiceDe(long valor) {
+        return (int) Math.ceil(Math.log(valor) / logGamma);
+    }
+
+    /** Valor que representa al cubo: el punto con el mismo error relativo a ambos bordes */
+    private double representante(int indice) {
+        return 2 * Math.exp(indice * logGamma) / (1 + Math.exp(logGamma));
+    }
+
+    private void asegurarIndice(int indice) {
+        if (cubos.length == 0) {
+            cubos = new long[16];
+            primerIndice = indice;
+            return;
+        }
+        if (indice < primerIndice) {
+            int faltan = primerIndice - indice;
+            long[] nuevos = new long[Math.max(cubos.length * 2, cubos.length + faltan)];
+            int desplazamiento = nuevos.length - cubos.length;
+            System.arraycopy(cubos, 0, nuevos, desplazamiento, cubos.length);
+            cubos = nuevos;
+            primerIndice -= desplazamiento;
+        } else if (indice >= primerIndice + cubos.length) {
+            cubos = Arrays.copyOf(cubos, Math.max(cubos.length * 2, indice - primerIndice + 1));
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof BosquejoCuantiles)) return false;
+        BosquejoCuantiles otro = (BosquejoCuantiles) obj;
+        if (precision != otro.precision || cantidad != otro.cantidad || ceros != otro.ceros) {
+            return false;
+        }
+        int desde = Math.min(primerIndice, otro.primerIndice);
+        int hasta = Math.max(primerIndice + cubos.length, otro.primerIndice + otro.cubos.length);
+        for (int k = desde; k < hasta; k++) {
+            if (cubo(k) != otro.cubo(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(precision, cantidad, ceros);
+    }
+
+    private long cubo(int indice) {
+        int i = indice - primerIndice;
+        return i >= 0 && i < cubos.length ? cubos[i] : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "BosquejoCuantiles[n=%d, p50=%.1f, p90=%.1f, p99=%.1f]",
+                             cantidad, cuantil(0.5), cuantil(0.9), cuantil(0.99));
+    }
+}
@@ -0,0 +1,114 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Claves de Zobrist del estado de una rueda: la huella de 64 bits es el XOR de una clave
+ * por cada pieza del estado, así que cambiar una pieza es quitar su clave y poner la nueva.
+ * Las piezas son:
+ * <ul>
+ *   <li>cada par de vecinos (a, b) del corro, con b a la derecha de a, y quién ocupa el asiento 0
+ *       (de ahí cuelgan los rescatados): con eso queda fijado el orden de los asientos;</li>
+ *   <li>los recursos de cada pastor sentado;</li>
+ *   <li>en la pila, cada par (a, b) con b justo encima de a, quién está en la cima y los recursos
+ *       de cada desposeído;</li>
+ *   <li>quién tiene el turno y si la danza terminó.</li>
+ * </ul>
+ * Como los ids no tienen tope, las claves no salen de tablas sino de mezclar los datos de la
+ * pieza con el finalizador de SplitMix64; son fijas, las mismas en todas las ejecuciones.
+ */
+final class ClavesZobrist {
+    private static final long SAL_PAR = 0x3C6EF372FE94F82BL;
+    private static final long SAL_CABEZA = 0xA54FF53A5F1D36F1L;
+    private static final long SAL_RECURSOS = 0x510E527FADE682D1L;
+    private static final long SAL_PAR_PILA = 0x9B05688C2B3E6C1FL;
+    private static final long SAL_CIMA = 0x1F83D9ABFB41BD6BL;
+    private static final long SAL_RECURSOS_PILA = 0x5BE0CD19137E2179L;
+    private static final long SAL_TURNO = 0xCBBB9D5DC1059ED8L;
+    static final long TERMINADO = 0x629A292A367CD507L;
+
+    private ClavesZobrist() {
+    }
+
+    /** Finalizador de SplitMix64 */
+    static long mezclar(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long clave(long sal, long a, long b) {
+        return mezclar(mezclar(sal + a * 0x9E3779B97F4A7C15L) + b);
+    }
+
+    /** b está sentado a la derecha de a (con uno solo en la mesa, a la derecha de sí mismo) */
+    static long par(int a, int b) {
+        return clave(SAL_PAR, a, b);
+    }
+
+    /** el pastor ocupa el asiento 0 */
+    static long cabeza(int id) {
+        return clave(SAL_CABEZA, id, 0);
+    }
+
+    /** recursos de un pastor sentado */
+    static long recursos(int id, int doblones, int feligreses) {
+        return clave(SAL_RECURSOS, id, ((long) doblones << 32) | (feligreses & 0xFFFFFFFFL));
+    }
+
+    /** b yace en la pila justo encima de a */
+    static long parPila(int a, int b) {
+        return clave(SAL_PAR_PILA, a, b);
+    }
+
+    /** el pastor está en la cima de la pila */
+    static long cima(int id) {
+        return clave(SAL_CIMA, id, 0);
+    }
+
+    /** recursos de un desposeído */
+    static long recursosPila(int id, int doblones, int feligreses) {
+        return clave(SAL_RECURSOS_PILA, id, ((long) doblones << 32) | (feligreses & 0xFFFFFFFFL));
+    }
+
+    /** el pastor tiene el turno */
+    static long turno(int id) {
+        return clave(SAL_TURNO, id, 0);
+    }
+
+    /**
+     * Huella de los asientos y recursos de la mesa, calculada desde cero en O(n)
+     */
+    static long deMesa(List<Pastor> sentados) {
+        long clave = 0;
+        int tamaño = sentados.size();
+        for (int i = 0; i < tamaño; i++) {
+            Pastor pastor = sentados.get(i);
+            clave ^= par(pastor.getId(), sentados.get((i + 1) % tamaño).getId());
+            clave ^= recursos(pastor.getId(), pastor.getDoblones(), pastor.getFeligreses());
+        }
+        if (tamaño > 0) {
+            clave ^= cabeza(sentados.get(0).getId());
+        }
+        return clave;
+    }
+
+    /**
+     * Huella del contenido de la pila, del fondo a la cima, calculada desde cero en O(n)
+     */
+    static long dePila(List<Pastor> desposeidos) {
+        long clave = 0;
+        Pastor abajo = null;
+        for (Pastor pastor : desposeidos) {
+            if (abajo != null) {
+                clave ^= parPila(abajo.getId(), pastor.getId());
+            }
+            clave ^= recursosPila(pastor.getId(), pastor.getDoblones(), pastor.getFeligreses());
+            abajo = pastor;
+        }
+        if (abajo != null) {
+            clave ^= cima(abajo.getId());
+        }
+        return clave;
+    }
+}
@@ -1,15 +1,25 @@
 package model;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * Encapsula la configuración inicial del juego
  * "siendo de sabios moderar el gentío y limitar el número de estos líderes espirituales"
+ * La semilla fija todo el azar de la partida (recursos iniciales y decisiones de las políticas):
+ * la misma configuración con la misma semilla vuelve a dar la misma partida, en cualquier hilo.
+ * Si no se da una, se sortea al crearla, así que siempre se puede consultar para repetir la partida.
  */
 public class ConfiguracionRueda {
+    /** Límites del número de pastores: los constructores ajustan a ellos lo que se salga */
+    public static final int MIN_PASTORES = 2;
+    public static final int MAX_PASTORES = 20;
+    
     private final int numPastores;
     private final int valorN;
     private final int doblonesIniciales;
     private final int feligresesIniciales;
     private final boolean recursosAleatorios;
+    private final long semilla;
     
     /**
      * Constructor básico con valores por defecto
@@ -17,11 +27,12 @@ public class ConfiguracionRueda {
      * valorN número de posiciones a contar para eliminación
      */
     public ConfiguracionRueda(int numPastores, int valorN) {
-        this.numPastores = Math.max(2, Math.min(20, numPastores)); // Entre 2 y 20
+        this.numPastores = Math.max(MIN_PASTORES, Math.min(MAX_PASTORES, numPastores));
         this.valorN = Math.max(1, Math.min(numPastores - 1, valorN)); // Entre 1 y numPastores-1
         this.doblonesIniciales = 300; // Valor por defecto
         this.feligresesIniciales = 150; // Valor por defecto
         this.recursosAleatorios = true; // Por defecto aleatorios
+        this.semilla = ThreadLocalRandom.current().nextLong();
     }
     
     /**
@@ -34,12 +45,49 @@ public class ConfiguracionRueda {
      */
     public ConfiguracionRueda(int numPastores, int valorN, int doblonesIniciales, 
                              int feligresesIniciales, boolean recursosAleatorios) {
+        this(numPastores, valorN, doblonesIniciales, feligresesIniciales, recursosAleatorios,
+             ThreadLocalRandom.current().nextLong());
+    }
+    
+    /**
+     * Constructor completo con semilla
+     * semilla semilla del azar de la partida
+     */
+    public ConfiguracionRueda(int numPastores, int valorN, int doblonesIniciales, 
+                             int feligresesIniciales, boolean recursosAleatorios, long semilla) {
         
-        this.numPastores = Math.max(2, Math.min(20, numPastores));
+        this.numPastores = Math.max(MIN_PASTORES, Math.min(MAX_PASTORES, numPastores));
         this.valorN = Math.max(1, Math.min(numPastores - 1, valorN));
         this.doblonesIniciales = Math.max(50, Math.min(1000, doblonesIniciales));
         this.feligresesIniciales = Math.max(25, Math.min(500, feligresesIniciales));
         this.recursosAleatorios = recursosAleatorios;
+        this.semilla = semilla;
+    }
+    
+    /**
+     * Comprueba que numPastores y valorN caben tal cual en una configuración, para rechazar
+     * lo que pide el usuario en lugar de jugar en silencio con otros valores
+     * @throws IllegalArgumentException si el constructor tendría que ajustar alguno
+     */
+    public static void exigirEnRango(int numPastores, int valorN) {
+        if (numPastores < MIN_PASTORES || numPastores > MAX_PASTORES) {
+            throw new IllegalArgumentException(String.format(
+                    "el número de pastores debe estar entre %d y %d (se pidió %d)",
+                    MIN_PASTORES, MAX_PASTORES, numPastores));
+        }
+        if (valorN < 1 || valorN >= numPastores) {
+            throw new IllegalArgumentException(String.format(
+                    "n debe estar entre 1 y %d con %d pastores (se pidió %d)",
+                    numPastores - 1, numPastores, valorN));
+        }
+    }
+    
+    /**
+     * La misma configuración con otra semilla
+     */
+    public ConfiguracionRueda conSemilla(long semilla) {
+        return new ConfiguracionRueda(numPastores, valorN, doblonesIniciales, feligresesIniciales,
+                                      recursosAleatorios, semilla);
     }
     
     // Getters
@@ -63,13 +111,17 @@ public class ConfiguracionRueda {
         return recursosAleatorios;
     }
     
+    public long getSemilla() {
+        return semilla;
+    }
+    
     /**
      * Valida que la configuración sea correcta
      * @return true si la configuración es válida
      */
     public boolean esValida() {
-        return numPastores >= 2 && 
-               numPastores <= 20 &&
+        return numPastores >= MIN_PASTORES && 
+               numPastores <= MAX_PASTORES &&
                valorN >= 1 && 
                valorN < numPastores &&
                doblonesIniciales > 0 &&
@@ -97,10 +149,14 @@ public class ConfiguracionRueda {
     
     @Override
     public String toString() {
-        return String.format("ConfiguracionRueda[pastores=%d, n=%d, aleatorio=%s]", 
-                           numPastores, valorN, recursosAleatorios);
+        return String.format("ConfiguracionRueda[pastores=%d, n=%d, aleatorio=%s, semilla=%d]", 
+                           numPastores, valorN, recursosAleatorios, semilla);
     }
     
+    /**
+     * La semilla no cuenta: dos configuraciones iguales describen la misma rueda, aunque se
+     * jueguen con distinto azar
+     */
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
@@ -0,0 +1,47 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Orden circular de los pastores sentados a la mesa.
+ * Las posiciones van de 0 a tamaño()-1 y la posición siguiente a la última es la 0.
+ * Se recorre en orden de posición.
+ */
+interface Corro extends Iterable<Pastor> {
+
+    int tamaño();
+
+    /** Obtiene el pastor sentado en la posición indicada. */
+    Pastor obtener(int posicion);
+
+    /** Sienta un pastor al final del corro (a la izquierda del que está en la posición 0). */
+    void agregar(Pastor pastor);
+
+    /** Sienta un pastor en la posición indicada (0..tamaño()); los de su derecha corren un puesto. */
+    void insertar(int posicion, Pastor pastor);
+
+    /** Saca al pastor de la posición indicada; los de su derecha corren un puesto. */
+    Pastor quitar(int posicion);
+
+    /** @return la posición del pastor, o -1 si no está en el corro */
+    int posicionDe(Pastor pastor);
+
+    /** Intercambia los pastores de dos posiciones. */
+    void intercambiar(int i, int j);
+
+    /** Vuelve a sentar a todos los pastores en el orden dado (el mismo conjunto, otro orden). */
+    void reordenar(List<Pastor> orden);
+
+    /**
+     * Busca, entre las posiciones desde..hasta (sin dar la vuelta), al pastor con menos feligreses.
+     * preferirUltimo decide el empate: false se queda con el de menor posición, true con el de mayor
+     * @return la posición encontrada, o -1 si el rango está vacío
+     */
+    int posicionMenorGrey(int desde, int hasta, boolean preferirUltimo);
+
+    /** Avisa que cambiaron los feligreses del pastor, por si el corro los tiene indexados. */
+    void actualizar(Pastor pastor);
+
+    /** @return copia del corro en orden, desde la posición 0 */
+    List<Pastor> comoLista();
+}
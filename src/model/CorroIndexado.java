@@ -0,0 +1,330 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Corro de estadísticos de orden para mesas muy grandes.
+ * Cada pastor ocupa un asiento (slot) que no cambia mientras siga sentado; los asientos
+ * vacíos se quedan como huecos y un árbol de Fenwick cuenta los ocupados, de modo que
+ * pasar de posición a asiento y de asiento a posición cuesta O(log n).
+ * Cuando los huecos superan a los ocupados se compactan los asientos (O(n) amortizado a O(1)).
+ * Sobre los mismos asientos hay un árbol de segmentos por feligreses que responde
+ * "el de menor grey en este tramo" en O(log n) sin armar listas.
+ */
+class CorroIndexado implements Corro {
+    private static final int CAPACIDAD_MINIMA = 16;
+
+    private Pastor[] asientos;          // asiento -> pastor (null si está vacío)
+    private int[] arbol;                // Fenwick 1-based sobre los asientos ocupados
+    private int usados;                 // asientos ya repartidos (ocupados o huecos)
+    private int vivos;                  // asientos ocupados
+    private final Map<Pastor, Integer> asientoDe;
+
+    // Árbol de segmentos: cada nodo guarda el asiento con menos feligreses de su tramo,
+    // el de más a la izquierda y el de más a la derecha en caso de empate (-1 si no hay nadie)
+    private int hojas;
+    private int[] menorIzquierda;
+    private int[] menorDerecha;
+
+    CorroIndexado(int capacidad) {
+        int cap = Math.max(CAPACIDAD_MINIMA, capacidad);
+        this.asientos = new Pastor[cap];
+        this.arbol = new int[cap + 1];
+        this.asientoDe = new HashMap<>(Math.max(16, capacidad * 2));
+        reconstruirSegmentos();
+    }
+
+    @Override
+    public int tamaño() {
+        return vivos;
+    }
+
+    @Override
+    public Pastor obtener(int posicion) {
+        return asientos[asientoEnPosicion(posicion)];
+    }
+
+    @Override
+    public void agregar(Pastor pastor) {
+        if (usados == asientos.length) {
+            if (vivos * 2 <= usados) {
+                compactar(asientos.length);
+            } else {
+                compactar(asientos.length * 2);
+            }
+        }
+        asientos[usados] = pastor;
+        sumar(usados, 1);
+        refrescarHoja(usados);
+        asientoDe.put(pastor, usados);
+        usados++;
+        vivos++;
+    }
+
+    /**
+     * Si justo antes del asiento de quien queda a su derecha hay un hueco (como el que dejó
+     * él mismo al salir, p. ej. al deshacer un turno) se sienta ahí en O(log n);
+     * si no, se rehacen los asientos con él en medio, en O(n) como una compactación.
+     */
+    @Override
+    public void insertar(int posicion, Pastor pastor) {
+        if (posicion == vivos) {
+            agregar(pastor);
+            return;
+        }
+        int hueco = asientoEnPosicion(posicion) - 1;
+        if (hueco >= 0 && asientos[hueco] == null) {
+            asientos[hueco] = pastor;
+            sumar(hueco, 1);
+            refrescarHoja(hueco);
+            asientoDe.put(pastor, hueco);
+            vivos++;
+            return;
+        }
+        List<Pastor> orden = comoLista();
+        orden.add(posicion, pastor);
+        reordenar(orden);
+    }
+
+    @Override
+    public Pastor quitar(int posicion) {
+        int asiento = asientoEnPosicion(posicion);
+        Pastor pastor = asientos[asiento];
+        asientos[asiento] = null;
+        sumar(asiento, -1);
+        refrescarHoja(asiento);
+        asientoDe.remove(pastor);
+        vivos--;
+
+        if (usados > CAPACIDAD_MINIMA && vivos * 2 < usados) {
+            compactar(asientos.length);
+        }
+        return pastor;
+    }
+
+    @Override
+    public int posicionDe(Pastor pastor) {
+        Integer asiento = asientoDe.get(pastor);
+        return asiento == null ? -1 : contarHasta(asiento);
+    }
+
+    @Override
+    public void intercambiar(int i, int j) {
+        if (i == j) {
+            return;
+        }
+        int a = asientoEnPosicion(i);
+        int b = asientoEnPosicion(j);
+        Pastor pa = asientos[a];
+        asientos[a] = asientos[b];
+        asientos[b] = pa;
+        asientoDe.put(asientos[a], a);
+        asientoDe.put(asientos[b], b);
+        refrescarHoja(a);
+        refrescarHoja(b);
+    }
+
+    @Override
+    public void reordenar(List<Pastor> orden) {
+        Pastor[] nuevos = new Pastor[Math.max(asientos.length, orden.size())];
+        asientoDe.clear();
+        for (int i = 0; i < orden.size(); i++) {
+            nuevos[i] = orden.get(i);
+            asientoDe.put(nuevos[i], i);
+        }
+        reconstruir(nuevos, orden.size());
+    }
+
+    @Override
+    public int posicionMenorGrey(int desde, int hasta, boolean preferirUltimo) {
+        if (desde > hasta) {
+            return -1;
+        }
+        int asiento = consultar(1, 0, hojas - 1,
+                asientoEnPosicion(desde), asientoEnPosicion(hasta), preferirUltimo);
+        return asiento == -1 ? -1 : contarHasta(asiento);
+    }
+
+    @Override
+    public void actualizar(Pastor pastor) {
+        Integer asiento = asientoDe.get(pastor);
+        if (asiento != null) {
+            refrescarHoja(asiento);
+        }
+    }
+
+    @Override
+    public Iterator<Pastor> iterator() {
+        return new Iterator<Pastor>() {
+            private int asiento = siguienteOcupado(0);
+
+            @Override
+            public boolean hasNext() {
+                return asiento < usados;
+            }
+
+            @Override
+            public Pastor next() {
+                if (asiento >= usados) {
+                    throw new NoSuchElementException();
+                }
+                Pastor pastor = asientos[asiento];
+                asiento = siguienteOcupado(asiento + 1);
+                return pastor;
+            }
+        };
+    }
+
+    private int siguienteOcupado(int desde) {
+        int i = desde;
+        while (i < usados && asientos[i] == null) {
+            i++;
+        }
+        return i;
+    }
+
+    @Override
+    public List<Pastor> comoLista() {
+        List<Pastor> lista = new ArrayList<>(vivos);
+        for (int i = 0; i < usados; i++) {
+            if (asientos[i] != null) {
+                lista.add(asientos[i]);
+            }
+        }
+        return lista;
+    }
+
+    /**
+     * Busca el asiento del pastor que está en la posición indicada
+     * bajando por el árbol de Fenwick (O(log n)).
+     */
+    private int asientoEnPosicion(int posicion) {
+        if (posicion < 0 || posicion >= vivos) {
+            throw new IndexOutOfBoundsException("Posición " + posicion + " fuera del corro de " + vivos);
+        }
+        int restante = posicion + 1;
+        int indice = 0;
+        for (int paso = Integer.highestOneBit(asientos.length); paso > 0; paso >>= 1) {
+            int siguiente = indice + paso;
+            if (siguiente <= asientos.length && arbol[siguiente] < restante) {
+                indice = siguiente;
+                restante -= arbol[siguiente];
+            }
+        }
+        return indice; // el asiento (0-based) es indice, porque indice+1 es el primero que alcanza
+    }
+
+    /** Cuenta los asientos ocupados antes del asiento dado. */
+    private int contarHasta(int asiento) {
+        int suma = 0;
+        for (int i = asiento; i > 0; i -= i & -i) {
+            suma += arbol[i];
+        }
+        return suma;
+    }
+
+    private void sumar(int asiento, int delta) {
+        for (int i = asiento + 1; i <= asientos.length; i += i & -i) {
+            arbol[i] += delta;
+        }
+    }
+
+    /** Feligreses del asiento; un hueco cuenta como infinito. */
+    private long grey(int asiento) {
+        if (asiento < 0 || asientos[asiento] == null) {
+            return Long.MAX_VALUE;
+        }
+        return asientos[asiento].getFeligreses();
+    }
+
+    /** Elige entre dos asientos el de menor grey; el empate lo decide preferirUltimo. */
+    private int elegir(int a, int b, boolean preferirUltimo) {
+        long ga = grey(a);
+        long gb = grey(b);
+        if (ga == Long.MAX_VALUE && gb == Long.MAX_VALUE) {
+            return -1;
+        }
+        if (ga != gb) {
+            return ga < gb ? a : b;
+        }
+        return preferirUltimo ? b : a;
+    }
+
+    private int consultar(int nodo, int inicio, int fin, int desde, int hasta, boolean preferirUltimo) {
+        if (hasta < inicio || fin < desde) {
+            return -1;
+        }
+        if (desde <= inicio && fin <= hasta) {
+            return preferirUltimo ? menorDerecha[nodo] : menorIzquierda[nodo];
+        }
+        int medio = (inicio + fin) >>> 1;
+        int izquierda = consultar(2 * nodo, inicio, medio, desde, hasta, preferirUltimo);
+        int derecha = consultar(2 * nodo + 1, medio + 1, fin, desde, hasta, preferirUltimo);
+        return elegir(izquierda, derecha, preferirUltimo);
+    }
+
+    private void refrescarHoja(int asiento) {
+        int nodo = hojas + asiento;
+        int valor = asientos[asiento] != null ? asiento : -1;
+        menorIzquierda[nodo] = valor;
+        menorDerecha[nodo] = valor;
+        for (nodo >>= 1; nodo >= 1; nodo >>= 1) {
+            combinar(nodo);
+        }
+    }
+
+    private void combinar(int nodo) {
+        menorIzquierda[nodo] = elegir(menorIzquierda[2 * nodo], menorIzquierda[2 * nodo + 1], false);
+        menorDerecha[nodo] = elegir(menorDerecha[2 * nodo], menorDerecha[2 * nodo + 1], true);
+    }
+
+    private void reconstruirSegmentos() {
+        hojas = Integer.highestOneBit(Math.max(1, asientos.length - 1)) << 1;
+        menorIzquierda = new int[2 * hojas];
+        menorDerecha = new int[2 * hojas];
+        for (int i = 0; i < hojas; i++) {
+            int valor = i < asientos.length && asientos[i] != null ? i : -1;
+            menorIzquierda[hojas + i] = valor;
+            menorDerecha[hojas + i] = valor;
+        }
+        for (int nodo = hojas - 1; nodo >= 1; nodo--) {
+            combinar(nodo);
+        }
+    }
+
+    /**
+     * Vuelve a repartir los asientos sin huecos y reconstruye el árbol en O(n).
+     */
+    private void compactar(int capacidad) {
+        Pastor[] nuevos = new Pastor[capacidad];
+        int k = 0;
+        for (int i = 0; i < usados; i++) {
+            if (asientos[i] != null) {
+                nuevos[k] = asientos[i];
+                asientoDe.put(nuevos[k], k);
+                k++;
+            }
+        }
+        reconstruir(nuevos, k);
+    }
+
+    /**
+     * Toma como asientos el arreglo dado, con los primeros "ocupados" asientos llenos,
+     * y reconstruye el Fenwick y el árbol de segmentos en O(n)
+     */
+    private void reconstruir(Pastor[] nuevos, int ocupados) {
+        int capacidad = nuevos.length;
+        asientos = nuevos;
+        usados = ocupados;
+        vivos = ocupados;
+        arbol = new int[capacidad + 1];
+        for (int i = 1; i <= capacidad; i++) {
+            arbol[i] += (i - 1 < ocupados) ? 1 : 0;
+            int padre = i + (i & -i);
+            if (padre <= capacidad) {
+                arbol[padre] += arbol[i];
+            }
+        }
+        reconstruirSegmentos();
+    }
+}
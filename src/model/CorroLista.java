@@ -0,0 +1,87 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Corro respaldado por un ArrayList, como lo ha guardado siempre la mesa.
+ */
+class CorroLista implements Corro {
+    private final ArrayList<Pastor> pastores;
+
+    CorroLista(int capacidad) {
+        this.pastores = new ArrayList<>(Math.max(0, capacidad));
+    }
+
+    @Override
+    public int tamaño() {
+        return pastores.size();
+    }
+
+    @Override
+    public Pastor obtener(int posicion) {
+        return pastores.get(posicion);
+    }
+
+    @Override
+    public void agregar(Pastor pastor) {
+        pastores.add(pastor);
+    }
+
+    @Override
+    public void insertar(int posicion, Pastor pastor) {
+        pastores.add(posicion, pastor);
+    }
+
+    @Override
+    public Pastor quitar(int posicion) {
+        return pastores.remove(posicion);
+    }
+
+    @Override
+    public int posicionDe(Pastor pastor) {
+        return pastores.indexOf(pastor);
+    }
+
+    @Override
+    public void intercambiar(int i, int j) {
+        Collections.swap(pastores, i, j);
+    }
+
+    @Override
+    public void reordenar(List<Pastor> orden) {
+        pastores.clear();
+        pastores.addAll(orden);
+    }
+
+    @Override
+    public int posicionMenorGrey(int desde, int hasta, boolean preferirUltimo) {
+        int mejor = -1;
+        for (int i = desde; i <= hasta; i++) {
+            if (mejor == -1) {
+                mejor = i;
+                continue;
+            }
+            int feligreses = pastores.get(i).getFeligreses();
+            int menor = pastores.get(mejor).getFeligreses();
+            if (feligreses < menor || (preferirUltimo && feligreses == menor)) {
+                mejor = i;
+            }
+        }
+        return mejor;
+    }
+
+    @Override
+    public void actualizar(Pastor pastor) {
+        // La lista no guarda índices sobre los feligreses
+    }
+
+    @Override
+    public Iterator<Pastor> iterator() {
+        return Collections.unmodifiableList(pastores).iterator();
+    }
+
+    @Override
+    public List<Pastor> comoLista() {
+        return new ArrayList<>(pastores);
+    }
+}
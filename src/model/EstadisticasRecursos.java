@@ -1,35 +1,134 @@
-package model;
-
-/**
- * Clase auxiliar para encapsular estadísticas de recursos
- */
-public class EstadisticasRecursos {
-    private final int totalDoblones;
-    private final int totalFeligreses;
-    private final int numPastores;
-    
-    public EstadisticasRecursos(int totalDoblones, int totalFeligreses, int numPastores) {
-        this.totalDoblones = totalDoblones;
-        this.totalFeligreses = totalFeligreses;
-        this.numPastores = numPastores;
-    }
-    
-    public int getTotalDoblones() { return totalDoblones; }
-    public int getTotalFeligreses() { return totalFeligreses; }
-    public int getNumPastores() { return numPastores; }
-    public int getTotalRecursos() { return totalDoblones + totalFeligreses; }
-    
-    public double getPromedioDoblones() {
-        return numPastores > 0 ? (double) totalDoblones / numPastores : 0;
-    }
-    
-    public double getPromedioFeligreses() {
-        return numPastores > 0 ? (double) totalFeligreses / numPastores : 0;
-    }
-    
-    @Override
-    public String toString() {
-        return String.format("Recursos[doblones=%d, feligreses=%d, pastores=%d]", 
-                           totalDoblones, totalFeligreses, numPastores);
-    }
-}
+package model;
+
+import java.util.*;
+
+/**
+ * Clase auxiliar para encapsular estadísticas de recursos
+ * Totales en long (no se desbordan en mesas grandes), varianza por sumas de cuadrados
+ * y, si vienen de los totales corrientes de la mesa o la pila, cuantiles y Gini aproximados
+ * a partir de un BosquejoCuantiles. Las de varios hilos se juntan con combinar().
+ */
+public class EstadisticasRecursos {
+    private final long totalDoblones;
+    private final long totalFeligreses;
+    private final int numPastores;
+    private final double cuadradosDoblones;   // suma de cuadrados, NaN si no se conoce
+    private final double cuadradosFeligreses;
+    private final BosquejoCuantiles bosquejoDoblones;   // null si no se conoce
+    private final BosquejoCuantiles bosquejoFeligreses;
+
+    public EstadisticasRecursos(int totalDoblones, int totalFeligreses, int numPastores) {
+        this(totalDoblones, totalFeligreses, numPastores, Double.NaN, Double.NaN, null, null);
+    }
+
+    /**
+     * Constructor a partir de los totales corrientes de la mesa o la pila, con sumas de cuadrados
+     * y bosquejos de cuantiles (que pasan a ser de esta instancia)
+     */
+    EstadisticasRecursos(long totalDoblones, long totalFeligreses, int numPastores,
+                         double cuadradosDoblones, double cuadradosFeligreses,
+                         BosquejoCuantiles bosquejoDoblones, BosquejoCuantiles bosquejoFeligreses) {
+        this.totalDoblones = totalDoblones;
+        this.totalFeligreses = totalFeligreses;
+        this.numPastores = numPastores;
+        this.cuadradosDoblones = cuadradosDoblones;
+        this.cuadradosFeligreses = cuadradosFeligreses;
+        this.bosquejoDoblones = bosquejoDoblones;
+        this.bosquejoFeligreses = bosquejoFeligreses;
+    }
+
+    public long getTotalDoblones() { return totalDoblones; }
+    public long getTotalFeligreses() { return totalFeligreses; }
+    public int getNumPastores() { return numPastores; }
+    public long getTotalRecursos() { return totalDoblones + totalFeligreses; }
+
+    public double getPromedioDoblones() {
+        return numPastores > 0 ? (double) totalDoblones / numPastores : 0;
+    }
+
+    public double getPromedioFeligreses() {
+        return numPastores > 0 ? (double) totalFeligreses / numPastores : 0;
+    }
+
+    /**
+     * Varianza poblacional de los doblones, o NaN si no se conocen las sumas de cuadrados
+     */
+    public double getVarianzaDoblones() {
+        return varianza(totalDoblones, cuadradosDoblones);
+    }
+
+    /**
+     * Varianza poblacional de los feligreses, o NaN si no se conocen las sumas de cuadrados
+     */
+    public double getVarianzaFeligreses() {
+        return varianza(totalFeligreses, cuadradosFeligreses);
+    }
+
+    private double varianza(long total, double cuadrados) {
+        if (Double.isNaN(cuadrados)) {
+            return Double.NaN;
+        }
+        if (numPastores == 0) {
+            return 0;
+        }
+        double media = (double) total / numPastores;
+        return Math.max(0, cuadrados / numPastores - media * media);
+    }
+
+    /**
+     * Cuantil aproximado de los doblones (0.5 = mediana, 0.9 = p90...), o NaN si no hay bosquejo
+     */
+    public double getCuantilDoblones(double q) {
+        return bosquejoDoblones == null ? Double.NaN : bosquejoDoblones.cuantil(q);
+    }
+
+    /**
+     * Cuantil aproximado de los feligreses, o NaN si no hay bosquejo
+     */
+    public double getCuantilFeligreses(double q) {
+        return bosquejoFeligreses == null ? Double.NaN : bosquejoFeligreses.cuantil(q);
+    }
+
+    /**
+     * Coeficiente de Gini aproximado de los doblones, o NaN si no hay bosquejo
+     */
+    public double getGiniDoblones() {
+        return bosquejoDoblones == null ? Double.NaN : bosquejoDoblones.gini();
+    }
+
+    /**
+     * Coeficiente de Gini aproximado de los feligreses, o NaN si no hay bosquejo
+     */
+    public double getGiniFeligreses() {
+        return bosquejoFeligreses == null ? Double.NaN : bosquejoFeligreses.gini();
+    }
+
+    /**
+     * Junta estas estadísticas con las de otro grupo de pastores (p. ej. de otro hilo).
+     * Lo que falte en alguna de las dos (cuadrados, bosquejos) falta en el resultado.
+     * @return unas estadísticas nuevas con ambos grupos
+     */
+    public EstadisticasRecursos combinar(EstadisticasRecursos otra) {
+        boolean conBosquejos = bosquejoDoblones != null && otra.bosquejoDoblones != null;
+        return new EstadisticasRecursos(
+                totalDoblones + otra.totalDoblones,
+                totalFeligreses + otra.totalFeligreses,
+                numPastores + otra.numPastores,
+                cuadradosDoblones + otra.cuadradosDoblones,
+                cuadradosFeligreses + otra.cuadradosFeligreses,
+                conBosquejos ? bosquejoDoblones.copiar().combinar(otra.bosquejoDoblones) : null,
+                conBosquejos ? bosquejoFeligreses.copiar().combinar(otra.bosquejoFeligreses) : null);
+    }
+
+    @Override
+    public String toString() {
+        if (bosquejoDoblones == null) {
+            return String.format("Recursos[doblones=%d, feligreses=%d, pastores=%d]",
+                               totalDoblones, totalFeligreses, numPastores);
+        }
+        return String.format(Locale.ROOT,
+                "Recursos[doblones=%d, feligreses=%d, pastores=%d, p50D=%.0f, p90D=%.0f, p99D=%.0f, giniD=%.3f]",
+                totalDoblones, totalFeligreses, numPastores, getCuantilDoblones(0.5),
+                getCuantilDoblones(0.9), getCuantilDoblones(0.99), getGiniDoblones());
+    }
+}
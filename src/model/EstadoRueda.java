@@ -5,11 +5,13 @@ import java.util.*;
 /**
  * Encapsula el estado completo del juego en un momento dado
  * Sirve como puente entre la lógica de negocio y la vista
+ * Es inmutable: guarda los pastores congelados en secuencias persistentes, que la mesa y la
+ * pila llevan al día, así que crearlo no copia las listas y los getters las devuelven tal cual.
  */
 public class EstadoRueda {
     private final Pastor pastorConTurno;
-    private final List<Pastor> pastoresEnMesa;
-    private final List<Pastor> pastoresDesposeidos;
+    private final SecuenciaPersistente<Pastor> pastoresEnMesa;
+    private final SecuenciaPersistente<Pastor> pastoresDesposeidos;
     private final boolean puedeHurtar;
     private final boolean puedeRescatar;
     private final boolean danzaTerminada;
@@ -17,6 +19,11 @@ public class EstadoRueda {
     private final Pastor masRico;
     private final Pastor masPobre;
     private final int valorN;
+    private final int[] conteoTratosMesa;
+    private final int[] conteoTratosPila;
+    private final EstadisticasRecursos estadisticasMesa;
+    private final EstadisticasRecursos estadisticasPila;
+    private final long huellaEstado;
     
     /**
      * Constructor del estado de la rueda
@@ -32,9 +39,9 @@ public class EstadoRueda {
                        List<Pastor> pastoresDesposeidos, boolean puedeHurtar, 
                        boolean puedeRescatar, boolean danzaTerminada, int turno) {
         
-        this.pastorConTurno = pastorConTurno;
-        this.pastoresEnMesa = new ArrayList<>(pastoresEnMesa); // copia defensiva
-        this.pastoresDesposeidos = new ArrayList<>(pastoresDesposeidos); // copia defensiva
+        this.pastorConTurno = congelar(pastorConTurno);
+        this.pastoresEnMesa = congelar(pastoresEnMesa);
+        this.pastoresDesposeidos = congelar(pastoresDesposeidos);
         this.puedeHurtar = puedeHurtar;
         this.puedeRescatar = puedeRescatar;
         this.danzaTerminada = danzaTerminada;
@@ -44,6 +51,11 @@ public class EstadoRueda {
         this.masRico = calcularMasRico();
         this.masPobre = calcularMasPobre();
         this.valorN = 0; // Se establecerá externamente si es necesario
+        this.conteoTratosMesa = contarTratos(this.pastoresEnMesa);
+        this.conteoTratosPila = contarTratos(this.pastoresDesposeidos);
+        this.estadisticasMesa = sumarRecursos(this.pastoresEnMesa);
+        this.estadisticasPila = sumarRecursos(this.pastoresDesposeidos);
+        this.huellaEstado = calcularHuella();
     }
     
     /**
@@ -53,9 +65,9 @@ public class EstadoRueda {
                        List<Pastor> pastoresDesposeidos, boolean puedeHurtar, 
                        boolean puedeRescatar, boolean danzaTerminada, int turno, int valorN) {
         
-        this.pastorConTurno = pastorConTurno;
-        this.pastoresEnMesa = new ArrayList<>(pastoresEnMesa);
-        this.pastoresDesposeidos = new ArrayList<>(pastoresDesposeidos);
+        this.pastorConTurno = congelar(pastorConTurno);
+        this.pastoresEnMesa = congelar(pastoresEnMesa);
+        this.pastoresDesposeidos = congelar(pastoresDesposeidos);
         this.puedeHurtar = puedeHurtar;
         this.puedeRescatar = puedeRescatar;
         this.danzaTerminada = danzaTerminada;
@@ -64,6 +76,79 @@ public class EstadoRueda {
         
         this.masRico = calcularMasRico();
         this.masPobre = calcularMasPobre();
+        this.conteoTratosMesa = contarTratos(this.pastoresEnMesa);
+        this.conteoTratosPila = contarTratos(this.pastoresDesposeidos);
+        this.estadisticasMesa = sumarRecursos(this.pastoresEnMesa);
+        this.estadisticasPila = sumarRecursos(this.pastoresDesposeidos);
+        this.huellaEstado = calcularHuella();
+    }
+    
+    /**
+     * Constructor para cuando el más rico, el más pobre, los conteos por trato y las
+     * instantáneas de pastores ya los llevan la mesa y la pila: no recorre a nadie, en O(1).
+     * huellaEstado es la de JuegoRueda.claveZobrist, que también se lleva al día
+     */
+    EstadoRueda(Pastor pastorConTurno, SecuenciaPersistente<Pastor> pastoresEnMesa, 
+                SecuenciaPersistente<Pastor> pastoresDesposeidos, boolean puedeHurtar, 
+                boolean puedeRescatar, boolean danzaTerminada, int turno, int valorN,
+                Pastor masRico, Pastor masPobre, int[] conteoTratosMesa, int[] conteoTratosPila,
+                EstadisticasRecursos estadisticasMesa, EstadisticasRecursos estadisticasPila,
+                long huellaEstado) {
+        
+        this.pastorConTurno = congelar(pastorConTurno);
+        this.pastoresEnMesa = pastoresEnMesa;
+        this.pastoresDesposeidos = pastoresDesposeidos;
+        this.puedeHurtar = puedeHurtar;
+        this.puedeRescatar = puedeRescatar;
+        this.danzaTerminada = danzaTerminada;
+        this.turno = turno;
+        this.valorN = valorN;
+        this.masRico = congelar(masRico);
+        this.masPobre = congelar(masPobre);
+        this.conteoTratosMesa = conteoTratosMesa;
+        this.conteoTratosPila = conteoTratosPila;
+        this.estadisticasMesa = estadisticasMesa;
+        this.estadisticasPila = estadisticasPila;
+        this.huellaEstado = huellaEstado;
+    }
+    
+    private static Pastor congelar(Pastor pastor) {
+        return pastor == null ? null : pastor.congelar();
+    }
+    
+    private static SecuenciaPersistente<Pastor> congelar(List<Pastor> pastores) {
+        List<Pastor> congelados = new ArrayList<>(pastores.size());
+        for (Pastor pastor : pastores) {
+            congelados.add(pastor.congelar());
+        }
+        return SecuenciaPersistente.desde(congelados);
+    }
+    
+    private static EstadisticasRecursos sumarRecursos(List<Pastor> pastores) {
+        AcumuladoRecursos acumulado = new AcumuladoRecursos();
+        for (Pastor pastor : pastores) {
+            acumulado.sumar(pastor);
+        }
+        return acumulado.comoEstadisticas();
+    }
+    
+    private static int[] contarTratos(List<Pastor> pastores) {
+        int[] conteo = new int[RegistroTratos.cantidad()];
+        for (Pastor pastor : pastores) {
+            conteo = RegistroTratos.sumarConteo(conteo, pastor.getTratoOrdinal(), 1);
+        }
+        return conteo;
+    }
+    
+    /**
+     * Huella de Zobrist desde cero, la misma que daría JuegoRueda.claveZobrist en este estado
+     */
+    private long calcularHuella() {
+        long huella = ClavesZobrist.deMesa(pastoresEnMesa) ^ ClavesZobrist.dePila(pastoresDesposeidos);
+        if (pastorConTurno != null) {
+            huella ^= ClavesZobrist.turno(pastorConTurno.getId());
+        }
+        return danzaTerminada ? huella ^ ClavesZobrist.TERMINADO : huella;
     }
     
     /**
@@ -105,12 +190,18 @@ public class EstadoRueda {
         return pastorConTurno;
     }
     
+    /**
+     * @return los pastores de la mesa, congelados y en una lista inmutable (sin copiar)
+     */
     public List<Pastor> getPastoresEnMesa() {
-        return new ArrayList<>(pastoresEnMesa); // copia defensiva
+        return pastoresEnMesa;
     }
     
+    /**
+     * @return los desposeídos desde el fondo, congelados y en una lista inmutable (sin copiar)
+     */
     public List<Pastor> getPastoresDesposeidos() {
-        return new ArrayList<>(pastoresDesposeidos); // copia defensiva
+        return pastoresDesposeidos;
     }
     
     public boolean isPuedeHurtar() {
@@ -141,6 +232,15 @@ public class EstadoRueda {
         return valorN;
     }
     
+    /**
+     * Huella de Zobrist de 64 bits de asientos, recursos, pila, turno y final de la danza:
+     * dos estados iguales dan la misma y dos distintos casi nunca, así que sirve de clave
+     * para tablas de transposición o para detectar posiciones repetidas
+     */
+    public long hashEstado() {
+        return huellaEstado;
+    }
+    
     // Métodos de conveniencia para la vista
     
     /**
@@ -221,47 +321,47 @@ public class EstadoRueda {
     }
     
     /**
-     * Calcula estadísticas de recursos en la mesa
+     * Estadísticas de recursos en la mesa, tomadas de sus totales corrientes al crear el estado
      */
     public EstadisticasRecursos getEstadisticasRecursosMesa() {
-        int totalDoblones = pastoresEnMesa.stream().mapToInt(Pastor::getDoblones).sum();
-        int totalFeligreses = pastoresEnMesa.stream().mapToInt(Pastor::getFeligreses).sum();
-        
-        return new EstadisticasRecursos(totalDoblones, totalFeligreses, pastoresEnMesa.size());
+        return estadisticasMesa;
     }
     
     /**
-     * Calcula estadísticas de recursos en la pila
+     * Estadísticas de recursos en la pila, tomadas de sus totales corrientes al crear el estado
      */
     public EstadisticasRecursos getEstadisticasRecursosPila() {
-        int totalDoblones = pastoresDesposeidos.stream().mapToInt(Pastor::getDoblones).sum();
-        int totalFeligreses = pastoresDesposeidos.stream().mapToInt(Pastor::getFeligreses).sum();
-        
-        return new EstadisticasRecursos(totalDoblones, totalFeligreses, pastoresDesposeidos.size());
+        return estadisticasPila;
     }
     
     /**
      * Obtiene un resumen de los tratos en la mesa
      */
     public Map<String, Integer> getResumenTratosMesa() {
-        Map<String, Integer> resumen = new HashMap<>();
-        for (Pastor pastor : pastoresEnMesa) {
-            String trato = pastor.getTrato();
-            resumen.put(trato, resumen.getOrDefault(trato, 0) + 1);
-        }
-        return resumen;
+        return RegistroTratos.resumen(conteoTratosMesa);
     }
     
     /**
      * Obtiene un resumen de los tratos en la pila
      */
     public Map<String, Integer> getResumenTratosPila() {
-        Map<String, Integer> resumen = new HashMap<>();
-        for (Pastor pastor : pastoresDesposeidos) {
-            String trato = pastor.getTrato();
-            resumen.put(trato, resumen.getOrDefault(trato, 0) + 1);
-        }
-        return resumen;
+        return RegistroTratos.resumen(conteoTratosPila);
+    }
+    
+    /**
+     * Cuántos pastores de un trato había en la mesa, sin armar el resumen
+     * ordinal ordinal del trato en RegistroTratos
+     */
+    public int getConteoTratoMesa(int ordinal) {
+        return ordinal >= 0 && ordinal < conteoTratosMesa.length ? conteoTratosMesa[ordinal] : 0;
+    }
+    
+    /**
+     * Cuántos pastores de un trato había en la pila, sin armar el resumen
+     * ordinal ordinal del trato en RegistroTratos
+     */
+    public int getConteoTratoPila(int ordinal) {
+        return ordinal >= 0 && ordinal < conteoTratosPila.length ? conteoTratosPila[ordinal] : 0;
     }
     
     /**
@@ -308,7 +408,8 @@ public class EstadoRueda {
         if (obj == null || getClass() != obj.getClass()) return false;
         
         EstadoRueda that = (EstadoRueda) obj;
-        return turno == that.turno && 
+        return huellaEstado == that.huellaEstado &&
+               turno == that.turno && 
                danzaTerminada == that.danzaTerminada &&
                Objects.equals(pastorConTurno, that.pastorConTurno) &&
                pastoresEnMesa.size() == that.pastoresEnMesa.size() &&
@@ -317,7 +418,6 @@ public class EstadoRueda {
     
     @Override
     public int hashCode() {
-        return Objects.hash(turno, danzaTerminada, pastorConTurno, 
-                           pastoresEnMesa.size(), pastoresDesposeidos.size());
+        return Long.hashCode(huellaEstado) * 31 + turno;
     }
 }
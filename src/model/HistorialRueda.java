@@ -0,0 +1,306 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Historial de una rueda para deshacer, rehacer y saltar de turno sin rejugar desde el principio.
+ * Cada paso (un turno jugado) guarda la acción que se tomó y, en una bitácora compacta de
+ * operaciones inversas, lo necesario para volver atrás: el asiento del que salió un pastor,
+ * los recursos que tenía alguien antes de un traspaso, quién entró o salió de la pila y los
+ * intercambios de la reorganización. Deshacer un paso cuesta lo que ese paso tocó, no el tamaño
+ * de la mesa; rehacerlo es volver a jugarlo, que da lo mismo porque los turnos no tienen azar.
+ * Cada cierto número de pasos guarda además un punto de control con la mesa y la pila enteras,
+ * para que los saltos largos no tengan que recorrer todos los turnos de por medio.
+ * La mesa y la pila avisan de sus cambios; solo se apuntan los que ocurren dentro de un paso.
+ */
+final class HistorialRueda {
+    /** Pasos mínimos entre puntos de control; con mesas grandes se espacian más (ver intervalo) */
+    static final int INTERVALO_MINIMO = 64;
+
+    // Operaciones inversas, en arreglos paralelos: tipo, dos datos y el pastor al que tocan
+    private static final byte SALIO_DE_MESA = 0;    // posición, orden de asiento
+    private static final byte ENTRO_A_MESA = 1;
+    private static final byte ENTRO_A_PILA = 2;
+    private static final byte SALIO_DE_PILA = 3;
+    private static final byte RECURSOS = 4;         // doblones y feligreses de antes
+    private static final byte INTERCAMBIO = 5;      // las dos posiciones
+    private static final byte REORDEN = 6;          // el sujeto es el corro de antes
+
+    private byte[] tipos = new byte[64];
+    private long[] datos = new long[2 * 64];
+    private Object[] sujetos = new Object[64];
+    private int numOperaciones;
+
+    // Pasos, en arreglos paralelos: acción, dirección, dónde empiezan sus operaciones y
+    // quién tenía el turno antes de jugarlo
+    private AccionPastor[] acciones = new AccionPastor[64];
+    private boolean[] derechas = new boolean[64];
+    private int[] inicios = new int[65];
+    private int[] posicionesAntes = new int[64];
+    private int numPasos;
+    private int cursor;                 // pasos aplicados ahora a la mesa
+    private boolean grabando;           // se está jugando un paso nuevo
+    private boolean abierto;            // el paso nuevo ya ocupa su sitio en el historial
+    private AccionPastor accionPendiente;
+    private boolean derechaPendiente;
+    private int posicionPendiente;
+    private final int turnoInicial;
+    private final int intervalo;
+    private final TreeMap<Integer, PuntoControl> puntosControl = new TreeMap<>();
+
+    /** Corro completo de antes de una reorganización en bloque, con sus órdenes de asiento */
+    private static final class CorroAnterior {
+        final List<Pastor> orden;
+        final long[] ordenes;
+        final long siguienteOrden;
+
+        CorroAnterior(List<Pastor> orden, long[] ordenes, long siguienteOrden) {
+            this.orden = orden;
+            this.ordenes = ordenes;
+            this.siguienteOrden = siguienteOrden;
+        }
+    }
+
+    /** Mesa y pila enteras al empezar un paso */
+    static final class PuntoControl {
+        final Pastor[] mesa;
+        final long[] ordenes;
+        final long siguienteOrden;
+        final Pastor[] pila;
+        final int[] doblones;           // de mesa y pila seguidos
+        final int[] feligreses;
+        final int posicionActual;
+        final int turno;
+        final boolean terminado;
+
+        PuntoControl(Mesa mesa, PilaDesposeidos pila, int turno, boolean terminado) {
+            this.mesa = mesa.obtenerPastoresEnMesa().toArray(new Pastor[0]);
+            this.ordenes = new long[this.mesa.length];
+            for (int i = 0; i < this.mesa.length; i++) {
+                ordenes[i] = mesa.ordenDe(this.mesa[i]);
+            }
+            this.siguienteOrden = mesa.getSiguienteOrden();
+            this.pila = pila.obtenerDesposeidos().toArray(new Pastor[0]);
+            this.doblones = new int[this.mesa.length + this.pila.length];
+            this.feligreses = new int[doblones.length];
+            for (int i = 0; i < doblones.length; i++) {
+                Pastor pastor = i < this.mesa.length ? this.mesa[i] : this.pila[i - this.mesa.length];
+                doblones[i] = pastor.getDoblones();
+                feligreses[i] = pastor.getFeligreses();
+            }
+            this.posicionActual = mesa.getPosicionActual();
+            this.turno = turno;
+            this.terminado = terminado;
+        }
+    }
+
+    /**
+     * turnoInicial turno del juego en el paso 0
+     * pastores cuántos pastores hay entre mesa y pila, para espaciar los puntos de control
+     * de modo que guardarlos cueste O(1) amortizado por paso
+     */
+    HistorialRueda(int turnoInicial, int pastores) {
+        this.turnoInicial = turnoInicial;
+        this.intervalo = Math.max(INTERVALO_MINIMO, pastores / 4);
+    }
+
+    int getTurnoInicial() {
+        return turnoInicial;
+    }
+
+    int getNumPasos() {
+        return numPasos;
+    }
+
+    int getCursor() {
+        return cursor;
+    }
+
+    boolean grabando() {
+        return grabando;
+    }
+
+    /**
+     * Empieza a grabar un paso nuevo en el cursor. No ocupa sitio hasta que cambia algo,
+     * así un turno que fracasa no borra los pasos que se podían rehacer.
+     */
+    void iniciarPaso(AccionPastor accion, boolean derecha, int posicionAntes) {
+        accionPendiente = accion;
+        derechaPendiente = derecha;
+        posicionPendiente = posicionAntes;
+        abierto = false;
+        grabando = true;
+    }
+
+    /**
+     * Da sitio al paso que se graba; si había pasos por delante (se deshizo y ahora se juega
+     * otra cosa) se descartan, con sus operaciones y puntos de control: la rueda toma otra rama
+     */
+    private void abrirPaso() {
+        if (cursor < numPasos) {
+            numPasos = cursor;
+            numOperaciones = inicios[cursor];
+            Arrays.fill(sujetos, numOperaciones, sujetos.length, null);
+            puntosControl.tailMap(cursor, false).clear();
+        }
+        if (numPasos == acciones.length) {
+            int capacidad = numPasos * 2;
+            acciones = Arrays.copyOf(acciones, capacidad);
+            derechas = Arrays.copyOf(derechas, capacidad);
+            inicios = Arrays.copyOf(inicios, capacidad + 1);
+            posicionesAntes = Arrays.copyOf(posicionesAntes, capacidad);
+        }
+        acciones[numPasos] = accionPendiente;
+        derechas[numPasos] = derechaPendiente;
+        inicios[numPasos] = numOperaciones;
+        posicionesAntes[numPasos] = posicionPendiente;
+        abierto = true;
+    }
+
+    /** Termina de grabar el paso; si fracasó (no cambió nada) se olvida */
+    void cerrarPaso(boolean exitoso) {
+        if (exitoso) {
+            if (!abierto) {
+                abrirPaso();
+            }
+            numPasos++;
+            cursor = numPasos;
+            inicios[numPasos] = numOperaciones;
+        } else if (abierto) {
+            numOperaciones = inicios[numPasos];
+        }
+        grabando = false;
+        abierto = false;
+    }
+
+    /** El punto de control del cursor, si toca guardar uno ahí y no lo hay ya */
+    boolean tocaPuntoControl() {
+        return cursor % intervalo == 0 && !puntosControl.containsKey(cursor);
+    }
+
+    void guardarPuntoControl(PuntoControl punto) {
+        puntosControl.put(cursor, punto);
+    }
+
+    AccionPastor accionDe(int paso) {
+        return acciones[paso];
+    }
+
+    boolean derechaDe(int paso) {
+        return derechas[paso];
+    }
+
+    void avanzarCursor() {
+        cursor++;
+    }
+
+    void moverCursor(int paso) {
+        cursor = paso;
+    }
+
+    /**
+     * El punto de control más cercano por debajo de un paso, si llegar desde él (restaurar
+     * la mesa entera, que se cuenta como "intervalo" pasos, y jugar lo que falte) sale más
+     * barato que ir paso a paso desde el cursor
+     * @return el paso del punto de control, o -1 si conviene caminar
+     */
+    int puntoControlPara(int paso) {
+        Map.Entry<Integer, PuntoControl> punto = puntosControl.floorEntry(paso);
+        if (punto == null || punto.getKey() == cursor) {
+            return -1;
+        }
+        return (paso - punto.getKey()) + intervalo < Math.abs(paso - cursor) ? punto.getKey() : -1;
+    }
+
+    PuntoControl puntoControl(int paso) {
+        return puntosControl.get(paso);
+    }
+
+    void anotarSalidaDeMesa(int posicion, Pastor pastor, long orden) {
+        anotar(SALIO_DE_MESA, posicion, orden, pastor);
+    }
+
+    void anotarEntradaAMesa(Pastor pastor) {
+        anotar(ENTRO_A_MESA, 0, 0, pastor);
+    }
+
+    void anotarEntradaAPila(Pastor pastor) {
+        anotar(ENTRO_A_PILA, 0, 0, pastor);
+    }
+
+    void anotarSalidaDePila(Pastor pastor) {
+        anotar(SALIO_DE_PILA, 0, 0, pastor);
+    }
+
+    void anotarRecursos(Pastor pastor, int doblonesAntes, int feligresesAntes) {
+        anotar(RECURSOS, doblonesAntes, feligresesAntes, pastor);
+    }
+
+    void anotarIntercambio(int i, int j) {
+        anotar(INTERCAMBIO, i, j, null);
+    }
+
+    void anotarReorden(List<Pastor> orden, long[] ordenes, long siguienteOrden) {
+        anotar(REORDEN, 0, 0, new CorroAnterior(orden, ordenes, siguienteOrden));
+    }
+
+    private void anotar(byte tipo, long a, long b, Object sujeto) {
+        if (!grabando) {
+            return;
+        }
+        if (!abierto) {
+            abrirPaso();
+        }
+        if (numOperaciones == tipos.length) {
+            tipos = Arrays.copyOf(tipos, numOperaciones * 2);
+            datos = Arrays.copyOf(datos, 4 * numOperaciones);
+            sujetos = Arrays.copyOf(sujetos, numOperaciones * 2);
+        }
+        tipos[numOperaciones] = tipo;
+        datos[2 * numOperaciones] = a;
+        datos[2 * numOperaciones + 1] = b;
+        sujetos[numOperaciones] = sujeto;
+        numOperaciones++;
+    }
+
+    /**
+     * Deshace el paso anterior al cursor aplicando sus operaciones inversas de la última a la
+     * primera, y devuelve el turno a quien lo tenía
+     */
+    void deshacerPaso(Mesa mesa, PilaDesposeidos pila) {
+        int paso = cursor - 1;
+        for (int k = inicios[paso + 1] - 1; k >= inicios[paso]; k--) {
+            long a = datos[2 * k];
+            long b = datos[2 * k + 1];
+            Object sujeto = sujetos[k];
+            switch (tipos[k]) {
+                case SALIO_DE_MESA:
+                    mesa.reponerPastor((int) a, (Pastor) sujeto, b);
+                    break;
+                case ENTRO_A_MESA:
+                    mesa.levantarUltimo();
+                    break;
+                case ENTRO_A_PILA:
+                    pila.sacarDePila();
+                    break;
+                case SALIO_DE_PILA:
+                    pila.echarAPila((Pastor) sujeto);
+                    break;
+                case RECURSOS:
+                    ((Pastor) sujeto).restaurarRecursos((int) a, (int) b);
+                    break;
+                case INTERCAMBIO:
+                    mesa.intercambiarAsientos((int) a, (int) b);
+                    break;
+                case REORDEN:
+                    CorroAnterior anterior = (CorroAnterior) sujeto;
+                    mesa.reordenarComo(anterior.orden, anterior.ordenes, anterior.siguienteOrden);
+                    break;
+                default:
+                    throw new IllegalStateException("Operación desconocida en el historial: " + tipos[k]);
+            }
+        }
+        mesa.establecerPosicionActual(posicionesAntes[paso]);
+        cursor = paso;
+    }
+}
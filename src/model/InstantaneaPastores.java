@@ -0,0 +1,87 @@
+package model;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Lleva al día una SecuenciaPersistente con copias congeladas de los pastores de la mesa
+ * o de la pila, en su orden, para que tomar una instantánea del estado no copie nada.
+ * Los cambios de asiento se repiten sobre la secuencia al momento, en O(log n); los cambios
+ * de recursos solo se apuntan y se congelan al pedir la instantánea, así un pastor que cambia
+ * varias veces en un turno se copia una sola vez.
+ * No hace nada hasta que alguien pide la primera instantánea, para no cargar a las simulaciones.
+ */
+final class InstantaneaPastores {
+    private SecuenciaPersistente<Pastor> secuencia;      // null mientras nadie la pida
+    private boolean rehacer;                             // hubo un reordenamiento en bloque
+    private final Set<Pastor> cambiados = new HashSet<>();
+
+    boolean activa() {
+        return secuencia != null && !rehacer;
+    }
+
+    /** El pastor se sentó (o cayó a la pila) en la posición dada */
+    void insertado(int posicion, Pastor pastor) {
+        if (activa()) {
+            secuencia = secuencia.insertar(posicion, pastor.congelar());
+        }
+    }
+
+    /** Se fue el pastor de la posición dada */
+    void quitado(int posicion) {
+        if (activa()) {
+            secuencia = secuencia.quitar(posicion);
+        }
+    }
+
+    /** Los pastores de las posiciones i y j cambiaron de asiento */
+    void intercambiados(int i, int j) {
+        if (activa()) {
+            Pastor enI = secuencia.get(i);
+            secuencia = secuencia.con(i, secuencia.get(j)).con(j, enI);
+        }
+    }
+
+    /** Cambiaron los recursos del pastor: se vuelve a congelar al tomar la instantánea */
+    void recursosCambiaron(Pastor pastor) {
+        if (activa()) {
+            cambiados.add(pastor);
+        }
+    }
+
+    /** Todos cambiaron de sitio (o se fueron): la próxima instantánea se arma de nuevo */
+    void rehacer() {
+        if (secuencia != null) {
+            rehacer = true;
+            cambiados.clear();
+        }
+    }
+
+    /**
+     * Devuelve la instantánea al día. Si pocos pastores cambiaron, cuesta O(k log n) con k
+     * cambiados (más lo que cueste hallar su posición); si no, se arma de nuevo en O(n).
+     * actuales los pastores vivos en orden, para armarla de nuevo
+     * posicionDe posición actual de un pastor, o -1 si ya no está
+     */
+    SecuenciaPersistente<Pastor> tomar(Supplier<List<Pastor>> actuales, ToIntFunction<Pastor> posicionDe) {
+        if (secuencia == null || rehacer || cambiados.size() * 8 > secuencia.size()) {
+            List<Pastor> pastores = actuales.get();
+            List<Pastor> congelados = new ArrayList<>(pastores.size());
+            for (Pastor pastor : pastores) {
+                congelados.add(pastor.congelar());
+            }
+            secuencia = SecuenciaPersistente.desde(congelados);
+            rehacer = false;
+        } else {
+            for (Pastor pastor : cambiados) {
+                int posicion = posicionDe.applyAsInt(pastor);
+                if (posicion >= 0) {
+                    secuencia = secuencia.con(posicion, pastor.congelar());
+                }
+            }
+        }
+        cambiados.clear();
+        return secuencia;
+    }
+}
@@ -1,6 +1,8 @@
 package model;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Controlador principal del juego de la rueda de pastores
@@ -11,8 +13,15 @@ public class JuegoRueda {
     private PilaDesposeidos pilaDesposeidos;
     private boolean juegoTerminado;
     private int turno;
-    private String[] tiposOficio = {"COMERCIANTE", "ARTESANO", "AGRICULTOR", "GANADERO", "BANQUERO"};
-    private Random random;
+    private String[] tiposOficio = RegistroTratos.TIPOS_OFICIO;
+    private static final String[] NOMBRES = {"Fray Ambrosio", "Don Rodrigo", "Padre Benito", "Mosén García", 
+                                             "Capellán Ruiz", "Abad Martín", "Prior Fernández", "Canónigo López", 
+                                             "Vicario Sánchez", "Deán Jiménez"};
+    private RandomGenerator random; // todo el azar de la partida: recursos y políticas
+    private int costuraPendiente = -1; // asiento donde el último turno abrió o cerró un hueco
+    private ConfiguracionRueda configuracion; // null: recursos aleatorios por defecto
+    private HistorialRueda historial;         // null mientras no se active
+    private BitacoraRueda bitacora;           // null si no se anotan los turnos en un archivo
     
     /**
      * Constructor del juego
@@ -20,27 +29,154 @@ public class JuegoRueda {
      * n número de posiciones a contar para eliminación
      */
     public JuegoRueda(int numPastores, int n) {
-        this.mesa = new Mesa(numPastores, n);
+        this(numPastores, n, TipoCorro.LISTA);
+    }
+    
+    /**
+     * Constructor del juego eligiendo la estructura del corro
+     * numPastores número de pastores iniciales
+     * n número de posiciones a contar para eliminación
+     * tipoCorro estructura con la que la mesa guarda a los pastores
+     */
+    public JuegoRueda(int numPastores, int n, TipoCorro tipoCorro) {
+        this(numPastores, n, tipoCorro, new SplittableRandom(ThreadLocalRandom.current().nextLong()));
+    }
+    
+    /**
+     * Constructor del juego con una fuente de azar dada, para repetir partidas con la misma semilla
+     * numPastores número de pastores iniciales
+     * n número de posiciones a contar para eliminación
+     * tipoCorro estructura con la que la mesa guarda a los pastores
+     * random fuente de azar de la partida, propia de este juego (no debe compartirse entre hilos)
+     */
+    public JuegoRueda(int numPastores, int n, TipoCorro tipoCorro, RandomGenerator random) {
+        // La mesa se crea vacía: los pastores del juego se sientan en inicializarPastores
+        this.mesa = new Mesa(0, n, tipoCorro);
         this.pilaDesposeidos = new PilaDesposeidos();
         this.juegoTerminado = false;
         this.turno = 0;
-        this.random = new Random();
+        this.random = random;
         
         inicializarPastores(numPastores);
     }
     
+    /**
+     * Constructor a partir de una configuración, con todo el azar sacado de su semilla:
+     * la misma configuración da siempre la misma partida, la juegue el hilo que la juegue
+     * configuracion número de pastores, n, recursos iniciales y semilla
+     * tipoCorro estructura con la que la mesa guarda a los pastores
+     */
+    public JuegoRueda(ConfiguracionRueda configuracion, TipoCorro tipoCorro) {
+        this(configuracion, tipoCorro, new SplittableRandom(configuracion.getSemilla()));
+    }
+    
+    /**
+     * Constructor a partir de una configuración: respeta los recursos fijos si no son aleatorios
+     * configuracion número de pastores, n y recursos iniciales (su semilla no se usa)
+     * tipoCorro estructura con la que la mesa guarda a los pastores
+     * random fuente de azar de la partida, propia de este juego (no debe compartirse entre hilos)
+     */
+    public JuegoRueda(ConfiguracionRueda configuracion, TipoCorro tipoCorro, RandomGenerator random) {
+        this.mesa = new Mesa(0, configuracion.getValorN(), tipoCorro);
+        this.pilaDesposeidos = new PilaDesposeidos();
+        this.juegoTerminado = false;
+        this.turno = 0;
+        this.random = random;
+        this.configuracion = configuracion;
+        
+        inicializarPastores(configuracion.getNumPastores());
+    }
+    
+    /**
+     * Juego a medio empezar con los pastores ya sentados, para reproducir una partida de la bitácora
+     * sentados pastores en su orden de asiento, con sus órdenes de desempate
+     * posicionActual asiento del que tiene el turno
+     */
+    JuegoRueda(int n, TipoCorro tipoCorro, Pastor[] sentados, long[] ordenes, long siguienteOrden,
+               int posicionActual, int turno) {
+        this.mesa = new Mesa(0, n, tipoCorro);
+        this.pilaDesposeidos = new PilaDesposeidos();
+        for (int i = 0; i < sentados.length; i++) {
+            mesa.sentarPastor(sentados[i], ordenes[i]);
+        }
+        mesa.restaurarSiguienteOrden(siguienteOrden);
+        mesa.establecerPosicionActual(posicionActual);
+        this.turno = turno;
+        this.juegoTerminado = sentados.length <= 1;
+        this.random = new SplittableRandom(ThreadLocalRandom.current().nextLong());
+    }
+    
+    /**
+     * Copia independiente de otro juego, para explorar jugadas sin tocar el original
+     */
+    private JuegoRueda(JuegoRueda original, RandomGenerator random) {
+        this.mesa = new Mesa(0, original.mesa.getN(), original.mesa.getTipoCorro());
+        this.pilaDesposeidos = new PilaDesposeidos();
+        for (Pastor pastor : original.mesa.obtenerPastoresEnMesa()) {
+            mesa.sentarPastor(copiarPastor(pastor), original.mesa.ordenDe(pastor));
+        }
+        mesa.restaurarSiguienteOrden(original.mesa.getSiguienteOrden());
+        mesa.establecerPosicionActual(original.mesa.getPosicionActual());
+        for (Pastor pastor : original.pilaDesposeidos.obtenerDesposeidos()) {
+            pilaDesposeidos.echarAPila(copiarPastor(pastor));
+        }
+        this.turno = original.turno;
+        this.juegoTerminado = original.juegoTerminado;
+        this.configuracion = original.configuracion;
+        this.random = random;
+    }
+    
+    private static Pastor copiarPastor(Pastor pastor) {
+        return new Pastor(pastor.getId(), pastor.getNombre(), pastor.getDoblones(), pastor.getFeligreses(),
+                          pastor.getTrato());
+    }
+    
+    /**
+     * Copia la partida tal como está, con pastores nuevos, sin historial ni bitácora: lo que
+     * se haga con la copia no toca el original, y el original puede seguir mientras otro hilo
+     * lee la copia
+     * random fuente de azar de la copia
+     */
+    public JuegoRueda copiar(RandomGenerator random) {
+        return new JuegoRueda(this, random);
+    }
+    
+    /**
+     * Huella de Zobrist del estado: asientos, recursos, pila, quién tiene el turno y si terminó.
+     * Dos estados iguales dan la misma; dos distintos, casi seguro no. En O(1): la mesa y la
+     * pila llevan la suya al día con cada cambio.
+     */
+    public long claveZobrist() {
+        long clave = mesa.getHuellaZobrist() ^ pilaDesposeidos.getHuellaZobrist();
+        Pastor actual = mesa.obtenerPastorActual();
+        if (actual != null) {
+            clave ^= ClavesZobrist.turno(actual.getId());
+        }
+        return juegoTerminado ? clave ^ ClavesZobrist.TERMINADO : clave;
+    }
+    
+    /**
+     * Nombre con que el juego sienta al pastor de un id
+     */
+    static String nombreDe(int id) {
+        return id <= NOMBRES.length ? NOMBRES[id - 1] : "Pastor " + id;
+    }
+    
     /**
      * Inicializa los pastores con valores aleatorios
      */
     private void inicializarPastores(int numPastores) {
-        String[] nombres = {"Fray Ambrosio", "Don Rodrigo", "Padre Benito", "Mosén García", 
-                           "Capellán Ruiz", "Abad Martín", "Prior Fernández", "Canónigo López", 
-                           "Vicario Sánchez", "Deán Jiménez"};
-        
         for (int i = 0; i < numPastores; i++) {
-            String nombre = i < nombres.length ? nombres[i] : "Pastor " + (i + 1);
-            int doblones = random.nextInt(500) + 100; // Entre 100 y 600 doblones
-            int feligreses = random.nextInt(200) + 50; // Entre 50 y 250 feligreses
+            String nombre = nombreDe(i + 1);
+            int doblones;
+            int feligreses;
+            if (configuracion == null || configuracion.isRecursosAleatorios()) {
+                doblones = random.nextInt(500) + 100; // Entre 100 y 600 doblones
+                feligreses = random.nextInt(200) + 50; // Entre 50 y 250 feligreses
+            } else {
+                doblones = configuracion.getDoblonesIniciales();
+                feligreses = configuracion.getFeligresesIniciales();
+            }
             String trato = tiposOficio[i % tiposOficio.length];
             
             Pastor pastor = new Pastor(i + 1, nombre, doblones, feligreses, trato);
@@ -51,6 +187,27 @@ public class JuegoRueda {
         mesa.reorganizarCorro();
     }
     
+    /**
+     * Prepara una rueda sobre la mesa primitiva, repartiendo doblones, feligreses y oficios
+     * igual que el constructor, pero sin crear un objeto Pastor por cada uno
+     * numPastores número de pastores iniciales
+     * n número de posiciones a contar para eliminación
+     * random fuente de azar para los recursos iniciales
+     * @return la mesa lista para empezarDanza()
+     */
+    public static MesaPrimitiva crearMesaPrimitiva(int numPastores, int n, RandomGenerator random) {
+        MesaPrimitiva mesa = new MesaPrimitiva(n, numPastores);
+        String[] oficios = RegistroTratos.TIPOS_OFICIO;
+        for (int i = 0; i < numPastores; i++) {
+            String nombre = i < NOMBRES.length ? NOMBRES[i] : null; // null: "Pastor id" al materializar
+            int doblones = random.nextInt(500) + 100;
+            int feligreses = random.nextInt(200) + 50;
+            mesa.sentarPastor(i + 1, nombre, doblones, feligreses, oficios[i % oficios.length]);
+        }
+        mesa.reorganizarCorro();
+        return mesa;
+    }
+    
     /**
      * Inicia la danza del juego
      * "empiece la danza aquel pastor que más doblones guarda en sus arcas"
@@ -58,12 +215,17 @@ public class JuegoRueda {
     public void empezarDanza() {
         if (mesa.contarPastores() <= 1) {
             juegoTerminado = true;
-            return;
+        } else {
+            mesa.empezarConMasRico();
+            juegoTerminado = false;
+            turno = 1;
+        }
+        if (historial != null) {
+            nuevoHistorial();
+        }
+        if (bitacora != null) {
+            bitacora.empezarPartida(mesa, turno);
         }
-        
-        mesa.empezarConMasRico();
-        juegoTerminado = false;
-        turno = 1;
     }
     
     /**
@@ -73,6 +235,52 @@ public class JuegoRueda {
      * @return resultado del turno
      */
     public ResultadoTurno tomarTurno(AccionPastor accion, boolean derecha) {
+        if (bitacora != null && !juegoTerminado) {
+            return jugarTurnoAnotado(accion, derecha);
+        }
+        if (historial == null || juegoTerminado) {
+            return jugarTurno(accion, derecha);
+        }
+        historial.iniciarPaso(accion, derecha, mesa.getPosicionActual());
+        boolean exitoso = false;
+        try {
+            ResultadoTurno resultado = jugarTurno(accion, derecha);
+            exitoso = resultado.isExitoso();
+            return resultado;
+        } finally {
+            historial.cerrarPaso(exitoso);
+            if (exitoso) {
+                guardarPuntoControlSiToca();
+            }
+        }
+    }
+    
+    /**
+     * Juega el turno y, si sale bien, lo anota en la bitácora. Los recursos pasan de un pastor
+     * a otro sin perderse, así que lo que cambia la víctima es lo contrario de lo que cambia el actor.
+     */
+    private ResultadoTurno jugarTurnoAnotado(AccionPastor accion, boolean derecha) {
+        Pastor actor = mesa.obtenerPastorActual();
+        if (actor == null) {
+            return jugarTurno(accion, derecha);
+        }
+        int turnoAntes = turno;
+        int asiento = mesa.getPosicionActual();
+        int doblones = actor.getDoblones();
+        int feligreses = actor.getFeligreses();
+        ResultadoTurno resultado = jugarTurno(accion, derecha);
+        if (resultado.isExitoso()) {
+            int deltaDoblones = actor.getDoblones() - doblones;
+            int deltaFeligreses = actor.getFeligreses() - feligreses;
+            Pastor victima = resultado.getPastorAfectado();
+            bitacora.anotarTurno(turnoAntes, asiento, actor.getId(), accion, derecha,
+                                 victima != null ? victima.getId() : 0,
+                                 deltaDoblones, deltaFeligreses, -deltaDoblones, -deltaFeligreses);
+        }
+        return resultado;
+    }
+    
+    private ResultadoTurno jugarTurno(AccionPastor accion, boolean derecha) {
         if (juegoTerminado) {
             return new ResultadoTurno(false, "El juego ya terminó", null);
         }
@@ -84,6 +292,7 @@ public class JuegoRueda {
         }
         
         ResultadoTurno resultado = null;
+        costuraPendiente = -1;
         
         switch (accion) {
             case ARRIMAR_GUADAÑA_DERECHA:
@@ -111,7 +320,10 @@ public class JuegoRueda {
                 mesa.darVuelta();
                 turno++;
                 
-                // Reorganizar si es necesario
+                // Reorganizar si es necesario: primero solo alrededor del asiento tocado
+                if (costuraPendiente >= 0) {
+                    mesa.repararAlrededorDe(costuraPendiente);
+                }
                 if (!mesa.verificarVecindad()) {
                     mesa.reorganizarCorro();
                 }
@@ -121,6 +333,88 @@ public class JuegoRueda {
         return resultado;
     }
     
+    /**
+     * Juega la rueda hasta el final arrimando siempre la guadaña a la derecha.
+     * Los tramos que se reducen a un problema de Josefo se resuelven de un solo golpe
+     * con simularDeguelloPuro(); el resto se juega turno a turno con tomarTurno().
+     * @return número de turnos jugados
+     */
+    public int avanzarHastaFin() {
+        int turnosJugados = 0;
+        while (!juegoTerminado) {
+            int avance = simularDeguelloPuro().size();
+            if (avance == 0) {
+                ResultadoTurno resultado = tomarTurno(AccionPastor.ARRIMAR_GUADAÑA_DERECHA, true);
+                if (!resultado.isExitoso()) {
+                    break;
+                }
+                avance = 1;
+            }
+            turnosJugados += avance;
+        }
+        return turnosJugados;
+    }
+    
+    /**
+     * Resuelve de una vez una racha de degüellos a la derecha cuando el juego se reduce
+     * al problema de Josefo: con n = 1 la víctima es siempre el vecino inmediato, sin importar
+     * su grey, y el turno salta al siguiente superviviente (o al de después, si quien degüella
+     * ocupa el último asiento y la víctima el primero, como hacen sacarPastor y darVuelta).
+     * Cada caída se calcula con esa recurrencia sobre las posiciones del corro, sin pasar por
+     * tomarTurno ni armar listas de vecinos: con el corro INDEXADO cuesta O(log n) por caída.
+     * La racha se corta justo antes del primer degüello que dejaría juntos a dos pastores del
+     * mismo trato, porque ahí el corro tendría que reorganizarse; ese turno lo juega tomarTurno().
+     * El estado final de la mesa, la pila y el turno es el mismo que jugando turno a turno.
+     * @return los pastores degollados, en el orden en que cayeron (vacía si no aplica)
+     */
+    public List<Pastor> simularDeguelloPuro() {
+        List<Pastor> caidos = new ArrayList<>();
+        if (juegoTerminado || mesa.getN() != 1 || mesa.contarPastores() < 2
+                || mesa.obtenerPastorActual() == null || !mesa.verificarVecindad()) {
+            return caidos;
+        }
+        
+        int actual = mesa.getPosicionActual();
+        while (!juegoTerminado) {
+            int tamaño = mesa.contarPastores();
+            int victima = (actual + 1) % tamaño;
+            Pastor verdugo = mesa.obtenerVecino(true, 0);
+            // Si el degüello no acaba el juego y junta dos del mismo trato, se corta la racha
+            if (tamaño > 2 && verdugo.esDelMismoTrato(mesa.obtenerVecino(true, 2))) {
+                break;
+            }
+            
+            // En el historial cada caída es un turno de guadaña a la derecha, que es lo que equivale
+            if (historial != null) {
+                historial.iniciarPaso(AccionPastor.ARRIMAR_GUADAÑA_DERECHA, true, actual);
+            }
+            Pastor caido = mesa.obtenerVecino(true, 1);
+            if (bitacora != null) {
+                bitacora.anotarTurno(turno, actual, verdugo.getId(), AccionPastor.ARRIMAR_GUADAÑA_DERECHA, true,
+                                     caido.getId(), caido.getDoblones(), caido.getFeligreses(),
+                                     -caido.getDoblones(), -caido.getFeligreses());
+            }
+            caido.traspasarRecursos(verdugo);
+            pilaDesposeidos.echarAPila(mesa.sacarPastor(victima));
+            caidos.add(caido);
+            
+            if (mesa.quedaUnSolo()) {
+                juegoTerminado = true;
+            } else {
+                turno++;
+                // Si cayó el de la posición 0, la mesa devuelve el turno a la 0 y darVuelta lo pasa a la 1
+                actual = (victima == 0 ? 1 : actual + 1) % (tamaño - 1);
+                mesa.establecerPosicionActual(actual);
+            }
+            if (historial != null) {
+                historial.cerrarPaso(true);
+                guardarPuntoControlSiToca();
+            }
+        }
+        
+        return caidos;
+    }
+    
     /**
      * Arrima la guadaña para segar una cabeza
      * "arrimar la guadaña y segar otra cabeza de vecino"
@@ -128,16 +422,10 @@ public class JuegoRueda {
      * @return resultado de la eliminación
      */
     public ResultadoTurno arrimarGuadaña(boolean derecha) {
-        List<Pastor> vecinos = mesa.mirarHacia(derecha, mesa.getN());
-        
-        if (vecinos.isEmpty()) {
-            return new ResultadoTurno(false, "No hay vecinos en esa dirección", null);
-        }
-        
-        // Encontrar al de menor grey
-        Pastor menorGrey = mesa.encontrarMenorGrey(vecinos);
+        // Encontrar al de menor grey entre los n vecinos
+        Pastor menorGrey = mesa.buscarMenorGreyHacia(derecha, mesa.getN());
         if (menorGrey == null) {
-            return new ResultadoTurno(false, "No se pudo encontrar pastor a eliminar", null);
+            return new ResultadoTurno(false, "No hay vecinos en esa dirección", null);
         }
         
         // Traspasar recursos al pastor actual
@@ -145,13 +433,12 @@ public class JuegoRueda {
         menorGrey.traspasarRecursos(pastorActual);
         
         // Sacar de la mesa y echar a la pila
-        int posicion = mesa.obtenerPastoresEnMesa().indexOf(menorGrey);
+        int posicion = mesa.posicionDe(menorGrey);
         Pastor eliminado = mesa.sacarPastor(posicion);
         pilaDesposeidos.echarAPila(eliminado);
+        costuraPendiente = posicion; // ahora se tocan los que estaban a ambos lados
         
-        String mensaje = String.format("%s eliminado", eliminado.getNombre());
-        
-        return new ResultadoTurno(true, mensaje, eliminado);
+        return new ResultadoTurno(true, "%s eliminado", eliminado, null);
     }
     
     /**
@@ -171,6 +458,11 @@ public class JuegoRueda {
             return new ResultadoTurno(false, "No se pudo rescatar al pastor", null);
         }
         
+        // Sentar al rescatado en la mesa antes de darle nada, para que la mesa vea (y el
+        // historial apunte) todos los cambios de recursos
+        mesa.sentarPastor(rescatado);
+        costuraPendiente = mesa.contarPastores() - 1;
+        
         // Darle la mitad de los recursos del pastor actual
         int mitadDoblones = pastorActual.getDoblones() / 2;
         int mitadFeligreses = pastorActual.getFeligreses() / 2;
@@ -181,12 +473,7 @@ public class JuegoRueda {
         rescatado.setDoblones(rescatado.getDoblones() + mitadDoblones);
         rescatado.setFeligreses(rescatado.getFeligreses() + mitadFeligreses);
         
-        // Sentar al rescatado en la mesa
-        mesa.sentarPastor(rescatado);
-        
-        String mensaje = String.format("%s rescatado", rescatado.getNombre());
-        
-        return new ResultadoTurno(true, mensaje, rescatado);
+        return new ResultadoTurno(true, "%s rescatado", rescatado, null);
     }
     
     /**
@@ -215,9 +502,7 @@ public class JuegoRueda {
             return new ResultadoTurno(false, "No se pudo realizar el hurto piadoso", null);
         }
         
-        String mensaje = String.format("%s hurtó a %s", pastorActual.getNombre(), masRico.getNombre());
-        
-        return new ResultadoTurno(true, mensaje, masRico);
+        return new ResultadoTurno(true, "%2$s hurtó a %1$s", masRico, pastorActual);
     }
     
     /**
@@ -250,12 +535,172 @@ public class JuegoRueda {
         
         // Limpiar estado actual
         pilaDesposeidos.vaciarPila();
-        mesa = new Mesa(numPastores, n);
+        mesa = new Mesa(0, n, mesa.getTipoCorro());
         
         // Reinicializar
         inicializarPastores(numPastores);
         juegoTerminado = false;
         turno = 0;
+        if (historial != null) {
+            nuevoHistorial();
+        }
+    }
+    
+    /**
+     * Empieza a guardar el historial de turnos para poder deshacerlos, rehacerlos o ir a
+     * cualquier turno sin volver a jugar desde el principio. Arranca en el estado actual;
+     * empezarDanza() y reiniciarRueda() lo vuelven a empezar.
+     * Solo se apuntan los cambios que hacen los turnos (tomarTurno, avanzarHastaFin...),
+     * no los que se hagan tocando la mesa o la pila desde fuera.
+     */
+    public void activarHistorial() {
+        if (bitacora != null) {
+            throw new IllegalStateException("Con bitácora los turnos solo avanzan: no se puede activar el historial");
+        }
+        if (historial == null) {
+            nuevoHistorial();
+        }
+    }
+    
+    public boolean isHistorialActivo() {
+        return historial != null;
+    }
+    
+    /**
+     * Anota en la bitácora cada turno que se juegue desde ahora; empezarDanza() abre en ella una
+     * partida nueva con los pastores como estén sentados. La bitácora es de solo añadir, así que
+     * no se puede usar a la vez que el historial (deshacer reescribiría turnos ya anotados).
+     * bitacora la bitácora, o null para dejar de anotar (cerrarla es cosa de quien la abrió)
+     */
+    public void setBitacora(BitacoraRueda bitacora) {
+        if (bitacora != null && historial != null) {
+            throw new IllegalStateException("Con el historial activo no se pueden anotar los turnos en una bitácora");
+        }
+        this.bitacora = bitacora;
+    }
+    
+    private void nuevoHistorial() {
+        historial = new HistorialRueda(turno, mesa.contarPastores() + pilaDesposeidos.obtenerTamaño());
+        mesa.setHistorial(historial);
+        pilaDesposeidos.setHistorial(historial);
+        guardarPuntoControlSiToca();
+    }
+    
+    private void guardarPuntoControlSiToca() {
+        if (historial.tocaPuntoControl()) {
+            historial.guardarPuntoControl(new HistorialRueda.PuntoControl(mesa, pilaDesposeidos, turno, juegoTerminado));
+        }
+    }
+    
+    /**
+     * Cuántos turnos guarda el historial, jugados o deshechos (0 si no está activo)
+     */
+    public int getTurnosEnHistorial() {
+        return historial == null ? 0 : historial.getNumPasos();
+    }
+    
+    public boolean puedeDeshacer() {
+        return historial != null && historial.getCursor() > 0;
+    }
+    
+    public boolean puedeRehacer() {
+        return historial != null && historial.getCursor() < historial.getNumPasos();
+    }
+    
+    /**
+     * Deshace el último turno jugado, en proporción a lo que ese turno tocó
+     * @return false si no hay historial o nada que deshacer
+     */
+    public boolean deshacer() {
+        if (!puedeDeshacer()) {
+            return false;
+        }
+        historial.deshacerPaso(mesa, pilaDesposeidos);
+        turno = historial.getTurnoInicial() + historial.getCursor();
+        juegoTerminado = false;
+        costuraPendiente = -1;
+        return true;
+    }
+    
+    /**
+     * Vuelve a jugar el turno deshecho más reciente, con la misma acción y dirección
+     * @return false si no hay historial o nada que rehacer
+     */
+    public boolean rehacer() {
+        if (!puedeRehacer()) {
+            return false;
+        }
+        int paso = historial.getCursor();
+        if (!jugarTurno(historial.accionDe(paso), historial.derechaDe(paso)).isExitoso()) {
+            throw new IllegalStateException("El turno " + (turno) + " del historial ya no se puede jugar");
+        }
+        historial.avanzarCursor();
+        guardarPuntoControlSiToca();
+        return true;
+    }
+    
+    /**
+     * Lleva la rueda al comienzo del turno k, hacia atrás o hacia adelante por el historial.
+     * Los turnos se cuentan como getTurno(); tras el turno que acaba la danza el contador
+     * no avanza, así que el estado final es el turno inicial más getTurnosEnHistorial().
+     * Si un punto de control queda más cerca que el turno actual, se parte de él: entonces
+     * la mesa y la pila se rehacen y getMesa()/getPilaDesposeidos() devuelven objetos nuevos.
+     * @return false si no hay historial o el turno queda fuera de él
+     */
+    public boolean irATurno(int k) {
+        if (historial == null) {
+            return false;
+        }
+        int paso = k - historial.getTurnoInicial();
+        if (paso < 0 || paso > historial.getNumPasos()) {
+            return false;
+        }
+        int desde = historial.puntoControlPara(paso);
+        if (desde >= 0) {
+            restaurarPuntoControl(desde);
+        }
+        while (historial.getCursor() > paso) {
+            deshacer();
+        }
+        while (historial.getCursor() < paso) {
+            rehacer();
+        }
+        return true;
+    }
+    
+    /**
+     * Rehace la mesa y la pila tal como estaban en un punto de control, en O(n)
+     */
+    private void restaurarPuntoControl(int paso) {
+        HistorialRueda.PuntoControl punto = historial.puntoControl(paso);
+        for (Pastor pastor : mesa.obtenerPastoresEnMesa()) {
+            pastor.setObservador(null);
+        }
+        pilaDesposeidos.vaciarPila();
+        
+        Mesa nuevaMesa = new Mesa(0, mesa.getN(), mesa.getTipoCorro());
+        PilaDesposeidos nuevaPila = new PilaDesposeidos();
+        for (int i = 0; i < punto.doblones.length; i++) {
+            Pastor pastor = i < punto.mesa.length ? punto.mesa[i] : punto.pila[i - punto.mesa.length];
+            pastor.restaurarRecursos(punto.doblones[i], punto.feligreses[i]);
+        }
+        for (int i = 0; i < punto.mesa.length; i++) {
+            nuevaMesa.sentarPastor(punto.mesa[i], punto.ordenes[i]);
+        }
+        nuevaMesa.restaurarSiguienteOrden(punto.siguienteOrden);
+        nuevaMesa.establecerPosicionActual(punto.posicionActual);
+        for (Pastor pastor : punto.pila) {
+            nuevaPila.echarAPila(pastor);
+        }
+        
+        mesa = nuevaMesa;
+        pilaDesposeidos = nuevaPila;
+        mesa.setHistorial(historial);
+        pilaDesposeidos.setHistorial(historial);
+        turno = punto.turno;
+        juegoTerminado = punto.terminado;
+        costuraPendiente = -1;
+        historial.moverCursor(paso);
     }
     
     /**
@@ -267,20 +712,29 @@ public class JuegoRueda {
         boolean puedeHurtar = false;
         boolean puedeRescatar = !pilaDesposeidos.estaVacia();
         
+        Pastor masPobre = mesa.encontrarMasPobre();
+        
         // Verificar si puede hacer hurto piadoso
         if (pastorActual != null) {
-            Pastor masPobre = mesa.encontrarMasPobre();
             puedeHurtar = pastorActual.equals(masPobre) && mesa.contarPastores() > 1;
         }
         
         return new EstadoRueda(
             pastorActual,
-            mesa.obtenerPastoresEnMesa(),
-            pilaDesposeidos.obtenerDesposeidos(),
+            mesa.tomarInstantanea(),
+            pilaDesposeidos.tomarInstantanea(),
             puedeHurtar,
             puedeRescatar,
             juegoTerminado,
-            turno
+            turno,
+            0,
+            mesa.encontrarMasRico(),
+            masPobre,
+            mesa.copiarConteoTratos(),
+            pilaDesposeidos.copiarConteoTratos(),
+            mesa.obtenerEstadisticasRecursos(),
+            pilaDesposeidos.obtenerEstadisticasRecursos(),
+            claveZobrist()
         );
     }
     
@@ -299,19 +753,34 @@ public class JuegoRueda {
         acciones.add(AccionPastor.ARRIMAR_GUADAÑA_IZQUIERDA);
         
         // Puede rescatar si la pila no está vacía
-        if (!pilaDesposeidos.estaVacia()) {
+        if (puedeSacarDelOlvido()) {
             acciones.add(AccionPastor.SACAR_DEL_OLVIDO);
         }
         
         // Puede hurtar si es el más pobre
-        Pastor pastorActual = mesa.obtenerPastorActual();
-        if (pastorActual != null && pastorActual.equals(mesa.encontrarMasPobre()) && mesa.contarPastores() > 1) {
+        if (puedeMeterMano()) {
             acciones.add(AccionPastor.METER_MANO_FALTRIQUERA);
         }
         
         return acciones;
     }
     
+    /**
+     * Indica si el pastor actual puede rescatar a alguien, sin armar la lista de acciones
+     */
+    public boolean puedeSacarDelOlvido() {
+        return !juegoTerminado && !pilaDesposeidos.estaVacia();
+    }
+    
+    /**
+     * Indica si el pastor actual es el más pobre y puede hurtar, sin armar la lista de acciones
+     */
+    public boolean puedeMeterMano() {
+        Pastor pastorActual = mesa.obtenerPastorActual();
+        return !juegoTerminado && pastorActual != null && mesa.contarPastores() > 1
+                && pastorActual.equals(mesa.encontrarMasPobre());
+    }
+    
     // Getters
     public Mesa getMesa() {
         return mesa;
@@ -325,6 +794,14 @@ public class JuegoRueda {
         return turno;
     }
     
+    /**
+     * Fuente de azar de esta partida: la que deben usar las políticas que decidan sus turnos,
+     * para que la partida se pueda repetir entera a partir de la semilla
+     */
+    public RandomGenerator getAzar() {
+        return random;
+    }
+    
     public boolean isJuegoTerminado() {
         return juegoTerminado;
     }
@@ -344,6 +821,8 @@ class ResultadoTurno {
     private boolean exitoso;
     private String mensaje;
     private Pastor pastorAfectado;
+    private Pastor pastorActor;   // quien actuó, si el mensaje lo nombra
+    private boolean porFormatear; // mensaje es todavía una plantilla
     
     public ResultadoTurno(boolean exitoso, String mensaje, Pastor pastorAfectado) {
         this.exitoso = exitoso;
@@ -351,10 +830,29 @@ class ResultadoTurno {
         this.pastorAfectado = pastorAfectado;
     }
     
+    /**
+     * Resultado cuyo mensaje se arma solo si alguien lo lee: plantilla recibe los nombres
+     * del afectado (%1$s) y del actor (%2$s). Así los turnos jugados sin vista no formatean textos.
+     */
+    ResultadoTurno(boolean exitoso, String plantilla, Pastor pastorAfectado, Pastor pastorActor) {
+        this.exitoso = exitoso;
+        this.mensaje = plantilla;
+        this.pastorAfectado = pastorAfectado;
+        this.pastorActor = pastorActor;
+        this.porFormatear = true;
+    }
+    
     // Getters y setters
     public boolean isExitoso() { return exitoso; }
-    public String getMensaje() { return mensaje; }
+    public String getMensaje() {
+        if (porFormatear) {
+            mensaje = String.format(mensaje, pastorAfectado.getNombre(),
+                                    pastorActor != null ? pastorActor.getNombre() : "");
+            porFormatear = false;
+        }
+        return mensaje;
+    }
     public Pastor getPastorAfectado() { return pastorAfectado; }
     
-    public void setMensaje(String mensaje) { this.mensaje = mensaje; }
+    public void setMensaje(String mensaje) { this.mensaje = mensaje; this.porFormatear = false; }
 }
\ No newline at end of file
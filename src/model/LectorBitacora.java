@@ -0,0 +1,236 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lee una bitácora escrita por BitacoraRueda proyectando el archivo en memoria: los registros
+ * se leen directamente de las páginas del archivo, sin copiarlos ni crear objetos, así que
+ * recorrer millones de partidas va a la velocidad del disco (o de la caché de páginas).
+ * Los registros se piden por su índice (0 es el primero tras la cabecera) con los métodos
+ * ...De(i); buscarPartida y buscarTurno dan el índice de una partida o un turno sin recorrer
+ * el archivo. Solo ve los registros que había al abrirlo.
+ * La proyección se libera cuando el lector deja de usarse y lo recoge el recolector.
+ */
+public class LectorBitacora {
+    private static final int TAMAÑO = BitacoraRueda.TAMAÑO_REGISTRO;
+    // Una proyección no puede pasar de 2 GiB: el archivo se proyecta en tramos de 2^24 registros
+    private static final int BITS_TRAMO = 24;
+    private static final long MASCARA_TRAMO = (1L << BITS_TRAMO) - 1;
+
+    private final ByteBuffer[] tramos;
+    private final long numRegistros;
+
+    /**
+     * Abre la bitácora y la proyecta entera en memoria, descartando un último registro a medias
+     * @throws IOException si no se puede leer o no es una bitácora de la rueda
+     */
+    public LectorBitacora(Path ruta) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            long tamaño = canal.size();
+            if (tamaño < TAMAÑO) {
+                throw new IOException("El archivo no es una bitácora de la rueda");
+            }
+            MappedByteBuffer cabecera = canal.map(FileChannel.MapMode.READ_ONLY, 0, TAMAÑO);
+            cabecera.order(BitacoraRueda.ORDEN_BYTES);
+            if (cabecera.getInt(0) != BitacoraRueda.MAGICO || cabecera.getInt(4) != BitacoraRueda.VERSION
+                    || cabecera.getInt(8) != TAMAÑO) {
+                throw new IOException("El archivo no es una bitácora de la rueda (versión "
+                                      + BitacoraRueda.VERSION + ")");
+            }
+
+            numRegistros = (tamaño - TAMAÑO) / TAMAÑO;
+            int numTramos = (int) ((numRegistros + MASCARA_TRAMO) >>> BITS_TRAMO);
+            tramos = new ByteBuffer[numTramos];
+            for (int t = 0; t < numTramos; t++) {
+                long primero = (long) t << BITS_TRAMO;
+                long registros = Math.min(numRegistros - primero, 1L << BITS_TRAMO);
+                tramos[t] = canal.map(FileChannel.MapMode.READ_ONLY, TAMAÑO + primero * TAMAÑO, registros * TAMAÑO)
+                                 .order(BitacoraRueda.ORDEN_BYTES);
+            }
+        }
+    }
+
+    public long getNumRegistros() {
+        return numRegistros;
+    }
+
+    /**
+     * @return cuántas partidas hay (las partidas se numeran seguidas desde 0)
+     */
+    public int contarPartidas() {
+        return numRegistros == 0 ? 0 : partidaDe(numRegistros - 1) + 1;
+    }
+
+    // Campos del registro i; su significado según el tipo está en BitacoraRueda
+    public int partidaDe(long i) {
+        return entero(i, 0);
+    }
+
+    public int turnoDe(long i) {
+        return entero(i, 4);
+    }
+
+    public int actorDe(long i) {
+        return entero(i, 8);
+    }
+
+    public int victimaDe(long i) {
+        return entero(i, 12);
+    }
+
+    public int asientoDe(long i) {
+        return entero(i, 16);
+    }
+
+    public int deltaDoblonesActorDe(long i) {
+        return entero(i, 20);
+    }
+
+    public int deltaFeligresesActorDe(long i) {
+        return entero(i, 24);
+    }
+
+    public int deltaDoblonesVictimaDe(long i) {
+        return entero(i, 28);
+    }
+
+    public int deltaFeligresesVictimaDe(long i) {
+        return entero(i, 32);
+    }
+
+    public byte tipoDe(long i) {
+        return tramos[(int) (i >>> BITS_TRAMO)].get(desplazamiento(i) + 36);
+    }
+
+    /**
+     * @return la acción de un registro de TURNO
+     */
+    public AccionPastor accionDe(long i) {
+        return AccionPastor.values()[tramos[(int) (i >>> BITS_TRAMO)].get(desplazamiento(i) + 37)];
+    }
+
+    public boolean derechaDe(long i) {
+        return tramos[(int) (i >>> BITS_TRAMO)].get(desplazamiento(i) + 38) != 0;
+    }
+
+    private int entero(long i, int campo) {
+        return tramos[(int) (i >>> BITS_TRAMO)].getInt(desplazamiento(i) + campo);
+    }
+
+    private static int desplazamiento(long i) {
+        return (int) (i & MASCARA_TRAMO) * TAMAÑO;
+    }
+
+    /**
+     * Busca una partida por búsqueda binaria sobre los números de partida, que solo crecen
+     * @return índice de su registro de PARTIDA, o -1 si no está
+     */
+    public long buscarPartida(int partida) {
+        long desde = 0;
+        long hasta = numRegistros;
+        while (desde < hasta) {
+            long medio = (desde + hasta) >>> 1;
+            if (partidaDe(medio) < partida) {
+                desde = medio + 1;
+            } else {
+                hasta = medio;
+            }
+        }
+        return desde < numRegistros && partidaDe(desde) == partida && tipoDe(desde) == BitacoraRueda.TIPO_PARTIDA
+                ? desde : -1;
+    }
+
+    /**
+     * Busca el registro de un turno. Los turnos de una partida van seguidos tras sus asientos,
+     * así que se prueba primero a saltar directamente; si la partida tiene huecos (turnos que
+     * no hicieron nada y no se anotaron) se busca por búsqueda binaria dentro de la partida.
+     * @return índice del registro de TURNO, o -1 si la partida no tiene ese turno
+     */
+    public long buscarTurno(int partida, int turno) {
+        long inicio = buscarPartida(partida);
+        if (inicio < 0) {
+            return -1;
+        }
+        long primero = inicio + 1 + actorDe(inicio);
+        if (primero >= numRegistros || partidaDe(primero) != partida) {
+            return -1;
+        }
+        long directo = primero + (turno - (long) turnoDe(primero));
+        if (directo >= primero && directo < numRegistros && partidaDe(directo) == partida
+                && turnoDe(directo) == turno) {
+            return directo;
+        }
+
+        long desde = primero;
+        long hasta = finDePartida(inicio);
+        while (desde < hasta) {
+            long medio = (desde + hasta) >>> 1;
+            if (turnoDe(medio) < turno) {
+                desde = medio + 1;
+            } else {
+                hasta = medio;
+            }
+        }
+        return desde < numRegistros && partidaDe(desde) == partida && turnoDe(desde) == turno ? desde : -1;
+    }
+
+    /**
+     * @return índice del primer registro después de la partida que empieza en inicio
+     */
+    public long finDePartida(long inicio) {
+        int partida = partidaDe(inicio);
+        long desde = inicio;
+        long hasta = numRegistros;
+        while (desde < hasta) {
+            long medio = (desde + hasta) >>> 1;
+            if (partidaDe(medio) <= partida) {
+                desde = medio + 1;
+            } else {
+                hasta = medio;
+            }
+        }
+        return desde;
+    }
+
+    /**
+     * Vuelve a jugar una partida anotada por un JuegoRueda hasta el comienzo del turno dado:
+     * sienta a los pastores como estaban al empezar y repite las acciones de sus turnos, que
+     * dan lo mismo porque los turnos no tienen azar. Los nombres son los que pone JuegoRueda
+     * y los tratos se leen de RegistroTratos, cuyos ordinales de serie no cambian entre ejecuciones.
+     * hastaTurno turno hasta el que llegar (Integer.MAX_VALUE para el final)
+     * @return el juego en ese punto, o null si la partida no está
+     */
+    public JuegoRueda reproducir(int partida, int hastaTurno) {
+        long inicio = buscarPartida(partida);
+        if (inicio < 0) {
+            return null;
+        }
+        int numPastores = actorDe(inicio);
+        Pastor[] sentados = new Pastor[numPastores];
+        long[] ordenes = new long[numPastores];
+        for (int asiento = 0; asiento < numPastores; asiento++) {
+            long i = inicio + 1 + asiento;
+            int id = actorDe(i);
+            sentados[asiento] = new Pastor(id, JuegoRueda.nombreDe(id), deltaDoblonesActorDe(i),
+                                           deltaFeligresesActorDe(i), RegistroTratos.nombre(victimaDe(i)));
+            ordenes[asiento] = deltaDoblonesVictimaDe(i);
+        }
+        JuegoRueda juego = new JuegoRueda(victimaDe(inicio), TipoCorro.values()[deltaDoblonesActorDe(inicio)],
+                                          sentados, ordenes, deltaDoblonesVictimaDe(inicio),
+                                          asientoDe(inicio), turnoDe(inicio));
+
+        long fin = finDePartida(inicio);
+        for (long i = inicio + 1 + numPastores; i < fin && turnoDe(i) < hastaTurno; i++) {
+            if (!juego.tomarTurno(accionDe(i), derechaDe(i)).isExitoso()) {
+                throw new IllegalStateException("El turno " + turnoDe(i) + " de la partida " + partida
+                                                + " no se puede volver a jugar");
+            }
+        }
+        return juego;
+    }
+}
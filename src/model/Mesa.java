@@ -7,23 +7,61 @@ import java.util.*;
  * "En una redonda mesa, cual si fuera torno del hado"
  */
 public class Mesa {
-    private ArrayList<Pastor> pastores;
+    private final Corro pastores;
+    private final TipoCorro tipoCorro;
     private int posicionActual;  // posición del pastor que tiene el turno
     private int n;              // número de posiciones a contar para eliminación
     
+    // Índices por doblones: la cima de cada montículo es el más rico / el más pobre
+    private final MonticuloIndexado porMasRico;
+    private final MonticuloIndexado porMasPobre;
+    private long siguienteOrden;  // orden de asiento creciente, para desempatar como la lista
+    private final ObservadorRecursos observador = this::recursosCambiaron;
+    
+    // Pastores que tienen a su derecha a uno del mismo trato; se mantiene al sentar, sacar e intercambiar
+    private final Set<Pastor> conflictos = new HashSet<>();
+    static final int MAX_REPARACIONES_LOCALES = 8; // también la usa MesaPrimitiva
+    
+    // Cuántos pastores de cada trato (por ordinal de RegistroTratos) hay sentados
+    private int[] conteoTratos = new int[RegistroTratos.cantidad()];
+    private int sinTrato = 0;
+    
+    // Totales corrientes de recursos de los sentados
+    private final AcumuladoRecursos recursos = new AcumuladoRecursos();
+    // Copia persistente y congelada del corro, para las instantáneas del estado
+    private final InstantaneaPastores instantanea = new InstantaneaPastores();
+    // Historial del juego al que se le avisan los cambios para poder deshacerlos (null si no hay)
+    private HistorialRueda historial;
+    // Huella de Zobrist de los asientos y los recursos (ver ClavesZobrist), al día en O(1) por cambio
+    private long huella;
+    
     /**
      * Constructor de la mesa redonda
      * numPastores número inicial de pastores
      * n número de posiciones a contar en cada eliminación
      */
     public Mesa(int numPastores, int n) {
-        this.pastores = new ArrayList<>(numPastores);
+        this(numPastores, n, TipoCorro.LISTA);
+    }
+    
+    /**
+     * Constructor de la mesa redonda eligiendo cómo se guarda el corro
+     * numPastores número inicial de pastores
+     * n número de posiciones a contar en cada eliminación
+     * tipoCorro LISTA para mesas pequeñas, INDEXADO para mesas de cientos de miles de asientos
+     */
+    public Mesa(int numPastores, int n, TipoCorro tipoCorro) {
+        this.tipoCorro = tipoCorro == null ? TipoCorro.LISTA : tipoCorro;
+        this.pastores = this.tipoCorro == TipoCorro.INDEXADO
+                ? new CorroIndexado(numPastores)
+                : new CorroLista(numPastores);
         this.posicionActual = 0;
         this.n = n;
+        this.porMasRico = new MonticuloIndexado(true, numPastores);
+        this.porMasPobre = new MonticuloIndexado(false, numPastores);
         
         // Crear los pastores automáticamente
-        String[] tratos = {"Mercader", "Artesano", "Labrador", "Escribano", "Barbero", 
-                          "Sastre", "Herrero", "Carpintero", "Panadero", "Tabernero"};
+        String[] tratos = RegistroTratos.TRATOS_MESA;
         
         for (int i = 0; i < numPastores; i++) {
             String nombre = "Pastor " + (i + 1);
@@ -43,9 +81,37 @@ public class Mesa {
      */
     public void sentarPastor(Pastor pastor) {
         if (pastor != null) {
-            pastores.add(pastor);
-            pastor.setEnMesa(true);
+            sentarPastor(pastor, siguienteOrden++);
+            if (historial != null) {
+                historial.anotarEntradaAMesa(pastor);
+            }
+        }
+    }
+    
+    /**
+     * Sienta un pastor al final con un orden de asiento dado (al restaurar un punto de control)
+     */
+    void sentarPastor(Pastor pastor, long orden) {
+        huella ^= clavesAlSentar(pastores.tamaño(), pastor);
+        pastores.agregar(pastor);
+        pastor.setEnMesa(true);
+        instantanea.insertado(pastores.tamaño() - 1, pastor);
+        recursos.sumar(pastor);
+        conteoTratos = RegistroTratos.sumarConteo(conteoTratos, pastor.getTratoOrdinal(), 1);
+        if (pastor.getTratoOrdinal() == RegistroTratos.SIN_TRATO) {
+            sinTrato++;
+        }
+        
+        // Solo cambian el vecino derecho del que era último y el del recién sentado
+        int tamaño = pastores.tamaño();
+        if (tamaño >= 2) {
+            revisarConflicto(tamaño - 2);
+            revisarConflicto(tamaño - 1);
         }
+        
+        porMasRico.insertar(pastor, orden);
+        porMasPobre.insertar(pastor, orden);
+        pastor.setObservador(observador);
     }
     
     /**
@@ -55,12 +121,37 @@ public class Mesa {
      * @return el pastor eliminado, o null si la posición es inválida
      */
     public Pastor sacarPastor(int posicion) {
-        if (posicion >= 0 && posicion < pastores.size()) {
-            Pastor eliminado = pastores.remove(posicion);
+        if (posicion >= 0 && posicion < pastores.tamaño()) {
+            huella ^= clavesAlSacar(posicion);
+            Pastor eliminado = pastores.quitar(posicion);
             eliminado.setEnMesa(false);
+            instantanea.quitado(posicion);
+            recursos.restar(eliminado);
+            conteoTratos = RegistroTratos.sumarConteo(conteoTratos, eliminado.getTratoOrdinal(), -1);
+            if (eliminado.getTratoOrdinal() == RegistroTratos.SIN_TRATO) {
+                sinTrato--;
+            }
+            
+            // Solo cambia el vecino derecho del que estaba a su izquierda
+            conflictos.remove(eliminado);
+            if (historial != null) {
+                historial.anotarSalidaDeMesa(posicion, eliminado, porMasRico.ordenDe(eliminado));
+            }
+            int tamaño = pastores.tamaño();
+            if (tamaño < 2) {
+                conflictos.clear();
+            } else {
+                revisarConflicto((posicion - 1 + tamaño) % tamaño);
+            }
+            
+            porMasRico.quitar(eliminado);
+            porMasPobre.quitar(eliminado);
+            if (eliminado.getObservador() == observador) {
+                eliminado.setObservador(null);
+            }
             
             // Ajustar posición actual si es necesario
-            if (posicionActual >= pastores.size() && !pastores.isEmpty()) {
+            if (posicionActual >= pastores.tamaño() && pastores.tamaño() > 0) {
                 posicionActual = 0;
             } else if (posicion < posicionActual) {
                 posicionActual--;
@@ -76,10 +167,10 @@ public class Mesa {
      * @return el pastor actual, o null si no hay pastores
      */
     public Pastor obtenerPastorActual() {
-        if (pastores.isEmpty() || posicionActual >= pastores.size()) {
+        if (pastores.tamaño() == 0 || posicionActual >= pastores.tamaño()) {
             return null;
         }
-        return pastores.get(posicionActual);
+        return pastores.obtener(posicionActual);
     }
     
     /**
@@ -91,57 +182,115 @@ public class Mesa {
      */
     public List<Pastor> mirarHacia(boolean derecha, int cantidad) {
         List<Pastor> vecinos = new ArrayList<>();
-        if (pastores.isEmpty() || cantidad <= 0) {
+        if (pastores.tamaño() == 0 || cantidad <= 0) {
             return vecinos;
         }
         
-        int tamaño = pastores.size();
-        int direccion = derecha ? 1 : -1;
-        
+        int tamaño = pastores.tamaño();
         for (int i = 1; i <= Math.min(cantidad, tamaño - 1); i++) {
-            int indice = (posicionActual + (i * direccion) + tamaño) % tamaño;
-            vecinos.add(pastores.get(indice));
+            vecinos.add(obtenerVecino(derecha, i));
         }
         
         return vecinos;
     }
     
     /**
-     * Encuentra al pastor más rico de la mesa
-     * "aquel pastor que más doblones guarda en sus arcas"
-     * @return el pastor más rico, o null si no hay pastores
+     * Obtiene el k-ésimo vecino del pastor actual sin armar la lista completa
+     * derecha true para contar hacia la derecha, false hacia la izquierda
+     * k distancia al pastor actual (1 = vecino inmediato)
+     * @return el vecino, o null si la mesa está vacía
      */
-    public Pastor encontrarMasRico() {
-        if (pastores.isEmpty()) {
+    public Pastor obtenerVecino(boolean derecha, int k) {
+        int tamaño = pastores.tamaño();
+        if (tamaño == 0) {
             return null;
         }
+        int desplazamiento = (int) (((long) k % tamaño) * (derecha ? 1 : -1));
+        int indice = ((posicionActual + desplazamiento) % tamaño + tamaño) % tamaño;
+        return pastores.obtener(indice);
+    }
+    
+    /**
+     * Busca entre los n vecinos más próximos al de menor grey, sin armar la lista de vecinos
+     * "señala al más escaso en feligreses"
+     * Da el mismo pastor que encontrarMenorGrey(mirarHacia(derecha, cantidad)): a igualdad
+     * de feligreses gana el más cercano. Con el corro INDEXADO cuesta O(log n).
+     * derecha true para mirar a la derecha, false para la izquierda
+     * cantidad número de vecinos a considerar
+     * @return el vecino con menos feligreses, o null si no hay vecinos
+     */
+    public Pastor buscarMenorGreyHacia(boolean derecha, int cantidad) {
+        int tamaño = pastores.tamaño();
+        if (tamaño < 2 || cantidad <= 0 || posicionActual >= tamaño) {
+            return null;
+        }
+        int cuantos = Math.min(cantidad, tamaño - 1);
+        int cercano;
+        int lejano = -1;
         
-        Pastor masRico = pastores.get(0);
-        for (Pastor pastor : pastores) {
-            if (pastor.getDoblones() > masRico.getDoblones()) {
-                masRico = pastor;
+        if (derecha) {
+            int fin = posicionActual + cuantos;
+            if (fin < tamaño) {
+                cercano = pastores.posicionMenorGrey(posicionActual + 1, fin, false);
+            } else {
+                // Da la vuelta: primero hasta el final de la mesa y luego desde la posición 0
+                cercano = pastores.posicionMenorGrey(posicionActual + 1, tamaño - 1, false);
+                lejano = pastores.posicionMenorGrey(0, fin - tamaño, false);
+            }
+        } else {
+            int inicio = posicionActual - cuantos;
+            if (inicio >= 0) {
+                cercano = pastores.posicionMenorGrey(inicio, posicionActual - 1, true);
+            } else {
+                cercano = pastores.posicionMenorGrey(0, posicionActual - 1, true);
+                lejano = pastores.posicionMenorGrey(tamaño + inicio, tamaño - 1, true);
             }
         }
-        return masRico;
+        
+        // A igualdad de feligreses se queda el tramo más cercano
+        if (cercano == -1) {
+            return pastores.obtener(lejano);
+        }
+        Pastor elegido = pastores.obtener(cercano);
+        if (lejano != -1) {
+            Pastor otro = pastores.obtener(lejano);
+            if (otro.tieneMenosFeligreses(elegido)) {
+                elegido = otro;
+            }
+        }
+        return elegido;
+    }
+    
+    /**
+     * Obtiene la posición de un pastor en la mesa
+     * pastor el pastor a buscar
+     * @return su posición, o -1 si no está sentado
+     */
+    public int posicionDe(Pastor pastor) {
+        if (pastor == null) {
+            return -1;
+        }
+        return pastores.posicionDe(pastor);
+    }
+    
+    /**
+     * Encuentra al pastor más rico de la mesa
+     * "aquel pastor que más doblones guarda en sus arcas"
+     * Se lee de la cima del montículo en O(1); a igualdad gana el primero de la lista
+     * @return el pastor más rico, o null si no hay pastores
+     */
+    public Pastor encontrarMasRico() {
+        return porMasRico.cima();
     }
     
     /**
      * Encuentra al pastor más pobre de la mesa
      * "si en alguna vuelta el que manda es el más pobre de la compañía"
+     * Se lee de la cima del montículo en O(1); a igualdad gana el primero de la lista
      * @return el pastor más pobre, o null si no hay pastores
      */
     public Pastor encontrarMasPobre() {
-        if (pastores.isEmpty()) {
-            return null;
-        }
-        
-        Pastor masPobre = pastores.get(0);
-        for (Pastor pastor : pastores) {
-            if (pastor.getDoblones() < masPobre.getDoblones()) {
-                masPobre = pastor;
-            }
-        }
-        return masPobre;
+        return porMasPobre.cima();
     }
     
     /**
@@ -167,109 +316,445 @@ public class Mesa {
     /**
      * Reorganiza el corro para cumplir con la cortesía de vecindad
      * "se verifique y, si menester fuere, se reorganice el corro"
+     * Si hay conflictos, rehace el corro entero en O(n log n): agrupa a los pastores por trato,
+     * reparte los grupos de mayor a menor en los asientos pares y luego en los impares, y gira
+     * el resultado para que el pastor con el turno conserve su posición.
+     * @return true si el corro queda sin vecinos del mismo trato; false si es imposible
+     *         (algún trato ocupa más de la mitad de los asientos) y el corro se deja como estaba
      */
-    public void reorganizarCorro() {
-        if (pastores.size() < 2) {
-            return;
+    public boolean reorganizarCorro() {
+        int tamaño = pastores.tamaño();
+        if (tamaño < 2 || verificarVecindad()) {
+            return true;
         }
         
-        boolean necesitaReorganizar = true;
-        int intentos = 0;
-        int maxIntentos = pastores.size() * 2; // evitar bucle infinito
+        // Con pocos conflictos basta con ir directo a ellos y repararlos en su sitio
+        if (conflictos.size() <= MAX_REPARACIONES_LOCALES && esReorganizable() && repararConflictos()) {
+            return true;
+        }
         
-        while (necesitaReorganizar && intentos < maxIntentos) {
-            necesitaReorganizar = false;
-            
-            for (int i = 0; i < pastores.size(); i++) {
-                int siguienteIndice = (i + 1) % pastores.size();
-                Pastor actual = pastores.get(i);
-                Pastor siguiente = pastores.get(siguienteIndice);
-                
-                // Verificar si hay conflicto (mismo trato a la derecha)
-                if (actual.esDelMismoTrato(siguiente)) {
-                    // Buscar una posición válida para el siguiente
-                    boolean intercambioRealizado = false;
-                    
-                    for (int j = 0; j < pastores.size(); j++) {
-                        if (j != i && j != siguienteIndice) {
-                            Pastor candidato = pastores.get(j);
-                            
-                            // Verificar si intercambiar resuelve el problema
-                            if (!actual.esDelMismoTrato(candidato) && 
-                                !puedeGenerarConflicto(siguienteIndice, j)) {
-                                
-                                // Realizar intercambio
-                                Collections.swap(pastores, siguienteIndice, j);
-                                intercambioRealizado = true;
-                                necesitaReorganizar = true;
-                                break;
-                            }
-                        }
-                    }
-                    
-                    if (intercambioRealizado) {
-                        break; // Reiniciar verificación
-                    }
+        // Ordenar los tratos de más a menos numeroso; a igualdad, el que aparece antes
+        int tratos = conteoTratos.length + 1; // el último cubre a los pastores sin trato
+        int[] conteo = new int[tratos];
+        int[] primeraAparicion = new int[tratos];
+        Arrays.fill(primeraAparicion, -1);
+        int indice = 0;
+        for (Pastor pastor : pastores) {
+            int t = grupoDe(pastor, tratos);
+            conteo[t]++;
+            if (primeraAparicion[t] == -1) {
+                primeraAparicion[t] = indice;
+            }
+            indice++;
+        }
+        List<Integer> presentes = new ArrayList<>();
+        for (int t = 0; t < tratos; t++) {
+            if (conteo[t] > 0) {
+                presentes.add(t);
+            }
+        }
+        presentes.sort((a, b) -> conteo[a] != conteo[b]
+                ? Integer.compare(conteo[b], conteo[a])
+                : Integer.compare(primeraAparicion[a], primeraAparicion[b]));
+        
+        if (conteo[presentes.get(0)] * 2 > tamaño) {
+            return false;
+        }
+        
+        // Cada trato recibe un tramo consecutivo de la secuencia de asientos 0, 2, 4, ..., 1, 3, 5, ...
+        // así dos del mismo trato nunca quedan juntos
+        int[] siguienteTurno = new int[tratos];
+        int acumulado = 0;
+        for (int t : presentes) {
+            siguienteTurno[t] = acumulado;
+            acumulado += conteo[t];
+        }
+        int pares = (tamaño + 1) / 2;
+        Pastor[] nuevo = new Pastor[tamaño];
+        for (Pastor pastor : pastores) {
+            int k = siguienteTurno[grupoDe(pastor, tratos)]++;
+            nuevo[k < pares ? 2 * k : 2 * (k - pares) + 1] = pastor;
+        }
+        
+        // Girar el corro para que el del turno siga en su sitio
+        Pastor actual = obtenerPastorActual();
+        int giro = 0;
+        if (actual != null) {
+            for (int i = 0; i < tamaño; i++) {
+                if (nuevo[i] == actual) {
+                    giro = posicionActual - i;
+                    break;
                 }
             }
-            intentos++;
+        }
+        List<Pastor> orden = new ArrayList<>(tamaño);
+        for (int i = 0; i < tamaño; i++) {
+            orden.add(nuevo[((i - giro) % tamaño + tamaño) % tamaño]);
         }
         
-        // Actualizar posición actual si es necesario
-        ajustarPosicionActual();
+        if (historial != null && historial.grabando()) {
+            historial.anotarReorden(pastores.comoLista(), ordenesDeAsiento(), siguienteOrden);
+        }
+        pastores.reordenar(orden);
+        instantanea.rehacer();
+        recontarConflictos();
+        huella = ClavesZobrist.deMesa(orden);
+        for (Pastor pastor : orden) {
+            long nuevoOrden = siguienteOrden++;
+            porMasRico.cambiarOrden(pastor, nuevoOrden);
+            porMasPobre.cambiarOrden(pastor, nuevoOrden);
+        }
+        return true;
+    }
+    
+    /** Órdenes de asiento de los sentados, en el orden del corro */
+    private long[] ordenesDeAsiento() {
+        long[] ordenes = new long[pastores.tamaño()];
+        int i = 0;
+        for (Pastor pastor : pastores) {
+            ordenes[i++] = porMasRico.ordenDe(pastor);
+        }
+        return ordenes;
     }
     
     /**
-     * Verifica si intercambiar dos pastores puede generar nuevos conflictos
+     * Deshace una reorganización en bloque: vuelve a sentar a todos como estaban,
+     * con sus órdenes de asiento de entonces
      */
-    private boolean puedeGenerarConflicto(int pos1, int pos2) {
-        Pastor pastor1 = pastores.get(pos1);
-        Pastor pastor2 = pastores.get(pos2);
-        
-        // Verificar vecinos de pos2 con pastor1
-        int anteriorPos2 = (pos2 - 1 + pastores.size()) % pastores.size();
-        int siguientePos2 = (pos2 + 1) % pastores.size();
-        
-        if (anteriorPos2 != pos1 && siguientePos2 != pos1) {
-            Pastor anteriorPos2Pastor = pastores.get(anteriorPos2);
-            
-            if (anteriorPos2Pastor.esDelMismoTrato(pastor1)) {
+    void reordenarComo(List<Pastor> orden, long[] ordenes, long siguienteOrden) {
+        pastores.reordenar(orden);
+        instantanea.rehacer();
+        recontarConflictos();
+        huella = ClavesZobrist.deMesa(orden);
+        for (int i = 0; i < ordenes.length; i++) {
+            porMasRico.cambiarOrden(orden.get(i), ordenes[i]);
+            porMasPobre.cambiarOrden(orden.get(i), ordenes[i]);
+        }
+        this.siguienteOrden = siguienteOrden;
+    }
+    
+    /**
+     * Deshace un sacarPastor: vuelve a sentar al pastor en la posición de la que salió,
+     * con su orden de asiento de entonces. El turno lo devuelve quien deshace.
+     */
+    void reponerPastor(int posicion, Pastor pastor, long orden) {
+        huella ^= clavesAlSentar(posicion, pastor);
+        pastores.insertar(posicion, pastor);
+        pastor.setEnMesa(true);
+        instantanea.insertado(posicion, pastor);
+        recursos.sumar(pastor);
+        conteoTratos = RegistroTratos.sumarConteo(conteoTratos, pastor.getTratoOrdinal(), 1);
+        if (pastor.getTratoOrdinal() == RegistroTratos.SIN_TRATO) {
+            sinTrato++;
+        }
+        int tamaño = pastores.tamaño();
+        revisarConflicto((posicion - 1 + tamaño) % tamaño);
+        revisarConflicto(posicion);
+        porMasRico.insertar(pastor, orden);
+        porMasPobre.insertar(pastor, orden);
+        pastor.setObservador(observador);
+    }
+    
+    /**
+     * Deshace un sentarPastor: levanta al último del corro y devuelve su orden de asiento
+     */
+    void levantarUltimo() {
+        sacarPastor(pastores.tamaño() - 1);
+        siguienteOrden--;
+    }
+    
+    long ordenDe(Pastor pastor) {
+        return porMasRico.ordenDe(pastor);
+    }
+    
+    long getSiguienteOrden() {
+        return siguienteOrden;
+    }
+    
+    void restaurarSiguienteOrden(long siguienteOrden) {
+        this.siguienteOrden = siguienteOrden;
+    }
+    
+    void setHistorial(HistorialRueda historial) {
+        this.historial = historial;
+    }
+    
+    private static int grupoDe(Pastor pastor, int tratos) {
+        int ordinal = pastor.getTratoOrdinal();
+        return ordinal >= 0 && ordinal < tratos - 1 ? ordinal : tratos - 1;
+    }
+    
+    /**
+     * Repara la vecindad solo alrededor de un asiento, p. ej. donde acaba de caer o sentarse
+     * alguien, suponiendo que el resto del corro ya estaba en regla.
+     * Para cada par en conflicto busca, alejándose de la costura, un asiento con el que
+     * intercambiar a uno de los dos sin crear conflictos nuevos; casi siempre aparece a pocos
+     * puestos, así que cuesta O(1) en la práctica. Si no lo encuentra rehace el corro completo.
+     * posicion asiento alrededor del cual reparar (se miran sus dos vecinos)
+     * @return true si la vecindad quedó en regla
+     */
+    public boolean repararAlrededorDe(int posicion) {
+        int tamaño = pastores.tamaño();
+        if (tamaño < 2) {
+            return true;
+        }
+        int p = ((posicion % tamaño) + tamaño) % tamaño;
+        if (repararPar((p - 1 + tamaño) % tamaño) && repararPar(p)) {
+            return true;
+        }
+        return reorganizarCorro();
+    }
+    
+    /**
+     * Resuelve, si lo hay, el conflicto entre el asiento i y el de su derecha
+     * moviendo a uno de los dos (nunca al que tiene el turno)
+     */
+    private boolean repararPar(int i) {
+        int tamaño = pastores.tamaño();
+        int j = (i + 1) % tamaño;
+        if (!pastores.obtener(i).esDelMismoTrato(pastores.obtener(j))) {
+            return true;
+        }
+        int mover = j != posicionActual ? j : i;
+        for (int d = 1; d < tamaño; d++) {
+            int candidato = (mover + d) % tamaño;
+            if (candidato != posicionActual && candidato != i && candidato != j
+                    && intercambioLimpio(mover, candidato)) {
+                intercambiarAsientos(mover, candidato);
                 return true;
             }
         }
-        
         return false;
     }
     
     /**
-     * Verifica si la vecindad actual cumple las reglas
-     * "Guárdese una severa cortesía de vecindad"
-     * @return true si no hay conflictos de vecindad
+     * Repara uno a uno los pares del conjunto de conflictos, por id de pastor: el orden del
+     * HashSet depende de su historia y rehacer un turno tiene que repararlo igual
+     * @return true si no quedó ninguno
      */
-    public boolean verificarVecindad() {
-        if (pastores.size() < 2) {
-            return true;
+    private boolean repararConflictos() {
+        List<Pastor> pendientes = new ArrayList<>(conflictos);
+        pendientes.sort(Comparator.comparingInt(Pastor::getId));
+        for (Pastor pastor : pendientes) {
+            if (conflictos.contains(pastor) && !repararPar(pastores.posicionDe(pastor))) {
+                return false;
+            }
         }
-        
-        for (int i = 0; i < pastores.size(); i++) {
-            int siguienteIndice = (i + 1) % pastores.size();
-            Pastor actual = pastores.get(i);
-            Pastor siguiente = pastores.get(siguienteIndice);
-            
-            if (actual.esDelMismoTrato(siguiente)) {
+        return conflictos.isEmpty();
+    }
+    
+    /**
+     * Actualiza si el pastor del asiento dado está en conflicto con su vecino derecho
+     */
+    private void revisarConflicto(int posicion) {
+        int tamaño = pastores.tamaño();
+        Pastor pastor = pastores.obtener(posicion);
+        if (tamaño >= 2 && pastor.esDelMismoTrato(pastores.obtener((posicion + 1) % tamaño))) {
+            conflictos.add(pastor);
+        } else {
+            conflictos.remove(pastor);
+        }
+    }
+    
+    private void recontarConflictos() {
+        conflictos.clear();
+        for (int i = 0; i < pastores.tamaño(); i++) {
+            revisarConflicto(i);
+        }
+    }
+    
+    /**
+     * Comprueba, sin tocar el corro, que tras intercambiar los asientos x e y
+     * ninguno de los pares que cambian queda con el mismo trato
+     */
+    private boolean intercambioLimpio(int x, int y) {
+        int tamaño = pastores.tamaño();
+        int[] izquierdos = {x - 1, x, y - 1, y};
+        for (int izquierdo : izquierdos) {
+            int a = (izquierdo + tamaño) % tamaño;
+            int b = (a + 1) % tamaño;
+            if (pastorTrasIntercambio(a, x, y).esDelMismoTrato(pastorTrasIntercambio(b, x, y))) {
                 return false;
             }
         }
         return true;
     }
     
+    private Pastor pastorTrasIntercambio(int asiento, int x, int y) {
+        if (asiento == x) {
+            return pastores.obtener(y);
+        }
+        if (asiento == y) {
+            return pastores.obtener(x);
+        }
+        return pastores.obtener(asiento);
+    }
+    
+    /**
+     * Indica si existe algún orden del corro sin vecinos del mismo trato:
+     * ningún trato puede ocupar más de la mitad de los asientos
+     */
+    public boolean esReorganizable() {
+        int tamaño = pastores.tamaño();
+        if (tamaño < 2) {
+            return true;
+        }
+        int maximo = sinTrato;
+        for (int cantidad : conteoTratos) {
+            maximo = Math.max(maximo, cantidad);
+        }
+        return maximo * 2 <= tamaño;
+    }
+    
+    /**
+     * Intercambia a dos pastores de asiento; también intercambian su orden de asiento
+     * para que los desempates del más rico y el más pobre sigan el orden de la lista.
+     * Es su propia inversa: el historial lo deshace repitiéndolo.
+     */
+    void intercambiarAsientos(int i, int j) {
+        if (historial != null) {
+            historial.anotarIntercambio(i, j);
+        }
+        Pastor a = pastores.obtener(i);
+        Pastor b = pastores.obtener(j);
+        long clavesAntes = clavesDeParesEn(i, j);
+        pastores.intercambiar(i, j);
+        instantanea.intercambiados(i, j);
+        huella ^= clavesAntes ^ clavesDeParesEn(i, j);
+        
+        int tamaño = pastores.tamaño();
+        revisarConflicto((i - 1 + tamaño) % tamaño);
+        revisarConflicto(i);
+        revisarConflicto((j - 1 + tamaño) % tamaño);
+        revisarConflicto(j);
+        
+        long ordenA = porMasRico.ordenDe(a);
+        long ordenB = porMasRico.ordenDe(b);
+        porMasRico.cambiarOrden(a, ordenB);
+        porMasRico.cambiarOrden(b, ordenA);
+        porMasPobre.cambiarOrden(a, ordenB);
+        porMasPobre.cambiarOrden(b, ordenA);
+    }
+    
+    /**
+     * Claves que cambian al sentar a un pastor en la posición dada (0..tamaño): el par que la
+     * cruzaba se parte en dos, y si entra en la 0 cambia la cabeza; más sus recursos
+     */
+    private long clavesAlSentar(int posicion, Pastor pastor) {
+        int tamaño = pastores.tamaño();
+        int id = pastor.getId();
+        long claves = ClavesZobrist.recursos(id, pastor.getDoblones(), pastor.getFeligreses());
+        if (tamaño == 0) {
+            return claves ^ ClavesZobrist.par(id, id) ^ ClavesZobrist.cabeza(id);
+        }
+        int izquierdo = pastores.obtener((posicion - 1 + tamaño) % tamaño).getId();
+        int derecho = pastores.obtener(posicion % tamaño).getId();
+        claves ^= ClavesZobrist.par(izquierdo, derecho) ^ ClavesZobrist.par(izquierdo, id)
+                ^ ClavesZobrist.par(id, derecho);
+        if (posicion == 0) {
+            claves ^= ClavesZobrist.cabeza(derecho) ^ ClavesZobrist.cabeza(id);
+        }
+        return claves;
+    }
+    
+    /**
+     * Claves que cambian al sacar al pastor de la posición dada: lo inverso de clavesAlSentar
+     */
+    private long clavesAlSacar(int posicion) {
+        int tamaño = pastores.tamaño();
+        Pastor pastor = pastores.obtener(posicion);
+        int id = pastor.getId();
+        long claves = ClavesZobrist.recursos(id, pastor.getDoblones(), pastor.getFeligreses());
+        if (tamaño == 1) {
+            return claves ^ ClavesZobrist.par(id, id) ^ ClavesZobrist.cabeza(id);
+        }
+        int izquierdo = pastores.obtener((posicion - 1 + tamaño) % tamaño).getId();
+        int derecho = pastores.obtener((posicion + 1) % tamaño).getId();
+        claves ^= ClavesZobrist.par(izquierdo, id) ^ ClavesZobrist.par(id, derecho)
+                ^ ClavesZobrist.par(izquierdo, derecho);
+        if (posicion == 0) {
+            claves ^= ClavesZobrist.cabeza(id) ^ ClavesZobrist.cabeza(derecho);
+        }
+        return claves;
+    }
+    
+    /**
+     * XOR de las claves de los pares que empiezan en i-1, i, j-1 y j (sin repetir) y de la
+     * cabeza: lo único que cambia al intercambiar los asientos i y j
+     */
+    private long clavesDeParesEn(int i, int j) {
+        int tamaño = pastores.tamaño();
+        int[] izquierdos = {(i - 1 + tamaño) % tamaño, i, (j - 1 + tamaño) % tamaño, j};
+        long claves = ClavesZobrist.cabeza(pastores.obtener(0).getId());
+        for (int k = 0; k < izquierdos.length; k++) {
+            boolean repetido = false;
+            for (int m = 0; m < k; m++) {
+                repetido |= izquierdos[m] == izquierdos[k];
+            }
+            if (!repetido) {
+                claves ^= ClavesZobrist.par(pastores.obtener(izquierdos[k]).getId(),
+                                            pastores.obtener((izquierdos[k] + 1) % tamaño).getId());
+            }
+        }
+        return claves;
+    }
+    
+    /**
+     * Huella de Zobrist de los asientos y recursos de la mesa (sin el turno), en O(1).
+     * Con -Drueda.verificarTotales=true se contrasta con la calculada desde cero.
+     */
+    long getHuellaZobrist() {
+        if (AcumuladoRecursos.VERIFICAR && huella != ClavesZobrist.deMesa(pastores.comoLista())) {
+            throw new IllegalStateException("Huella de Zobrist de la mesa desviada");
+        }
+        return huella;
+    }
+    
+    /**
+     * Reacomoda los índices cuando cambian los recursos de un pastor sentado
+     */
+    private void recursosCambiaron(Pastor pastor, int doblonesAntes, int feligresesAntes) {
+        recursos.cambiar(doblonesAntes, feligresesAntes, pastor.getDoblones(), pastor.getFeligreses());
+        huella ^= ClavesZobrist.recursos(pastor.getId(), doblonesAntes, feligresesAntes)
+                ^ ClavesZobrist.recursos(pastor.getId(), pastor.getDoblones(), pastor.getFeligreses());
+        instantanea.recursosCambiaron(pastor);
+        if (historial != null) {
+            historial.anotarRecursos(pastor, doblonesAntes, feligresesAntes);
+        }
+        if (pastor.getDoblones() != doblonesAntes) {
+            porMasRico.actualizar(pastor);
+            porMasPobre.actualizar(pastor);
+        }
+        if (pastor.getFeligreses() != feligresesAntes) {
+            pastores.actualizar(pastor);
+        }
+    }
+    
+    /**
+     * Verifica si la vecindad actual cumple las reglas
+     * "Guárdese una severa cortesía de vecindad"
+     * Consulta el conjunto de conflictos que la mesa mantiene al día, en O(1)
+     * @return true si no hay conflictos de vecindad
+     */
+    public boolean verificarVecindad() {
+        return pastores.tamaño() < 2 || conflictos.isEmpty();
+    }
+    
+    /**
+     * Cuenta los pares de vecinos del mismo trato que hay ahora en el corro, en O(1)
+     * @return número de pastores con uno de su mismo trato a la derecha
+     */
+    public int contarConflictosVecindad() {
+        return pastores.tamaño() < 2 ? 0 : conflictos.size();
+    }
+    
     /**
      * Verifica si queda un solo pastor en la mesa
      * "quede en la redonda pista un solo pastor"
      * @return true si solo queda un pastor
      */
     public boolean quedaUnSolo() {
-        return pastores.size() == 1;
+        return pastores.tamaño() == 1;
     }
     
     /**
@@ -277,8 +762,8 @@ public class Mesa {
      * "designa al siguiente en tomar la palabra y moverse"
      */
     public void darVuelta() {
-        if (!pastores.isEmpty()) {
-            posicionActual = (posicionActual + 1) % pastores.size();
+        if (pastores.tamaño() > 0) {
+            posicionActual = (posicionActual + 1) % pastores.tamaño();
         }
     }
     
@@ -289,26 +774,43 @@ public class Mesa {
     public void empezarConMasRico() {
         Pastor masRico = encontrarMasRico();
         if (masRico != null) {
-            posicionActual = pastores.indexOf(masRico);
+            posicionActual = pastores.posicionDe(masRico);
         }
     }
     
     /**
-     * Ajusta la posición actual después de reorganizaciones
+     * Pasa el turno directamente al pastor de la posición indicada
+     * (para avances en bloque que no pasan por darVuelta)
      */
-    private void ajustarPosicionActual() {
-        if (posicionActual >= pastores.size() && !pastores.isEmpty()) {
-            posicionActual = 0;
+    void establecerPosicionActual(int posicion) {
+        if (posicion >= 0 && posicion < pastores.tamaño()) {
+            posicionActual = posicion;
         }
     }
     
     // Getters
+    /**
+     * @return copia de los pastores vivos en su orden (cambiarlos cambia a los de la mesa)
+     */
     public List<Pastor> obtenerPastoresEnMesa() {
-        return new ArrayList<>(pastores);
+        return pastores.comoLista();
+    }
+    
+    /**
+     * Instantánea inmutable del corro: pastores congelados en su orden, desde la posición 0.
+     * No se copia entera en cada llamada: se lleva al día con lo que cambió desde la anterior
+     * y comparte con ella lo demás, así que las instantáneas viejas siguen valiendo.
+     */
+    public List<Pastor> obtenerInstantanea() {
+        return tomarInstantanea();
+    }
+    
+    SecuenciaPersistente<Pastor> tomarInstantanea() {
+        return instantanea.tomar(pastores::comoLista, pastores::posicionDe);
     }
     
     public int contarPastores() {
-        return pastores.size();
+        return pastores.tamaño();
     }
     
     public int getPosicionActual() {
@@ -319,13 +821,61 @@ public class Mesa {
         return n;
     }
     
+    public TipoCorro getTipoCorro() {
+        return tipoCorro;
+    }
+    
+    /**
+     * Cuenta cuántos pastores de un trato hay sentados, sin recorrer la mesa
+     * ordinal ordinal del trato en RegistroTratos
+     */
+    public int contarTrato(int ordinal) {
+        return ordinal >= 0 && ordinal < conteoTratos.length ? conteoTratos[ordinal] : 0;
+    }
+    
+    /**
+     * Cuenta cuántos pastores de un trato hay sentados, sin recorrer la mesa
+     */
+    public int contarTrato(String trato) {
+        return contarTrato(RegistroTratos.ordinal(trato));
+    }
+    
+    /** Copia de los conteos por trato, para las instantáneas del estado */
+    int[] copiarConteoTratos() {
+        return conteoTratos.clone();
+    }
+    
+    /**
+     * Total de doblones en la mesa, llevado al día en cada cambio (O(1))
+     */
+    public long getTotalDoblones() {
+        recursos.verificar(pastores, "la mesa");
+        return recursos.getDoblones();
+    }
+    
+    /**
+     * Total de feligreses en la mesa, llevado al día en cada cambio (O(1))
+     */
+    public long getTotalFeligreses() {
+        recursos.verificar(pastores, "la mesa");
+        return recursos.getFeligreses();
+    }
+    
+    /**
+     * Totales, promedios y varianzas de los recursos de la mesa sin recorrerla
+     */
+    public EstadisticasRecursos obtenerEstadisticasRecursos() {
+        recursos.verificar(pastores, "la mesa");
+        return recursos.comoEstadisticas();
+    }
+    
     public boolean estaVacia() {
-        return pastores.isEmpty();
+        return pastores.tamaño() == 0;
     }
     
     @Override
     public String toString() {
         return String.format("Mesa[pastores=%d, posicion=%d, n=%d]", 
-                           pastores.size(), posicionActual, n);
+                           pastores.tamaño(), posicionActual, n);
     }
 }
\ No newline at end of file
@@ -0,0 +1,631 @@
+package model;
+
+import java.util.*;
+
+import static model.AlmacenPastores.NINGUNO;
+
+/**
+ * Mesa, pila de desposeídos y turnos de una rueda jugada enteramente sobre arreglos primitivos.
+ * Los pastores viven en un AlmacenPastores y se manejan por su asa (un int): el corro es una
+ * lista doblemente enlazada dentro del almacén y la pila un int[]. Así se juega una rueda de
+ * millones de pastores sin un objeto por pastor; solo se fabrican Pastor si la vista los pide.
+ * Juega como JuegoRueda sobre Mesa, asiento por asiento: los mismos desempates, el mismo paso
+ * de turno (también cuando cae alguien con el turno en el último asiento), la misma reparación
+ * alrededor de la costura y la misma reorganización del corro. Dada la misma fuente de azar y
+ * las mismas acciones, la partida es idéntica; diferenciaCon() lo comprueba turno a turno.
+ */
+public class MesaPrimitiva {
+    private final AlmacenPastores almacen;
+    private final int n;
+    private int cabeza = NINGUNO;   // quien ocupa el asiento 0
+    private int actual = NINGUNO;   // quien tiene el turno
+    private int tamaño;
+    private int conflictos;         // parejas de vecinos del mismo trato
+    private int[] conteoTratos = new int[RegistroTratos.cantidad()];
+    private int sinTrato;
+    private int[] pila = new int[16];
+    private int tamañoPila;
+    private boolean terminada;
+    private int turno;
+
+    /**
+     * Constructor de la mesa primitiva vacía
+     * n número de vecinos entre los que se busca al de menor grey
+     * capacidad cuántos pastores se espera alojar (crece si hace falta)
+     */
+    public MesaPrimitiva(int n, int capacidad) {
+        this.n = n;
+        this.almacen = new AlmacenPastores(capacidad);
+    }
+
+    /**
+     * Da de alta a un pastor y lo sienta al final del corro
+     * @return el asa del pastor
+     */
+    public int sentarPastor(int id, String nombre, long doblones, long feligreses, String trato) {
+        int asa = almacen.agregar(id, nombre, doblones, feligreses, RegistroTratos.ordinal(trato));
+        sentar(asa);
+        return asa;
+    }
+
+    private void sentar(int asa) {
+        if (cabeza == NINGUNO) {
+            almacen.enlazar(asa, asa);
+            cabeza = asa;
+        } else {
+            enlazarTras(almacen.anterior(cabeza), asa);
+        }
+        tamaño++;
+        contarTrato(asa, 1);
+    }
+
+    private void sacar(int asa) {
+        if (cabeza == asa) {
+            cabeza = tamaño > 1 ? almacen.siguiente(asa) : NINGUNO;
+        }
+        desenlazar(asa);
+        tamaño--;
+        contarTrato(asa, -1);
+    }
+
+    private void contarTrato(int asa, int delta) {
+        int trato = almacen.getTrato(asa);
+        if (trato == RegistroTratos.SIN_TRATO) {
+            sinTrato += delta;
+        } else {
+            conteoTratos = RegistroTratos.sumarConteo(conteoTratos, trato, delta);
+        }
+    }
+
+    private int arista(int a, int b) {
+        return a != b && almacen.esDelMismoTrato(a, b) ? 1 : 0;
+    }
+
+    /** Sienta a asa a la derecha de p, llevando la cuenta de conflictos */
+    private void enlazarTras(int p, int asa) {
+        int s = almacen.siguiente(p);
+        conflictos -= arista(p, s);
+        almacen.enlazar(p, asa);
+        almacen.enlazar(asa, s);
+        conflictos += arista(p, asa) + arista(asa, s);
+    }
+
+    /** Levanta a asa de su asiento y junta a sus vecinos, llevando la cuenta de conflictos */
+    private void desenlazar(int asa) {
+        int a = almacen.anterior(asa);
+        int s = almacen.siguiente(asa);
+        conflictos -= arista(a, asa) + arista(asa, s);
+        if (a != asa) {
+            almacen.enlazar(a, s);
+            conflictos += arista(a, s);
+        }
+        almacen.soltar(asa);
+    }
+
+    /** Intercambia los asientos de dos pastores sentados */
+    private void intercambiar(int x, int y) {
+        if (x == y) {
+            return;
+        }
+        if (almacen.siguiente(x) == y) {
+            desenlazar(x);
+            enlazarTras(y, x);
+        } else if (almacen.siguiente(y) == x) {
+            desenlazar(y);
+            enlazarTras(x, y);
+        } else {
+            int antesDeX = almacen.anterior(x);
+            int antesDeY = almacen.anterior(y);
+            desenlazar(x);
+            desenlazar(y);
+            enlazarTras(antesDeY, x);
+            enlazarTras(antesDeX, y);
+        }
+        if (cabeza == x) {
+            cabeza = y;
+        } else if (cabeza == y) {
+            cabeza = x;
+        }
+    }
+
+    // ---- Turnos ----
+
+    /**
+     * "empiece la danza aquel pastor que más doblones guarda en sus arcas"
+     */
+    public void empezarDanza() {
+        if (tamaño <= 1) {
+            terminada = true;
+            return;
+        }
+        actual = encontrarMasRico();
+        terminada = false;
+        turno = 1;
+    }
+
+    /**
+     * Juega un turno del pastor actual, como JuegoRueda.tomarTurno()
+     * @return true si la acción se pudo realizar
+     */
+    public boolean tomarTurno(AccionPastor accion) {
+        if (terminada || actual == NINGUNO) {
+            return false;
+        }
+        int costura = NINGUNO; // quien ocupa el asiento tocado, si alguien cayó o se sentó
+        boolean hecho;
+        switch (accion) {
+            case ARRIMAR_GUADAÑA_DERECHA:
+                costura = arrimarGuadaña(true);
+                hecho = costura != NINGUNO;
+                break;
+            case ARRIMAR_GUADAÑA_IZQUIERDA:
+                costura = arrimarGuadaña(false);
+                hecho = costura != NINGUNO;
+                break;
+            case SACAR_DEL_OLVIDO:
+                costura = sacarDelOlvido();
+                hecho = costura != NINGUNO;
+                break;
+            case METER_MANO_FALTRIQUERA:
+                hecho = meterManoEnFaltriquera();
+                break;
+            default:
+                hecho = false;
+        }
+        if (!hecho) {
+            return false;
+        }
+
+        if (tamaño == 1) {
+            terminada = true;
+        } else {
+            actual = almacen.siguiente(actual);
+            turno++;
+            if (costura != NINGUNO) {
+                repararAlrededorDe(costura);
+            }
+            if (conflictos > 0) {
+                reorganizarCorro();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Juega la rueda hasta el final arrimando siempre la guadaña a la derecha
+     * @return número de turnos jugados
+     */
+    public int avanzarHastaFin() {
+        int turnosJugados = 0;
+        while (!terminada && tomarTurno(AccionPastor.ARRIMAR_GUADAÑA_DERECHA)) {
+            turnosJugados++;
+        }
+        return turnosJugados;
+    }
+
+    /**
+     * "arrimar la guadaña y segar otra cabeza de vecino"
+     * Si el del turno ocupa el último asiento, al caer otro la Mesa le pasa la posición 0 y
+     * darVuelta deja el turno en la 1: aquí se hace lo mismo para que el turno caiga igual.
+     * @return quien ocupa ahora el asiento de la víctima, o NINGUNO si no hubo degüello
+     */
+    private int arrimarGuadaña(boolean derecha) {
+        int victima = buscarMenorGreyHacia(derecha, n);
+        if (victima == NINGUNO) {
+            return NINGUNO;
+        }
+        almacen.traspasarRecursos(victima, actual);
+        boolean ultimoAsiento = almacen.siguiente(actual) == cabeza;
+        int costura = almacen.siguiente(victima);
+        sacar(victima);
+        echarAPila(victima);
+        if (ultimoAsiento) {
+            actual = cabeza;
+        }
+        return costura;
+    }
+
+    /**
+     * "sacar del olvido al que encima de todos yace en la pila"
+     * @return el rescatado, sentado en el último asiento, o NINGUNO si la pila estaba vacía
+     */
+    private int sacarDelOlvido() {
+        if (tamañoPila == 0) {
+            return NINGUNO;
+        }
+        int rescatado = pila[--tamañoPila];
+        sentar(rescatado);
+        almacen.darMitad(actual, rescatado);
+        return rescatado;
+    }
+
+    /**
+     * "meter mano en la faltriquera del más rico, y llevarse de ella la tercia parte"
+     */
+    private boolean meterManoEnFaltriquera() {
+        int masRico = encontrarMasRico();
+        if (actual != encontrarMasPobre() || actual == masRico) {
+            return false;
+        }
+        return almacen.aplicarHurtoPiadoso(actual, masRico);
+    }
+
+    private void echarAPila(int asa) {
+        if (tamañoPila == pila.length) {
+            pila = Arrays.copyOf(pila, tamañoPila * 2);
+        }
+        pila[tamañoPila++] = asa;
+    }
+
+    // ---- Búsquedas ----
+
+    /**
+     * "eligiendo al de menor grey" entre los cantidad vecinos en la dirección dada;
+     * a igualdad gana el más cercano
+     * @return el asa elegida, o NINGUNO si no hay vecinos
+     */
+    public int buscarMenorGreyHacia(boolean derecha, int cantidad) {
+        int alcance = Math.min(cantidad, tamaño - 1);
+        int menor = NINGUNO;
+        int asa = actual;
+        for (int k = 0; k < alcance; k++) {
+            asa = derecha ? almacen.siguiente(asa) : almacen.anterior(asa);
+            if (menor == NINGUNO || almacen.getFeligreses(asa) < almacen.getFeligreses(menor)) {
+                menor = asa;
+            }
+        }
+        return menor;
+    }
+
+    /**
+     * El de más doblones; a igualdad, el primero desde el asiento 0
+     */
+    public int encontrarMasRico() {
+        int masRico = cabeza;
+        int asa = cabeza;
+        for (int i = 1; i < tamaño; i++) {
+            asa = almacen.siguiente(asa);
+            if (almacen.getDoblones(asa) > almacen.getDoblones(masRico)) {
+                masRico = asa;
+            }
+        }
+        return masRico;
+    }
+
+    /**
+     * El de menos doblones; a igualdad, el primero desde el asiento 0
+     */
+    public int encontrarMasPobre() {
+        int masPobre = cabeza;
+        int asa = cabeza;
+        for (int i = 1; i < tamaño; i++) {
+            asa = almacen.siguiente(asa);
+            if (almacen.getDoblones(asa) < almacen.getDoblones(masPobre)) {
+                masPobre = asa;
+            }
+        }
+        return masPobre;
+    }
+
+    // ---- Vecindad ----
+
+    /**
+     * Repara la vecindad a ambos lados del asiento de asa, como Mesa.repararAlrededorDe():
+     * primero el par que acaba a su izquierda y luego el que empieza en él; si alguno no tiene
+     * arreglo, rehace el corro
+     * @return true si la vecindad quedó en regla
+     */
+    private boolean repararAlrededorDe(int asa) {
+        if (tamaño < 2) {
+            return true;
+        }
+        int enElAsiento = repararPar(almacen.anterior(asa));
+        if (enElAsiento != NINGUNO && repararPar(enElAsiento) != NINGUNO) {
+            return true;
+        }
+        return reorganizarCorro();
+    }
+
+    /**
+     * Resuelve, si lo hay, el conflicto entre izquierdo y su vecino de la derecha como
+     * Mesa.repararPar(): mueve a uno de los dos (nunca al del turno) al primer asiento,
+     * contando hacia la derecha, con el que el intercambio no junta a dos del mismo trato
+     * @return quien ocupa ahora el asiento de la derecha del par, o NINGUNO si no hubo arreglo
+     */
+    private int repararPar(int izquierdo) {
+        int derecho = almacen.siguiente(izquierdo);
+        if (!almacen.esDelMismoTrato(izquierdo, derecho)) {
+            return derecho;
+        }
+        int mover = derecho != actual ? derecho : izquierdo;
+        int candidato = mover;
+        for (int d = 1; d < tamaño; d++) {
+            candidato = almacen.siguiente(candidato);
+            if (candidato != actual && candidato != izquierdo && candidato != derecho
+                    && intercambioLimpio(mover, candidato)) {
+                intercambiar(mover, candidato);
+                return mover == derecho ? candidato : derecho;
+            }
+        }
+        return NINGUNO;
+    }
+
+    /**
+     * Comprueba, sin tocar el corro, que tras intercambiar a x e y ninguno de los cuatro
+     * pares que cambian queda con el mismo trato
+     */
+    private boolean intercambioLimpio(int x, int y) {
+        return parLimpio(almacen.anterior(x), x, y) && parLimpio(x, x, y)
+                && parLimpio(almacen.anterior(y), x, y) && parLimpio(y, x, y);
+    }
+
+    /** El par que empieza en el asiento de izquierdo, tal como quedaría tras intercambiar a x e y */
+    private boolean parLimpio(int izquierdo, int x, int y) {
+        int derecho = almacen.siguiente(izquierdo);
+        return !almacen.esDelMismoTrato(trasIntercambio(izquierdo, x, y), trasIntercambio(derecho, x, y));
+    }
+
+    private static int trasIntercambio(int asa, int x, int y) {
+        return asa == x ? y : asa == y ? x : asa;
+    }
+
+    /**
+     * Repara uno a uno los pares en conflicto, por id del de la izquierda, como
+     * Mesa.repararConflictos(). Hay que recorrer el corro para encontrarlos, pero solo se
+     * llega aquí cuando la reparación alrededor de la costura no bastó.
+     * @return true si no quedó ninguno
+     */
+    private boolean repararConflictos() {
+        long[] pendientes = new long[conflictos];
+        int cuantos = 0;
+        int asa = cabeza;
+        for (int i = 0; i < tamaño && cuantos < pendientes.length; i++) {
+            if (arista(asa, almacen.siguiente(asa)) == 1) {
+                pendientes[cuantos++] = (long) almacen.getId(asa) << 32 | asa;
+            }
+            asa = almacen.siguiente(asa);
+        }
+        Arrays.sort(pendientes, 0, cuantos);
+        for (int i = 0; i < cuantos; i++) {
+            int pastor = (int) pendientes[i];
+            if (arista(pastor, almacen.siguiente(pastor)) == 1 && repararPar(pastor) == NINGUNO) {
+                return false;
+            }
+        }
+        return conflictos == 0;
+    }
+
+    /**
+     * Indica si existe algún orden del corro sin vecinos del mismo trato:
+     * ningún trato puede ocupar más de la mitad de los asientos
+     */
+    private boolean esReorganizable() {
+        int maximo = sinTrato;
+        for (int cantidad : conteoTratos) {
+            maximo = Math.max(maximo, cantidad);
+        }
+        return maximo * 2 <= tamaño;
+    }
+
+    /**
+     * Si quedan vecinos del mismo trato, rehace el corro como Mesa.reorganizarCorro(): con pocos
+     * conflictos los repara en su sitio y, si no, reparte los tratos de mayor a menor en los
+     * asientos pares y luego en los impares, y gira el resultado para que el del turno conserve
+     * su asiento.
+     * @return true si el corro queda sin conflictos; false si es imposible y se deja como estaba
+     */
+    public boolean reorganizarCorro() {
+        if (tamaño < 2 || conflictos == 0) {
+            return true;
+        }
+        if (conflictos <= Mesa.MAX_REPARACIONES_LOCALES && esReorganizable() && repararConflictos()) {
+            return true;
+        }
+        int tratos = conteoTratos.length + 1; // el último cubre a los pastores sin trato
+        int[] conteo = Arrays.copyOf(conteoTratos, tratos);
+        conteo[tratos - 1] = sinTrato;
+        int[] primeraAparicion = new int[tratos];
+        Arrays.fill(primeraAparicion, -1);
+        int[] corro = new int[tamaño];
+        int posicionActual = 0;
+        int asa = cabeza;
+        for (int i = 0; i < tamaño; i++) {
+            corro[i] = asa;
+            int t = grupoDe(asa, tratos);
+            if (primeraAparicion[t] == -1) {
+                primeraAparicion[t] = i;
+            }
+            if (asa == actual) {
+                posicionActual = i;
+            }
+            asa = almacen.siguiente(asa);
+        }
+
+        List<Integer> presentes = new ArrayList<>();
+        for (int t = 0; t < tratos; t++) {
+            if (conteo[t] > 0) {
+                presentes.add(t);
+            }
+        }
+        presentes.sort((a, b) -> conteo[a] != conteo[b]
+                ? Integer.compare(conteo[b], conteo[a])
+                : Integer.compare(primeraAparicion[a], primeraAparicion[b]));
+        if (conteo[presentes.get(0)] * 2 > tamaño) {
+            return false;
+        }
+
+        int[] siguienteTurno = new int[tratos];
+        int acumulado = 0;
+        for (int t : presentes) {
+            siguienteTurno[t] = acumulado;
+            acumulado += conteo[t];
+        }
+        int pares = (tamaño + 1) / 2;
+        int[] nuevo = new int[tamaño];
+        int asientoActual = 0;
+        for (int pastor : corro) {
+            int k = siguienteTurno[grupoDe(pastor, tratos)]++;
+            int asiento = k < pares ? 2 * k : 2 * (k - pares) + 1;
+            nuevo[asiento] = pastor;
+            if (pastor == actual) {
+                asientoActual = asiento;
+            }
+        }
+
+        // Girar para que el del turno siga en su sitio y volver a enlazar el corro
+        int giro = actual != NINGUNO ? posicionActual - asientoActual : 0;
+        for (int i = 0; i < tamaño; i++) {
+            corro[((i + giro) % tamaño + tamaño) % tamaño] = nuevo[i];
+        }
+        for (int i = 0; i < tamaño; i++) {
+            almacen.enlazar(corro[i], corro[(i + 1) % tamaño]);
+        }
+        cabeza = corro[0];
+        conflictos = 0;
+        return true;
+    }
+
+    private int grupoDe(int asa, int tratos) {
+        int ordinal = almacen.getTrato(asa);
+        return ordinal >= 0 && ordinal < tratos - 1 ? ordinal : tratos - 1;
+    }
+
+    // ---- Consultas y puente con la vista ----
+
+    public int contarPastores() {
+        return tamaño;
+    }
+
+    public int contarDesposeidos() {
+        return tamañoPila;
+    }
+
+    public boolean quedaUnSolo() {
+        return tamaño == 1;
+    }
+
+    public boolean isTerminada() {
+        return terminada;
+    }
+
+    public int getTurno() {
+        return turno;
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    public boolean verificarVecindad() {
+        return tamaño < 2 || conflictos == 0;
+    }
+
+    public int contarConflictosVecindad() {
+        return tamaño < 2 ? 0 : conflictos;
+    }
+
+    /** @return el asa del pastor con el turno, o NINGUNO */
+    public int getActual() {
+        return actual;
+    }
+
+    /** @return el asa del ganador, o NINGUNO si la rueda no ha terminado */
+    public int obtenerReyDeBurlasYVeras() {
+        return terminada && tamaño == 1 ? cabeza : NINGUNO;
+    }
+
+    public int getId(int asa) {
+        return almacen.getId(asa);
+    }
+
+    public long getDoblones(int asa) {
+        return almacen.getDoblones(asa);
+    }
+
+    public long getFeligreses(int asa) {
+        return almacen.getFeligreses(asa);
+    }
+
+    public int getTratoOrdinal(int asa) {
+        return almacen.getTrato(asa);
+    }
+
+    /** Cuántos pastores de un trato hay sentados, sin recorrer la mesa */
+    public int contarTrato(int ordinal) {
+        return ordinal >= 0 && ordinal < conteoTratos.length ? conteoTratos[ordinal] : 0;
+    }
+
+    /** Fabrica el Pastor de un asa (una copia de sus datos actuales) */
+    public Pastor materializar(int asa) {
+        return asa == NINGUNO ? null : almacen.materializar(asa);
+    }
+
+    /** Fabrica los Pastor de la mesa, desde el asiento 0, para la vista */
+    public List<Pastor> obtenerPastoresEnMesa() {
+        List<Pastor> lista = new ArrayList<>(tamaño);
+        int asa = cabeza;
+        for (int i = 0; i < tamaño; i++) {
+            lista.add(almacen.materializar(asa));
+            asa = almacen.siguiente(asa);
+        }
+        return lista;
+    }
+
+    /** Fabrica los Pastor de la pila, desde el fondo hasta la cima, para la vista */
+    public List<Pastor> obtenerDesposeidos() {
+        List<Pastor> lista = new ArrayList<>(tamañoPila);
+        for (int i = 0; i < tamañoPila; i++) {
+            lista.add(almacen.materializar(pila[i]));
+        }
+        return lista;
+    }
+
+    /**
+     * Compara esta mesa con la de un JuegoRueda jugado con el mismo azar y las mismas acciones:
+     * turno, pastores sentados en su orden con sus recursos, quién tiene el turno y la pila.
+     * Es la comprobación de que ambas juegan con las mismas reglas; cuesta O(n).
+     * @return null si coinciden, o la primera diferencia encontrada
+     */
+    public String diferenciaCon(JuegoRueda juego) {
+        if (terminada != juego.isJuegoTerminado() || turno != juego.getTurno()) {
+            return String.format("turno %d%s frente a %d%s", turno, terminada ? " (terminada)" : "",
+                                 juego.getTurno(), juego.isJuegoTerminado() ? " (terminada)" : "");
+        }
+        String diferencia = diferenciaEntre("mesa", obtenerPastoresEnMesa(),
+                                            juego.getMesa().obtenerPastoresEnMesa());
+        if (diferencia == null) {
+            diferencia = diferenciaEntre("pila", obtenerDesposeidos(),
+                                         juego.getPilaDesposeidos().obtenerDesposeidos());
+        }
+        if (diferencia == null && !terminada) {
+            Pastor delTurno = juego.getMesa().obtenerPastorActual();
+            int id = delTurno != null ? delTurno.getId() : 0;
+            if (actual == NINGUNO || almacen.getId(actual) != id) {
+                diferencia = String.format("turno del pastor %d frente al %d",
+                                           actual == NINGUNO ? 0 : almacen.getId(actual), id);
+            }
+        }
+        return diferencia;
+    }
+
+    private static String diferenciaEntre(String donde, List<Pastor> propios, List<Pastor> ajenos) {
+        if (propios.size() != ajenos.size()) {
+            return String.format("%s con %d pastores frente a %d", donde, propios.size(), ajenos.size());
+        }
+        for (int i = 0; i < propios.size(); i++) {
+            Pastor a = propios.get(i);
+            Pastor b = ajenos.get(i);
+            if (a.getId() != b.getId() || a.getDoblones() != b.getDoblones()
+                    || a.getFeligreses() != b.getFeligreses() || a.getTratoOrdinal() != b.getTratoOrdinal()) {
+                return String.format("%s, puesto %d: %s frente a %s", donde, i, a, b);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MesaPrimitiva[pastores=%d, desposeidos=%d, turno=%d, terminada=%s]",
+                             tamaño, tamañoPila, turno, terminada);
+    }
+}
@@ -0,0 +1,157 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Montículo binario de pastores ordenado por doblones, con índice pastor -> posición
+ * para poder actualizar o sacar cualquier pastor en O(log n).
+ * A igualdad de doblones gana el de menor orden de asiento, que es el que aparece
+ * primero en la lista de la mesa; así la cima coincide con la de un recorrido lineal.
+ */
+class MonticuloIndexado {
+    private final boolean deMaximos;
+    private Pastor[] pastores;
+    private long[] ordenes;
+    private int tamaño;
+    private final Map<Pastor, Integer> posiciones;
+
+    /**
+     * deMaximos true para tener en la cima al más rico, false para el más pobre
+     */
+    MonticuloIndexado(boolean deMaximos, int capacidad) {
+        this.deMaximos = deMaximos;
+        int cap = Math.max(8, capacidad);
+        this.pastores = new Pastor[cap];
+        this.ordenes = new long[cap];
+        this.posiciones = new HashMap<>(cap * 2);
+    }
+
+    /** @return el pastor de la cima, o null si está vacío */
+    Pastor cima() {
+        return tamaño == 0 ? null : pastores[0];
+    }
+
+    int tamaño() {
+        return tamaño;
+    }
+
+    void insertar(Pastor pastor, long orden) {
+        if (tamaño == pastores.length) {
+            pastores = Arrays.copyOf(pastores, tamaño * 2);
+            ordenes = Arrays.copyOf(ordenes, tamaño * 2);
+        }
+        pastores[tamaño] = pastor;
+        ordenes[tamaño] = orden;
+        posiciones.put(pastor, tamaño);
+        tamaño++;
+        subir(tamaño - 1);
+    }
+
+    void quitar(Pastor pastor) {
+        Integer posicion = posiciones.remove(pastor);
+        if (posicion == null) {
+            return;
+        }
+        int i = posicion;
+        tamaño--;
+        if (i != tamaño) {
+            mover(tamaño, i);
+            reubicar(i);
+        }
+        pastores[tamaño] = null;
+    }
+
+    /** Vuelve a colocar al pastor después de que cambiaron sus doblones. */
+    void actualizar(Pastor pastor) {
+        Integer posicion = posiciones.get(pastor);
+        if (posicion != null) {
+            reubicar(posicion);
+        }
+    }
+
+    /** Cambia el orden de asiento del pastor (tras un intercambio de puestos). */
+    void cambiarOrden(Pastor pastor, long orden) {
+        Integer posicion = posiciones.get(pastor);
+        if (posicion != null) {
+            ordenes[posicion] = orden;
+            reubicar(posicion);
+        }
+    }
+
+    /** @return el orden de asiento con que se registró el pastor, o -1 si no está */
+    long ordenDe(Pastor pastor) {
+        Integer posicion = posiciones.get(pastor);
+        return posicion == null ? -1 : ordenes[posicion];
+    }
+
+    void vaciar() {
+        Arrays.fill(pastores, 0, tamaño, null);
+        posiciones.clear();
+        tamaño = 0;
+    }
+
+    private void reubicar(int i) {
+        if (i > 0 && precede(i, (i - 1) / 2)) {
+            subir(i);
+        } else {
+            bajar(i);
+        }
+    }
+
+    private void subir(int i) {
+        while (i > 0) {
+            int padre = (i - 1) / 2;
+            if (!precede(i, padre)) {
+                break;
+            }
+            intercambiar(i, padre);
+            i = padre;
+        }
+    }
+
+    private void bajar(int i) {
+        while (true) {
+            int izquierdo = 2 * i + 1;
+            if (izquierdo >= tamaño) {
+                break;
+            }
+            int mejor = izquierdo;
+            int derecho = izquierdo + 1;
+            if (derecho < tamaño && precede(derecho, izquierdo)) {
+                mejor = derecho;
+            }
+            if (!precede(mejor, i)) {
+                break;
+            }
+            intercambiar(i, mejor);
+            i = mejor;
+        }
+    }
+
+    /** true si el elemento de la posición a debe estar por encima del de la posición b */
+    private boolean precede(int a, int b) {
+        int da = pastores[a].getDoblones();
+        int db = pastores[b].getDoblones();
+        if (da != db) {
+            return deMaximos ? da > db : da < db;
+        }
+        return ordenes[a] < ordenes[b];
+    }
+
+    private void intercambiar(int a, int b) {
+        Pastor pa = pastores[a];
+        long oa = ordenes[a];
+        pastores[a] = pastores[b];
+        ordenes[a] = ordenes[b];
+        pastores[b] = pa;
+        ordenes[b] = oa;
+        posiciones.put(pastores[a], a);
+        posiciones.put(pastores[b], b);
+    }
+
+    private void mover(int desde, int hasta) {
+        pastores[hasta] = pastores[desde];
+        ordenes[hasta] = ordenes[desde];
+        posiciones.put(pastores[hasta], hasta);
+    }
+}
@@ -0,0 +1,15 @@
+package model;
+
+/**
+ * Recibe aviso cada vez que cambian los doblones o los feligreses de un pastor.
+ * Lo usa el contenedor donde está el pastor (la mesa) para mantener al día sus índices.
+ */
+interface ObservadorRecursos {
+
+    /**
+     * pastor el pastor cuyos recursos cambiaron (ya con los valores nuevos)
+     * doblonesAntes doblones que tenía antes del cambio
+     * feligresesAntes feligreses que tenía antes del cambio
+     */
+    void recursosCambiaron(Pastor pastor, int doblonesAntes, int feligresesAntes);
+}
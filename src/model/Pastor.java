@@ -11,7 +11,10 @@ public class Pastor {
     private int doblones;          // "caudal contante y sonante"
     private int feligreses;        // "grey de fieles que le siguen"
     private String trato;          // "mesmo trato o negocio"
+    private final int tratoOrdinal; // el trato internado en RegistroTratos
     private boolean enMesa;        // si está actualmente en la mesa redonda
+    private ObservadorRecursos observador; // contenedor que indexa sus recursos (la mesa)
+    private boolean congelado;     // copia de instantánea: ya no cambia
     
     /**
      * Constructor para crear un nuevo pastor
@@ -27,9 +30,47 @@ public class Pastor {
         this.doblones = doblones;
         this.feligreses = feligreses;
         this.trato = trato;
+        this.tratoOrdinal = RegistroTratos.ordinal(trato);
         this.enMesa = true;
     }
     
+    /**
+     * Copia congelada de un pastor, con su trato ya internado
+     */
+    private Pastor(Pastor original) {
+        this.id = original.id;
+        this.nombre = original.nombre;
+        this.doblones = original.doblones;
+        this.feligreses = original.feligreses;
+        this.trato = original.trato;
+        this.tratoOrdinal = original.tratoOrdinal;
+        this.enMesa = original.enMesa;
+        this.congelado = true;
+    }
+    
+    /**
+     * Copia inmutable de este pastor tal como está ahora, para las instantáneas del estado:
+     * no tiene observador y cualquier intento de cambiarla lanza UnsupportedOperationException.
+     * Es igual (equals) al original porque tiene su mismo id.
+     * @return la copia, o este mismo pastor si ya estaba congelado
+     */
+    public Pastor congelar() {
+        return congelado ? this : new Pastor(this);
+    }
+    
+    /**
+     * @return true si es una copia congelada, que ya no puede cambiar
+     */
+    public boolean isCongelado() {
+        return congelado;
+    }
+    
+    private void exigirNoCongelado() {
+        if (congelado) {
+            throw new UnsupportedOperationException("El pastor " + nombre + " es de una instantánea y no puede cambiar");
+        }
+    }
+    
     // Getters
     public int getId() {
         return id;
@@ -51,23 +92,62 @@ public class Pastor {
         return trato;
     }
     
+    /**
+     * @return el ordinal del trato en RegistroTratos
+     */
+    public int getTratoOrdinal() {
+        return tratoOrdinal;
+    }
+    
     public boolean isEnMesa() {
         return enMesa;
     }
     
     // Setters
     public void setDoblones(int doblones) {
-        this.doblones = Math.max(0, doblones); // no pueden ser negativos
+        cambiarRecursos(Math.max(0, doblones), this.feligreses); // no pueden ser negativos
     }
     
     public void setFeligreses(int feligreses) {
-        this.feligreses = Math.max(0, feligreses); // no pueden ser negativos
+        cambiarRecursos(this.doblones, Math.max(0, feligreses)); // no pueden ser negativos
     }
     
     public void setEnMesa(boolean enMesa) {
+        exigirNoCongelado();
         this.enMesa = enMesa;
     }
     
+    ObservadorRecursos getObservador() {
+        return observador;
+    }
+    
+    void setObservador(ObservadorRecursos observador) {
+        exigirNoCongelado();
+        this.observador = observador;
+    }
+    
+    /**
+     * Único punto por el que cambian los recursos: asigna los nuevos valores
+     * y avisa al observador para que reacomode sus índices
+     */
+    private void cambiarRecursos(int doblones, int feligreses) {
+        exigirNoCongelado();
+        int doblonesAntes = this.doblones;
+        int feligresesAntes = this.feligreses;
+        this.doblones = doblones;
+        this.feligreses = feligreses;
+        if (observador != null && (doblonesAntes != doblones || feligresesAntes != feligreses)) {
+            observador.recursosCambiaron(this, doblonesAntes, feligresesAntes);
+        }
+    }
+    
+    /**
+     * Devuelve los recursos a unos valores anteriores (al deshacer un turno), avisando al observador
+     */
+    void restaurarRecursos(int doblones, int feligreses) {
+        cambiarRecursos(doblones, feligreses);
+    }
+    
     /**
      * Traspasa todos los recursos de este pastor a otro
      * "traspasándole su gente y su tesoro"
@@ -75,10 +155,8 @@ public class Pastor {
      */
     public void traspasarRecursos(Pastor destino) {
         if (destino != null) {
-            destino.doblones += this.doblones;
-            destino.feligreses += this.feligreses;
-            this.doblones = 0;
-            this.feligreses = 0;
+            destino.cambiarRecursos(destino.doblones + this.doblones, destino.feligreses + this.feligreses);
+            this.cambiarRecursos(0, 0);
         }
     }
     
@@ -89,8 +167,7 @@ public class Pastor {
      * feligreses cantidad de feligreses a recibir la mitad
      */
     public void recibirMitad(int doblones, int feligreses) {
-        this.doblones += doblones / 2;
-        this.feligreses += feligreses / 2;
+        cambiarRecursos(this.doblones + doblones / 2, this.feligreses + feligreses / 2);
     }
     
     /**
@@ -101,10 +178,8 @@ public class Pastor {
      */
     public void transferirRecursos(Pastor destino, int doblones, int feligreses) {
         if (destino != null && this.doblones >= doblones && this.feligreses >= feligreses) {
-            destino.doblones += doblones;
-            destino.feligreses += feligreses;
-            this.doblones -= doblones;
-            this.feligreses -= feligreses;
+            destino.cambiarRecursos(destino.doblones + doblones, destino.feligreses + feligreses);
+            this.cambiarRecursos(this.doblones - doblones, this.feligreses - feligreses);
         }
     }
     
@@ -143,7 +218,7 @@ public class Pastor {
      * @return true si ambos pastores tienen el mismo trato
      */
     public boolean esDelMismoTrato(Pastor otro) {
-        return otro != null && this.trato.equals(otro.trato);
+        return otro != null && this.tratoOrdinal == otro.tratoOrdinal;
     }
     
     /**
@@ -154,14 +229,12 @@ public class Pastor {
      */
     public boolean aplicarHurtoPiadoso(Pastor victima) {
         if (victima != null && victima.doblones > 0 && victima.feligreses > 0) {
+            victima.exigirNoCongelado(); // antes de tocar al ladrón
             int doblonesRobados = victima.doblones / 3;
             int feligresesRobados = victima.feligreses / 3;
             
-            this.doblones += doblonesRobados;
-            this.feligreses += feligresesRobados;
-            
-            victima.doblones -= doblonesRobados;
-            victima.feligreses -= feligresesRobados;
+            this.cambiarRecursos(this.doblones + doblonesRobados, this.feligreses + feligresesRobados);
+            victima.cambiarRecursos(victima.doblones - doblonesRobados, victima.feligreses - feligresesRobados);
             
             return true;
         }
@@ -5,15 +5,38 @@ import java.util.*;
 /**
  * Representa la pila de los desposeídos donde van los pastores eliminados
  * "enviándolo de cabeza a la pila de los desposeídos, donde el postrero en caer será el primero en salir"
+ * Es un arreglo sin sincronizar: echar y sacar tocan solo la cima. Quien se restaura desde
+ * en medio deja un hueco, y un árbol de Fenwick sobre las ranuras ocupadas da la posición
+ * de cualquiera en O(log n); un índice id -> ranura responde si alguien está en O(1).
+ * Cuando los huecos superan a los ocupados se compacta la pila (O(n) amortizado a O(1)).
  */
 public class PilaDesposeidos {
-    private Stack<Pastor> pila;
+    private static final int CAPACIDAD_MINIMA = 16;
+    
+    private Pastor[] ranuras;           // del fondo a la cima; null si es un hueco
+    private int[] arbol;                // Fenwick 1-based sobre las ranuras ocupadas
+    private int usados;                 // ranuras repartidas; la última siempre está ocupada
+    private int vivos;                  // ranuras ocupadas
+    private final Map<Integer, Integer> ranuraDeId = new HashMap<>();
+    // Copia persistente y congelada de la pila, para las instantáneas del estado
+    private final InstantaneaPastores instantanea = new InstantaneaPastores();
+    // Historial del juego al que se le avisan los cambios para poder deshacerlos (null si no hay)
+    private HistorialRueda historial;
+    
+    // Totales corrientes de recursos de los desposeídos; la pila observa sus cambios
+    private final AcumuladoRecursos recursos = new AcumuladoRecursos();
+    private final ObservadorRecursos observador = this::recursosCambiaron;
+    // Cuántos desposeídos hay de cada trato (por ordinal de RegistroTratos)
+    private int[] conteoTratos = new int[RegistroTratos.cantidad()];
+    // Huella de Zobrist del contenido (ver ClavesZobrist): pares de vecinos, cima y recursos
+    private long huella;
     
     /**
      * Constructor de la pila de desposeídos
      */
     public PilaDesposeidos() {
-        this.pila = new Stack<>();
+        this.ranuras = new Pastor[CAPACIDAD_MINIMA];
+        this.arbol = new int[CAPACIDAD_MINIMA + 1];
     }
     
     /**
@@ -24,7 +47,30 @@ public class PilaDesposeidos {
     public void echarAPila(Pastor pastor) {
         if (pastor != null) {
             pastor.setEnMesa(false);
-            pila.push(pastor);
+            int id = pastor.getId();
+            huella ^= ClavesZobrist.recursosPila(id, pastor.getDoblones(), pastor.getFeligreses())
+                    ^ ClavesZobrist.cima(id);
+            if (vivos > 0) {
+                int cima = ranuras[usados - 1].getId();
+                huella ^= ClavesZobrist.cima(cima) ^ ClavesZobrist.parPila(cima, id);
+            }
+            if (usados == ranuras.length) {
+                compactar(vivos * 2 <= usados ? ranuras.length : ranuras.length * 2);
+            }
+            ranuras[usados] = pastor;
+            sumar(usados, 1);
+            ranuraDeId.put(pastor.getId(), usados);
+            usados++;
+            vivos++;
+            instantanea.insertado(vivos - 1, pastor);
+            recursos.sumar(pastor);
+            if (pastor.getObservador() == null) {
+                pastor.setObservador(observador);
+            }
+            conteoTratos = RegistroTratos.sumarConteo(conteoTratos, pastor.getTratoOrdinal(), 1);
+            if (historial != null) {
+                historial.anotarEntradaAPila(pastor);
+            }
         }
     }
     
@@ -34,9 +80,13 @@ public class PilaDesposeidos {
      * @return el pastor que estaba en la cima de la pila, o null si está vacía
      */
     public Pastor sacarDePila() {
-        if (!pila.isEmpty()) {
-            Pastor rescatado = pila.pop();
+        if (vivos > 0) {
+            Pastor rescatado = quitarRanura(usados - 1);
             rescatado.setEnMesa(true);
+            conteoTratos = RegistroTratos.sumarConteo(conteoTratos, rescatado.getTratoOrdinal(), -1);
+            if (historial != null) {
+                historial.anotarSalidaDePila(rescatado);
+            }
             return rescatado;
         }
         return null;
@@ -48,7 +98,7 @@ public class PilaDesposeidos {
      * @return true si la pila está vacía
      */
     public boolean estaVacia() {
-        return pila.isEmpty();
+        return vivos == 0;
     }
     
     /**
@@ -57,8 +107,8 @@ public class PilaDesposeidos {
      * @return el pastor en la cima, o null si está vacía
      */
     public Pastor obtenerPostrero() {
-        if (!pila.isEmpty()) {
-            return pila.peek();
+        if (vivos > 0) {
+            return ranuras[usados - 1];
         }
         return null;
     }
@@ -68,7 +118,7 @@ public class PilaDesposeidos {
      * @return número de pastores desposeídos
      */
     public int obtenerTamaño() {
-        return pila.size();
+        return vivos;
     }
     
     /**
@@ -77,7 +127,25 @@ public class PilaDesposeidos {
      * @return lista de pastores desposeídos ordenados desde el primero hasta el último
      */
     public List<Pastor> obtenerDesposeidos() {
-        return new ArrayList<>(pila);
+        List<Pastor> lista = new ArrayList<>(vivos);
+        for (int i = 0; i < usados; i++) {
+            if (ranuras[i] != null) {
+                lista.add(ranuras[i]);
+            }
+        }
+        return lista;
+    }
+    
+    /**
+     * Instantánea inmutable de la pila: desposeídos congelados desde el fondo hasta la cima.
+     * Se lleva al día con lo que cambió desde la anterior y comparte con ella lo demás.
+     */
+    public List<Pastor> obtenerInstantanea() {
+        return tomarInstantanea();
+    }
+    
+    SecuenciaPersistente<Pastor> tomarInstantanea() {
+        return instantanea.tomar(this::obtenerDesposeidos, pastor -> obtenerPosicion(pastor.getId()));
     }
     
     /**
@@ -86,8 +154,12 @@ public class PilaDesposeidos {
      * @return lista de pastores desposeídos desde la cima
      */
     public List<Pastor> obtenerDesposeidosOrdenInverso() {
-        List<Pastor> lista = new ArrayList<>(pila);
-        Collections.reverse(lista);
+        List<Pastor> lista = new ArrayList<>(vivos);
+        for (int i = usados - 1; i >= 0; i--) {
+            if (ranuras[i] != null) {
+                lista.add(ranuras[i]);
+            }
+        }
         return lista;
     }
     
@@ -97,12 +169,7 @@ public class PilaDesposeidos {
      * @return true si el pastor está en la pila
      */
     public boolean contienePastor(int id) {
-        for (Pastor pastor : pila) {
-            if (pastor.getId() == id) {
-                return true;
-            }
-        }
-        return false;
+        return ranuraDeId.containsKey(id);
     }
     
     /**
@@ -111,12 +178,8 @@ public class PilaDesposeidos {
      * @return posición del pastor, o -1 si no está
      */
     public int obtenerPosicion(int id) {
-        for (int i = 0; i < pila.size(); i++) {
-            if (pila.get(i).getId() == id) {
-                return i;
-            }
-        }
-        return -1;
+        Integer ranura = ranuraDeId.get(id);
+        return ranura == null ? -1 : contarHasta(ranura);
     }
     
     /**
@@ -124,15 +187,62 @@ public class PilaDesposeidos {
      * @return array con [totalDoblones, totalFeligreses]
      */
     public int[] calcularRecursosTotales() {
-        int totalDoblones = 0;
-        int totalFeligreses = 0;
-        
-        for (Pastor pastor : pila) {
-            totalDoblones += pastor.getDoblones();
-            totalFeligreses += pastor.getFeligreses();
+        return new int[]{(int) getTotalDoblones(), (int) getTotalFeligreses()};
+    }
+    
+    /**
+     * Total de doblones en la pila, llevado al día en cada cambio (O(1))
+     */
+    public long getTotalDoblones() {
+        verificarTotales();
+        return recursos.getDoblones();
+    }
+    
+    /**
+     * Total de feligreses en la pila, llevado al día en cada cambio (O(1))
+     */
+    public long getTotalFeligreses() {
+        verificarTotales();
+        return recursos.getFeligreses();
+    }
+    
+    /**
+     * Totales, promedios y varianzas de los recursos de la pila sin recorrerla
+     */
+    public EstadisticasRecursos obtenerEstadisticasRecursos() {
+        verificarTotales();
+        return recursos.comoEstadisticas();
+    }
+    
+    private void verificarTotales() {
+        if (AcumuladoRecursos.VERIFICAR) {
+            recursos.verificar(obtenerDesposeidos(), "la pila");
         }
-        
-        return new int[]{totalDoblones, totalFeligreses};
+    }
+    
+    private void recursosCambiaron(Pastor pastor, int doblonesAntes, int feligresesAntes) {
+        recursos.cambiar(doblonesAntes, feligresesAntes, pastor.getDoblones(), pastor.getFeligreses());
+        huella ^= ClavesZobrist.recursosPila(pastor.getId(), doblonesAntes, feligresesAntes)
+                ^ ClavesZobrist.recursosPila(pastor.getId(), pastor.getDoblones(), pastor.getFeligreses());
+        instantanea.recursosCambiaron(pastor);
+        if (historial != null) {
+            historial.anotarRecursos(pastor, doblonesAntes, feligresesAntes);
+        }
+    }
+    
+    void setHistorial(HistorialRueda historial) {
+        this.historial = historial;
+    }
+    
+    /**
+     * Huella de Zobrist del contenido de la pila, en O(1).
+     * Con -Drueda.verificarTotales=true se contrasta con la calculada desde cero.
+     */
+    long getHuellaZobrist() {
+        if (AcumuladoRecursos.VERIFICAR && huella != ClavesZobrist.dePila(obtenerDesposeidos())) {
+            throw new IllegalStateException("Huella de Zobrist de la pila desviada");
+        }
+        return huella;
     }
     
     /**
@@ -140,14 +250,20 @@ public class PilaDesposeidos {
      * @return mapa con estadísticas por trato
      */
     public Map<String, Integer> obtenerEstadisticasPorTrato() {
-        Map<String, Integer> estadisticas = new HashMap<>();
-        
-        for (Pastor pastor : pila) {
-            String trato = pastor.getTrato();
-            estadisticas.put(trato, estadisticas.getOrDefault(trato, 0) + 1);
-        }
-        
-        return estadisticas;
+        return RegistroTratos.resumen(conteoTratos);
+    }
+    
+    /**
+     * Cuenta cuántos desposeídos hay de un trato, sin recorrer la pila
+     * ordinal ordinal del trato en RegistroTratos
+     */
+    public int contarTrato(int ordinal) {
+        return ordinal >= 0 && ordinal < conteoTratos.length ? conteoTratos[ordinal] : 0;
+    }
+    
+    /** Copia de los conteos por trato, para las instantáneas del estado */
+    int[] copiarConteoTratos() {
+        return conteoTratos.clone();
     }
     
     /**
@@ -157,24 +273,35 @@ public class PilaDesposeidos {
      * @return el pastor restaurado, o null si no se encontró
      */
     public Pastor restaurarPastorEspecifico(int id) {
-        for (int i = 0; i < pila.size(); i++) {
-            if (pila.get(i).getId() == id) {
-                Pastor pastor = pila.remove(i);
-                pastor.setEnMesa(true);
-                return pastor;
-            }
+        Integer ranura = ranuraDeId.get(id);
+        if (ranura == null) {
+            return null;
         }
-        return null;
+        Pastor pastor = quitarRanura(ranura);
+        pastor.setEnMesa(true);
+        conteoTratos = RegistroTratos.sumarConteo(conteoTratos, pastor.getTratoOrdinal(), -1);
+        return pastor;
     }
     
     /**
      * Vacía completamente la pila (para reiniciar juego)
      */
     public void vaciarPila() {
-        while (!pila.isEmpty()) {
-            Pastor pastor = pila.pop();
-            pastor.setEnMesa(false);
+        for (int i = 0; i < usados; i++) {
+            if (ranuras[i] != null) {
+                ranuras[i].setEnMesa(false);
+                soltarObservador(ranuras[i]);
+                ranuras[i] = null;
+            }
         }
+        recursos.vaciar();
+        huella = 0;
+        Arrays.fill(arbol, 0);
+        ranuraDeId.clear();
+        usados = 0;
+        vivos = 0;
+        Arrays.fill(conteoTratos, 0);
+        instantanea.rehacer();
     }
     
     /**
@@ -183,8 +310,8 @@ public class PilaDesposeidos {
      * @return el pastor del fondo de la pila
      */
     public Pastor obtenerPrimeroEnCaer() {
-        if (!pila.isEmpty()) {
-            return pila.get(0); // El primer elemento (fondo de la pila)
+        if (vivos > 0) {
+            return ranuras[ranuraEnPosicion(0)]; // El primer elemento (fondo de la pila)
         }
         return null;
     }
@@ -203,12 +330,12 @@ public class PilaDesposeidos {
      * @return true si puede agregar más pastores
      */
     public boolean tieneCapacidad(int maxCapacidad) {
-        return pila.size() < maxCapacidad;
+        return vivos < maxCapacidad;
     }
     
     @Override
     public String toString() {
-        return String.format("PilaDesposeidos[tamaño=%d]", pila.size());
+        return String.format("PilaDesposeidos[tamaño=%d]", vivos);
     }
     
     /**
@@ -217,7 +344,7 @@ public class PilaDesposeidos {
      * @return string con representación visual en columnas
      */
     public String obtenerRepresentacionVisual() {
-        if (pila.isEmpty()) {
+        if (vivos == 0) {
             return "║     PILA VACÍA     ║";
         }
         
@@ -225,14 +352,122 @@ public class PilaDesposeidos {
         sb.append("╔═══════════════════╗\n");
         
         // Mostrar desde la cima hacia abajo
-        for (int i = pila.size() - 1; i >= 0; i--) {
-            Pastor pastor = pila.get(i);
+        List<Pastor> desdeLaCima = obtenerDesposeidosOrdenInverso();
+        for (int i = 0; i < desdeLaCima.size(); i++) {
+            Pastor pastor = desdeLaCima.get(i);
             sb.append("║ ").append(String.format("%-17s", pastor.getNombre())).append(" ║\n");
             sb.append("║ D:%-4d F:%-8d ║\n", pastor.getDoblones(), pastor.getFeligreses());
-            if (i > 0) sb.append("╠═══════════════════╣\n");
+            if (i < desdeLaCima.size() - 1) sb.append("╠═══════════════════╣\n");
         }
         
         sb.append("╚═══════════════════╝");
         return sb.toString();
     }
-}
\ No newline at end of file
+    
+    /**
+     * Vacía una ranura y recorta los huecos que queden en la cima
+     */
+    private Pastor quitarRanura(int ranura) {
+        Pastor pastor = ranuras[ranura];
+        int id = pastor.getId();
+        huella ^= ClavesZobrist.recursosPila(id, pastor.getDoblones(), pastor.getFeligreses());
+        boolean eraCima = ranura == usados - 1;
+        if (!eraCima) {
+            // Sale de en medio: sus dos vecinos pasan a tocarse (el de abajo se busca en el Fenwick)
+            int posicion = contarHasta(ranura);
+            int encima = ranuras[ranuraEnPosicion(posicion + 1)].getId();
+            huella ^= ClavesZobrist.parPila(id, encima);
+            if (posicion > 0) {
+                int debajo = ranuras[ranuraEnPosicion(posicion - 1)].getId();
+                huella ^= ClavesZobrist.parPila(debajo, id) ^ ClavesZobrist.parPila(debajo, encima);
+            }
+        }
+        if (instantanea.activa()) {
+            instantanea.quitado(contarHasta(ranura));
+        }
+        ranuras[ranura] = null;
+        sumar(ranura, -1);
+        ranuraDeId.remove(pastor.getId());
+        vivos--;
+        recursos.restar(pastor);
+        soltarObservador(pastor);
+        while (usados > 0 && ranuras[usados - 1] == null) {
+            usados--;
+        }
+        if (usados > CAPACIDAD_MINIMA && vivos * 2 < usados) {
+            compactar(ranuras.length);
+        }
+        if (eraCima) {
+            // La nueva cima es la última ranura ocupada, que ya quedó al final tras recortar
+            huella ^= ClavesZobrist.cima(id);
+            if (vivos > 0) {
+                int debajo = ranuras[usados - 1].getId();
+                huella ^= ClavesZobrist.parPila(debajo, id) ^ ClavesZobrist.cima(debajo);
+            }
+        }
+        return pastor;
+    }
+    
+    private void soltarObservador(Pastor pastor) {
+        if (pastor.getObservador() == observador) {
+            pastor.setObservador(null);
+        }
+    }
+    
+    /**
+     * Junta las ranuras ocupadas al fondo, conservando el orden, y rehace el Fenwick y el índice en O(n)
+     */
+    private void compactar(int capacidad) {
+        Pastor[] nuevas = new Pastor[Math.max(CAPACIDAD_MINIMA, capacidad)];
+        int ocupadas = 0;
+        for (int i = 0; i < usados; i++) {
+            if (ranuras[i] != null) {
+                nuevas[ocupadas] = ranuras[i];
+                ranuraDeId.put(ranuras[i].getId(), ocupadas);
+                ocupadas++;
+            }
+        }
+        ranuras = nuevas;
+        usados = ocupadas;
+        arbol = new int[nuevas.length + 1];
+        // Fenwick en O(n): cada nodo empieza en 1 y se lo pasa a su padre
+        for (int i = 1; i <= nuevas.length; i++) {
+            if (i <= ocupadas) {
+                arbol[i] += 1;
+            }
+            int padre = i + (i & -i);
+            if (padre <= nuevas.length) {
+                arbol[padre] += arbol[i];
+            }
+        }
+    }
+    
+    /** Ranura de quien ocupa la posición dada contando desde el fondo. */
+    private int ranuraEnPosicion(int posicion) {
+        int restante = posicion + 1;
+        int indice = 0;
+        for (int paso = Integer.highestOneBit(ranuras.length); paso > 0; paso >>= 1) {
+            int siguiente = indice + paso;
+            if (siguiente <= ranuras.length && arbol[siguiente] < restante) {
+                indice = siguiente;
+                restante -= arbol[siguiente];
+            }
+        }
+        return indice;
+    }
+    
+    /** Cuenta las ranuras ocupadas antes de la ranura dada. */
+    private int contarHasta(int ranura) {
+        int suma = 0;
+        for (int i = ranura; i > 0; i -= i & -i) {
+            suma += arbol[i];
+        }
+        return suma;
+    }
+    
+    private void sumar(int ranura, int delta) {
+        for (int i = ranura + 1; i <= ranuras.length; i += i & -i) {
+            arbol[i] += delta;
+        }
+    }
+}
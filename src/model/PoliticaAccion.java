@@ -0,0 +1,109 @@
+package model;
+
+import java.util.*;
+import java.util.random.RandomGenerator;
+
+/**
+ * Decide qué hace el pastor con el turno cuando nadie lo maneja desde la vista,
+ * p. ej. en las simulaciones sin interfaz de SimuladorRueda.
+ * Una política no debe modificar el juego: solo lo consulta y devuelve la acción.
+ */
+@FunctionalInterface
+public interface PoliticaAccion {
+
+    /**
+     * Elige la acción del pastor actual
+     * juego la partida en curso
+     * random fuente de azar de la partida, juego.getAzar() (la única que debe usar la política)
+     * @return la acción a tomar
+     */
+    AccionPastor elegir(JuegoRueda juego, RandomGenerator random);
+
+    /**
+     * @return false si la política guarda algo de una llamada a otra (como PoliticaMCTS, que
+     * conserva su tabla): entonces su elección depende de lo que decidió antes, y compartirla
+     * entre partidas hace que unas influyan en otras
+     */
+    default boolean isSinEstado() {
+        return true;
+    }
+
+    /**
+     * Arrima siempre la guadaña a la derecha
+     */
+    static PoliticaAccion siempreDerecha() {
+        return (juego, random) -> AccionPastor.ARRIMAR_GUADAÑA_DERECHA;
+    }
+
+    /**
+     * Elige al azar, con igual probabilidad, entre las acciones disponibles
+     */
+    static PoliticaAccion aleatoria() {
+        return (juego, random) -> {
+            boolean rescatar = juego.puedeSacarDelOlvido();
+            boolean hurtar = juego.puedeMeterMano();
+            int opcion = random.nextInt(2 + (rescatar ? 1 : 0) + (hurtar ? 1 : 0));
+            switch (opcion) {
+                case 0:
+                    return AccionPastor.ARRIMAR_GUADAÑA_DERECHA;
+                case 1:
+                    return AccionPastor.ARRIMAR_GUADAÑA_IZQUIERDA;
+                case 2:
+                    return rescatar ? AccionPastor.SACAR_DEL_OLVIDO : AccionPastor.METER_MANO_FALTRIQUERA;
+                default:
+                    return AccionPastor.METER_MANO_FALTRIQUERA;
+            }
+        };
+    }
+
+    /**
+     * Toma lo que más doblones le deja en el turno: la víctima más rica de los dos lados,
+     * o la tercia parte del más rico si le puede meter mano y eso vale más
+     */
+    static PoliticaAccion codiciosa() {
+        return (juego, random) -> {
+            Mesa mesa = juego.getMesa();
+            Pastor derecha = mesa.buscarMenorGreyHacia(true, mesa.getN());
+            Pastor izquierda = mesa.buscarMenorGreyHacia(false, mesa.getN());
+            boolean aLaIzquierda = izquierda != null
+                    && (derecha == null || izquierda.getDoblones() > derecha.getDoblones());
+            Pastor victima = aLaIzquierda ? izquierda : derecha;
+            if (juego.puedeMeterMano() && victima != null
+                    && mesa.encontrarMasRico().getDoblones() / 3 > victima.getDoblones()) {
+                return AccionPastor.METER_MANO_FALTRIQUERA;
+            }
+            return aLaIzquierda ? AccionPastor.ARRIMAR_GUADAÑA_IZQUIERDA : AccionPastor.ARRIMAR_GUADAÑA_DERECHA;
+        };
+    }
+
+    /**
+     * Busca la acción con Monte Carlo en árbol durante presupuestoMs por turno, en tantos hilos
+     * como núcleos (ver PoliticaMCTS para más opciones). Guarda estado y depende del reloj:
+     * cada partida debe tener la suya, y sus partidas no se repiten igual.
+     */
+    static PoliticaAccion mcts(long presupuestoMs) {
+        PoliticaMCTS politica = new PoliticaMCTS(presupuestoMs);
+        politica.setHilos(Runtime.getRuntime().availableProcessors());
+        return politica;
+    }
+
+    /**
+     * Obtiene una de las políticas de serie por su nombre: derecha, aleatoria, codiciosa o mcts.
+     * Cada llamada da una política nueva; todas son sin estado salvo mcts (ver isSinEstado).
+     * @throws IllegalArgumentException si el nombre no corresponde a ninguna
+     */
+    static PoliticaAccion porNombre(String nombre) {
+        switch (nombre.toLowerCase(Locale.ROOT)) {
+            case "derecha":
+                return siempreDerecha();
+            case "aleatoria":
+                return aleatoria();
+            case "codiciosa":
+                return codiciosa();
+            case "mcts":
+                return mcts(PoliticaMCTS.PRESUPUESTO_POR_DEFECTO_MS);
+            default:
+                throw new IllegalArgumentException("Política desconocida: " + nombre);
+        }
+    }
+}
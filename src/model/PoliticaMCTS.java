@@ -0,0 +1,277 @@
+package model;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
+
+/**
+ * Jugador automático que elige la acción del pastor con búsqueda de Monte Carlo en árbol (UCT).
+ * Cada iteración copia la partida, baja por las acciones más prometedoras según las
+ * estadísticas guardadas, añade un estado nuevo y juega desde ahí al azar hasta el final
+ * o hasta maxTurnosSimulacion; luego suma la recompensa de cada pastor que decidió por el camino
+ * a la acción que tomó. La recompensa de un pastor es 1 si acaba rey, 0 si acaba en la pila y,
+ * si la simulación se corta antes, su parte de los doblones de la mesa.
+ * <p>
+ * Los estados se identifican por su huella de Zobrist (JuegoRueda.claveZobrist) y sus
+ * estadísticas van en una TablaTransposicion acotada que se conserva de un turno al siguiente.
+ * Las iteraciones se reparten entre varios hilos que comparten la tabla, con o sin cerrojos.
+ * Se busca hasta agotar el presupuesto de tiempo o, si se fija, el de iteraciones.
+ * </p>
+ * La tabla se conserva de una llamada a otra, también entre partidas, así que la política
+ * guarda estado (isSinEstado() es false): lo que elige depende de lo que buscó antes. Solo una
+ * instancia nueva (o tras vaciarTabla) con un solo hilo y un presupuesto de iteraciones, sin
+ * tope de tiempo, decide igual cada vez a partir de la semilla de la partida; con tope de
+ * tiempo lo que se alcanza a buscar depende del reloj. Se puede llamar desde varios hilos a la
+ * vez (todo lo de cada llamada es local salvo la tabla, que es segura entre hilos), pero para
+ * que las partidas no se influyan cada una debe tener su instancia.
+ */
+public class PoliticaMCTS implements PoliticaAccion {
+    public static final long PRESUPUESTO_POR_DEFECTO_MS = 50;
+    public static final int RANURAS_POR_DEFECTO = 1 << 18;
+    private static final int MAX_TURNOS_SIMULACION_POR_DEFECTO = 200;
+    // Tope de la bajada por el árbol, por si rescates y degüellos dan vueltas entre estados conocidos
+    private static final int MAX_PROFUNDIDAD_ARBOL = 128;
+    private static final double EXPLORACION = Math.sqrt(2);
+    private static final AccionPastor[] ACCIONES = AccionPastor.values();
+
+    private final TablaTransposicion tabla;
+    private long presupuestoNanos;
+    private int maxIteraciones = Integer.MAX_VALUE;
+    private int hilos = 1;
+    private int maxTurnosSimulacion = MAX_TURNOS_SIMULACION_POR_DEFECTO;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    /**
+     * Búsqueda con una tabla de RANURAS_POR_DEFECTO estados, con cerrojos
+     * presupuestoMs tiempo por decisión, en milisegundos
+     */
+    public PoliticaMCTS(long presupuestoMs) {
+        this(presupuestoMs, RANURAS_POR_DEFECTO, false);
+    }
+
+    /**
+     * presupuestoMs tiempo por decisión, en milisegundos (0: sin tope, solo el de iteraciones)
+     * ranuras estados que caben en la tabla de transposición
+     * sinBloqueos true para que los hilos sumen las estadísticas sin cerrojos
+     */
+    public PoliticaMCTS(long presupuestoMs, int ranuras, boolean sinBloqueos) {
+        this.tabla = new TablaTransposicion(ranuras, sinBloqueos);
+        setPresupuestoMs(presupuestoMs);
+    }
+
+    public void setPresupuestoMs(long presupuestoMs) {
+        this.presupuestoNanos = Math.max(0, presupuestoMs) * 1_000_000L;
+    }
+
+    /**
+     * Tope de iteraciones por decisión, además del de tiempo
+     */
+    public void setMaxIteraciones(int maxIteraciones) {
+        this.maxIteraciones = Math.max(1, maxIteraciones);
+    }
+
+    /**
+     * Hilos que hacen simulaciones a la vez; se piden al pool (por defecto el común)
+     */
+    public void setHilos(int hilos) {
+        this.hilos = Math.max(1, hilos);
+    }
+
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Turnos que se juegan al azar tras salir del árbol antes de puntuar por doblones
+     */
+    public void setMaxTurnosSimulacion(int maxTurnosSimulacion) {
+        this.maxTurnosSimulacion = Math.max(0, maxTurnosSimulacion);
+    }
+
+    @Override
+    public boolean isSinEstado() {
+        return false;
+    }
+
+    /**
+     * Olvida las estadísticas de partidas anteriores
+     */
+    public void vaciarTabla() {
+        tabla.vaciar();
+    }
+
+    @Override
+    public AccionPastor elegir(JuegoRueda juego, RandomGenerator random) {
+        if (juego.isJuegoTerminado()) {
+            return AccionPastor.ARRIMAR_GUADAÑA_DERECHA;
+        }
+        long limite = presupuestoNanos > 0 ? System.nanoTime() + presupuestoNanos : Long.MAX_VALUE;
+        if (limite == Long.MAX_VALUE && maxIteraciones == Integer.MAX_VALUE) {
+            throw new IllegalStateException("La búsqueda necesita un presupuesto de tiempo o de iteraciones");
+        }
+        SplittableRandom azar = new SplittableRandom(random.nextLong());
+        AtomicInteger iteraciones = new AtomicInteger();
+
+        // Cada hilo parte de su propia copia de la raíz: ninguno lee la partida mientras otro la copia
+        if (hilos == 1) {
+            buscar(juego.copiar(azar), azar, limite, iteraciones);
+        } else {
+            List<ForkJoinTask<?>> tareas = new ArrayList<>(hilos);
+            for (int i = 0; i < hilos; i++) {
+                SplittableRandom azarHilo = azar.split();
+                JuegoRueda raiz = juego.copiar(azarHilo);
+                tareas.add(ForkJoinTask.adapt(() -> buscar(raiz, azarHilo, limite, iteraciones)));
+            }
+            if (ForkJoinTask.inForkJoinPool()) {
+                ForkJoinTask.invokeAll(tareas);
+            } else {
+                for (ForkJoinTask<?> tarea : tareas) {
+                    pool.execute(tarea);
+                }
+                for (ForkJoinTask<?> tarea : tareas) {
+                    tarea.join();
+                }
+            }
+        }
+        return mejorAccion(juego);
+    }
+
+    /**
+     * La acción más visitada en la raíz; a igualdad, la de mejor media
+     */
+    private AccionPastor mejorAccion(JuegoRueda juego) {
+        long[] estadisticas = new long[TablaTransposicion.anchoEstadisticas()];
+        if (!tabla.leer(TablaTransposicion.huella(juego.claveZobrist()), estadisticas)) {
+            return AccionPastor.ARRIMAR_GUADAÑA_DERECHA;
+        }
+        boolean[] disponibles = disponibles(juego, new boolean[ACCIONES.length]);
+        int mejor = AccionPastor.ARRIMAR_GUADAÑA_DERECHA.ordinal();
+        for (int a = 0; a < ACCIONES.length; a++) {
+            if (!disponibles[a]) {
+                continue;
+            }
+            long visitas = TablaTransposicion.visitas(estadisticas, a);
+            long visitasMejor = TablaTransposicion.visitas(estadisticas, mejor);
+            if (visitas > visitasMejor || (visitas == visitasMejor
+                    && TablaTransposicion.media(estadisticas, a) > TablaTransposicion.media(estadisticas, mejor))) {
+                mejor = a;
+            }
+        }
+        return ACCIONES[mejor];
+    }
+
+    /**
+     * Bucle de iteraciones de un hilo; cada iteración juega sobre una copia nueva de raiz
+     */
+    private void buscar(JuegoRueda raiz, SplittableRandom azar, long limite, AtomicInteger iteraciones) {
+        long[] estadisticas = new long[TablaTransposicion.anchoEstadisticas()];
+        boolean[] disponibles = new boolean[ACCIONES.length];
+        long[] huellas = new long[MAX_PROFUNDIDAD_ARBOL];
+        int[] acciones = new int[MAX_PROFUNDIDAD_ARBOL];
+        Pastor[] actores = new Pastor[MAX_PROFUNDIDAD_ARBOL];
+        PoliticaAccion alAzar = PoliticaAccion.aleatoria();
+
+        while (iteraciones.getAndIncrement() < maxIteraciones && System.nanoTime() < limite) {
+            JuegoRueda juego = raiz.copiar(azar);
+            int pasos = 0;
+
+            // Selección y expansión: se baja por UCT hasta añadir un estado nuevo
+            boolean nuevo = false;
+            while (!juego.isJuegoTerminado() && !nuevo && pasos < MAX_PROFUNDIDAD_ARBOL) {
+                long huella = TablaTransposicion.huella(juego.claveZobrist());
+                if (!tabla.leer(huella, estadisticas)) {
+                    tabla.insertar(huella);
+                    Arrays.fill(estadisticas, 0);
+                    nuevo = true;
+                }
+                int accion = elegirUCT(estadisticas, disponibles(juego, disponibles), azar);
+                Pastor actor = juego.getMesa().obtenerPastorActual();
+                tabla.visitar(huella, accion);
+                huellas[pasos] = huella;
+                acciones[pasos] = accion;
+                actores[pasos] = actor;
+                pasos++;
+                if (!jugar(juego, ACCIONES[accion])) {
+                    break; // la acción no se pudo hacer: cuenta como lo que diga la simulación desde aquí
+                }
+            }
+
+            // Simulación al azar desde el estado alcanzado
+            for (int t = 0; t < maxTurnosSimulacion && !juego.isJuegoTerminado(); t++) {
+                if (!jugar(juego, alAzar.elegir(juego, azar))
+                        && !jugar(juego, AccionPastor.ARRIMAR_GUADAÑA_DERECHA)) {
+                    break;
+                }
+            }
+
+            // Retropropagación: cada paso se puntúa para el pastor que decidió en él
+            Pastor rey = juego.obtenerReyDeBurlasYVeras();
+            long totalDoblones = juego.getMesa().getTotalDoblones();
+            for (int i = 0; i < pasos; i++) {
+                tabla.recompensar(huellas[i], acciones[i], recompensa(actores[i], rey, totalDoblones));
+                actores[i] = null;
+            }
+        }
+    }
+
+    private static boolean jugar(JuegoRueda juego, AccionPastor accion) {
+        return juego.tomarTurno(accion, accion != AccionPastor.ARRIMAR_GUADAÑA_IZQUIERDA).isExitoso();
+    }
+
+    private static double recompensa(Pastor pastor, Pastor rey, long totalDoblones) {
+        if (rey != null) {
+            return pastor.equals(rey) ? 1 : 0;
+        }
+        if (!pastor.isEnMesa() || totalDoblones == 0) {
+            return 0;
+        }
+        return (double) pastor.getDoblones() / totalDoblones;
+    }
+
+    /**
+     * UCT: primero las acciones sin probar (al azar entre ellas), luego la de mayor
+     * media + EXPLORACION * sqrt(ln N / n)
+     */
+    private static int elegirUCT(long[] estadisticas, boolean[] disponibles, SplittableRandom azar) {
+        int sinProbar = 0;
+        for (int a = 0; a < ACCIONES.length; a++) {
+            if (disponibles[a] && TablaTransposicion.visitas(estadisticas, a) == 0) {
+                sinProbar++;
+            }
+        }
+        if (sinProbar > 0) {
+            int elegida = azar.nextInt(sinProbar);
+            for (int a = 0; a < ACCIONES.length; a++) {
+                if (disponibles[a] && TablaTransposicion.visitas(estadisticas, a) == 0 && elegida-- == 0) {
+                    return a;
+                }
+            }
+        }
+
+        double logTotal = Math.log(Math.max(1, estadisticas[0]));
+        int mejor = AccionPastor.ARRIMAR_GUADAÑA_DERECHA.ordinal();
+        double valorMejor = Double.NEGATIVE_INFINITY;
+        for (int a = 0; a < ACCIONES.length; a++) {
+            if (!disponibles[a]) {
+                continue;
+            }
+            long visitas = TablaTransposicion.visitas(estadisticas, a);
+            double valor = TablaTransposicion.media(estadisticas, a) + EXPLORACION * Math.sqrt(logTotal / visitas);
+            if (valor > valorMejor) {
+                valorMejor = valor;
+                mejor = a;
+            }
+        }
+        return mejor;
+    }
+
+    private static boolean[] disponibles(JuegoRueda juego, boolean[] disponibles) {
+        disponibles[AccionPastor.ARRIMAR_GUADAÑA_DERECHA.ordinal()] = true;
+        disponibles[AccionPastor.ARRIMAR_GUADAÑA_IZQUIERDA.ordinal()] = true;
+        disponibles[AccionPastor.SACAR_DEL_OLVIDO.ordinal()] = juego.puedeSacarDelOlvido();
+        disponibles[AccionPastor.METER_MANO_FALTRIQUERA.ordinal()] = juego.puedeMeterMano();
+        return disponibles;
+    }
+}
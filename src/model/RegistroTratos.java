@@ -0,0 +1,108 @@
+package model;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro único de los tratos u oficios de los pastores.
+ * Cada trato se interna una sola vez y recibe un ordinal pequeño (0, 1, 2...), de modo que
+ * comparar tratos es comparar enteros y los conteos por trato caben en un int[].
+ * Los ordinales no cambian mientras viva el programa y son los mismos en todos los hilos.
+ */
+public final class RegistroTratos {
+
+    /** Tratos con que la mesa sienta a sus pastores por defecto. */
+    static final String[] TRATOS_MESA = {"Mercader", "Artesano", "Labrador", "Escribano", "Barbero",
+                                         "Sastre", "Herrero", "Carpintero", "Panadero", "Tabernero"};
+
+    /** Oficios con que el juego reparte a sus pastores. */
+    static final String[] TIPOS_OFICIO = {"COMERCIANTE", "ARTESANO", "AGRICULTOR", "GANADERO", "BANQUERO"};
+
+    /** Ordinal que reciben los pastores sin trato. */
+    public static final int SIN_TRATO = -1;
+
+    private static final Map<String, Integer> ordinales = new ConcurrentHashMap<>();
+    private static volatile String[] nombres = new String[0];
+
+    static {
+        for (String trato : TRATOS_MESA) {
+            ordinal(trato);
+        }
+        for (String trato : TIPOS_OFICIO) {
+            ordinal(trato);
+        }
+    }
+
+    private RegistroTratos() {
+    }
+
+    /**
+     * Obtiene el ordinal de un trato, registrándolo si es la primera vez que aparece
+     * trato nombre del trato
+     * @return su ordinal, o SIN_TRATO si es null
+     */
+    public static int ordinal(String trato) {
+        if (trato == null) {
+            return SIN_TRATO;
+        }
+        Integer ordinal = ordinales.get(trato);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        synchronized (RegistroTratos.class) {
+            ordinal = ordinales.get(trato);
+            if (ordinal == null) {
+                String[] ampliados = Arrays.copyOf(nombres, nombres.length + 1);
+                ampliados[nombres.length] = trato;
+                ordinal = nombres.length;
+                nombres = ampliados;
+                ordinales.put(trato, ordinal);
+            }
+            return ordinal;
+        }
+    }
+
+    /**
+     * Obtiene el nombre de un trato a partir de su ordinal
+     * @return el nombre, o null si el ordinal no está registrado
+     */
+    public static String nombre(int ordinal) {
+        String[] actuales = nombres;
+        return ordinal >= 0 && ordinal < actuales.length ? actuales[ordinal] : null;
+    }
+
+    /**
+     * @return cuántos tratos hay registrados (los ordinales van de 0 a cantidad()-1)
+     */
+    public static int cantidad() {
+        return nombres.length;
+    }
+
+    /**
+     * Suma delta al conteo del trato dado, ampliando el arreglo si el ordinal aún no cabe
+     * @return el arreglo de conteos (el mismo u otro más grande)
+     */
+    static int[] sumarConteo(int[] conteo, int ordinal, int delta) {
+        if (ordinal < 0) {
+            return conteo;
+        }
+        if (ordinal >= conteo.length) {
+            conteo = Arrays.copyOf(conteo, Math.max(ordinal + 1, cantidad()));
+        }
+        conteo[ordinal] += delta;
+        return conteo;
+    }
+
+    /**
+     * Arma el resumen nombre de trato -> cantidad a partir de un arreglo de conteos
+     */
+    static Map<String, Integer> resumen(int[] conteo) {
+        Map<String, Integer> resumen = new HashMap<>();
+        for (int i = 0; i < conteo.length; i++) {
+            if (conteo[i] > 0) {
+                resumen.put(nombre(i), conteo[i]);
+            }
+        }
+        return resumen;
+    }
+}
@@ -0,0 +1,71 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Resumen de una tanda de partidas jugadas sin interfaz por SimuladorRueda
+ */
+public class ResultadoSimulacion {
+    private final int partidas;
+    private final int partidasTerminadas;
+    private final long turnos;
+    private final long nanos;
+    private final int[] victoriasPorTrato;
+    
+    ResultadoSimulacion(int partidas, int partidasTerminadas, long turnos, long nanos, int[] victoriasPorTrato) {
+        this.partidas = partidas;
+        this.partidasTerminadas = partidasTerminadas;
+        this.turnos = turnos;
+        this.nanos = nanos;
+        this.victoriasPorTrato = victoriasPorTrato;
+    }
+    
+    public int getPartidas() {
+        return partidas;
+    }
+    
+    /**
+     * @return partidas que acabaron con un solo pastor antes del límite de turnos
+     */
+    public int getPartidasTerminadas() {
+        return partidasTerminadas;
+    }
+    
+    public long getTurnos() {
+        return turnos;
+    }
+    
+    public double getSegundos() {
+        return nanos / 1e9;
+    }
+    
+    public double getPartidasPorSegundo() {
+        return nanos == 0 ? 0 : partidas / getSegundos();
+    }
+    
+    public double getTurnosPorSegundo() {
+        return nanos == 0 ? 0 : turnos / getSegundos();
+    }
+    
+    /**
+     * Cuántas partidas ganó un pastor del trato dado
+     * ordinal ordinal del trato en RegistroTratos
+     */
+    public int getVictorias(int ordinal) {
+        return ordinal >= 0 && ordinal < victoriasPorTrato.length ? victoriasPorTrato[ordinal] : 0;
+    }
+    
+    /**
+     * @return mapa trato -> partidas ganadas
+     */
+    public Map<String, Integer> getVictoriasPorTrato() {
+        return RegistroTratos.resumen(victoriasPorTrato);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "ResultadoSimulacion[partidas=%d, terminadas=%d, turnos=%d, segundos=%.3f, partidas/s=%.1f, turnos/s=%.1f]",
+                partidas, partidasTerminadas, turnos, getSegundos(), getPartidasPorSegundo(), getTurnosPorSegundo());
+    }
+}
@@ -0,0 +1,146 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Estadísticas de un torneo de partidas independientes: victorias por asiento inicial,
+ * por trato y por puesto en la riqueza inicial (0 = el que empezó con más doblones).
+ * Cada trabajador del torneo llena el suyo y al final se combinan con combinar().
+ */
+public class ResultadoTorneo {
+    private final ConfiguracionRueda configuracion;
+    private int partidas;
+    private int partidasTerminadas;
+    private long turnos;
+    private long nanos;
+    private final long[] victoriasPorAsiento;
+    private final long[] victoriasPorRiqueza;
+    private int[] victoriasPorTrato = new int[RegistroTratos.cantidad()];
+    private final BosquejoCuantiles doblonesDelRey = new BosquejoCuantiles();
+    
+    ResultadoTorneo(ConfiguracionRueda configuracion) {
+        this.configuracion = configuracion;
+        this.victoriasPorAsiento = new long[configuracion.getNumPastores()];
+        this.victoriasPorRiqueza = new long[configuracion.getNumPastores()];
+    }
+    
+    /**
+     * Anota una partida
+     * turnosJugados turnos que duró
+     * asiento asiento inicial del ganador, o -1 si no terminó
+     * puestoRiqueza puesto del ganador en la riqueza inicial
+     * trato ordinal del trato del ganador
+     * doblones doblones con que acabó el ganador
+     */
+    void anotar(int turnosJugados, int asiento, int puestoRiqueza, int trato, long doblones) {
+        partidas++;
+        turnos += turnosJugados;
+        if (asiento >= 0) {
+            partidasTerminadas++;
+            victoriasPorAsiento[asiento]++;
+            victoriasPorRiqueza[puestoRiqueza]++;
+            victoriasPorTrato = RegistroTratos.sumarConteo(victoriasPorTrato, trato, 1);
+            doblonesDelRey.agregar(doblones);
+        }
+    }
+    
+    /**
+     * Suma a este resultado los de otro trabajador de la misma configuración
+     * @return este mismo resultado
+     */
+    ResultadoTorneo combinar(ResultadoTorneo otro) {
+        partidas += otro.partidas;
+        partidasTerminadas += otro.partidasTerminadas;
+        turnos += otro.turnos;
+        for (int i = 0; i < victoriasPorAsiento.length; i++) {
+            victoriasPorAsiento[i] += otro.victoriasPorAsiento[i];
+            victoriasPorRiqueza[i] += otro.victoriasPorRiqueza[i];
+        }
+        for (int t = 0; t < otro.victoriasPorTrato.length; t++) {
+            victoriasPorTrato = RegistroTratos.sumarConteo(victoriasPorTrato, t, otro.victoriasPorTrato[t]);
+        }
+        doblonesDelRey.combinar(otro.doblonesDelRey);
+        return this;
+    }
+    
+    void setNanos(long nanos) {
+        this.nanos = nanos;
+    }
+    
+    public ConfiguracionRueda getConfiguracion() {
+        return configuracion;
+    }
+    
+    public int getPartidas() {
+        return partidas;
+    }
+    
+    public int getPartidasTerminadas() {
+        return partidasTerminadas;
+    }
+    
+    public long getTurnos() {
+        return turnos;
+    }
+    
+    public double getSegundos() {
+        return nanos / 1e9;
+    }
+    
+    public double getPartidasPorSegundo() {
+        return nanos == 0 ? 0 : partidas / getSegundos();
+    }
+    
+    public double getTurnosPorSegundo() {
+        return nanos == 0 ? 0 : turnos / getSegundos();
+    }
+    
+    /**
+     * Fracción de las partidas terminadas que ganó quien empezó en el asiento dado
+     */
+    public double getTasaVictoriaAsiento(int asiento) {
+        return tasa(victoriasPorAsiento[asiento]);
+    }
+    
+    /**
+     * Fracción de las partidas terminadas que ganó quien empezó en el puesto de riqueza dado
+     * (0 = el más rico al empezar)
+     */
+    public double getTasaVictoriaRiqueza(int puesto) {
+        return tasa(victoriasPorRiqueza[puesto]);
+    }
+    
+    /**
+     * Fracción de las partidas terminadas que ganó un pastor del trato dado
+     * ordinal ordinal del trato en RegistroTratos
+     */
+    public double getTasaVictoriaTrato(int ordinal) {
+        return ordinal >= 0 && ordinal < victoriasPorTrato.length ? tasa(victoriasPorTrato[ordinal]) : 0;
+    }
+    
+    /**
+     * @return mapa trato -> partidas ganadas
+     */
+    public Map<String, Integer> getVictoriasPorTrato() {
+        return RegistroTratos.resumen(victoriasPorTrato);
+    }
+    
+    /**
+     * Cuantil aproximado de los doblones con que acaban los ganadores (0.5 = mediana)
+     */
+    public double getCuantilDoblonesDelRey(double q) {
+        return doblonesDelRey.cuantil(q);
+    }
+    
+    private double tasa(long victorias) {
+        return partidasTerminadas == 0 ? 0 : (double) victorias / partidasTerminadas;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "ResultadoTorneo[pastores=%d, n=%d, partidas=%d, terminadas=%d, partidas/s=%.1f, turnos/s=%.1f]",
+                configuracion.getNumPastores(), configuracion.getValorN(), partidas, partidasTerminadas,
+                getPartidasPorSegundo(), getTurnosPorSegundo());
+    }
+}
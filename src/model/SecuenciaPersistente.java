@@ -0,0 +1,234 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Lista inmutable y persistente: cada cambio devuelve una lista nueva que comparte con la
+ * anterior todo lo que no tocó, y la anterior sigue valiendo tal como estaba.
+ * Por dentro es un árbol AVL ordenado por posición (cada nodo sabe cuántos elementos cuelgan
+ * de él), así que obtener, cambiar, insertar y quitar cuestan O(log n) y solo copian el camino
+ * de la raíz al nodo tocado. Guardar una versión es guardar su raíz, en O(1).
+ * Los métodos de List que modifican (add, set, remove...) lanzan UnsupportedOperationException.
+ */
+public final class SecuenciaPersistente<E> extends AbstractList<E> {
+    private static final SecuenciaPersistente<Object> VACIA = new SecuenciaPersistente<>(null);
+
+    private final Nodo<E> raiz;
+
+    private static final class Nodo<E> {
+        final E valor;
+        final Nodo<E> izquierdo;
+        final Nodo<E> derecho;
+        final int tamaño;
+        final int altura;
+
+        Nodo(E valor, Nodo<E> izquierdo, Nodo<E> derecho) {
+            this.valor = valor;
+            this.izquierdo = izquierdo;
+            this.derecho = derecho;
+            this.tamaño = tamañoDe(izquierdo) + tamañoDe(derecho) + 1;
+            this.altura = Math.max(alturaDe(izquierdo), alturaDe(derecho)) + 1;
+        }
+    }
+
+    private SecuenciaPersistente(Nodo<E> raiz) {
+        this.raiz = raiz;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> SecuenciaPersistente<E> vacia() {
+        return (SecuenciaPersistente<E>) VACIA;
+    }
+
+    /**
+     * Arma una secuencia con los elementos dados, en su orden, en O(n)
+     */
+    public static <E> SecuenciaPersistente<E> desde(List<? extends E> elementos) {
+        if (elementos instanceof SecuenciaPersistente) {
+            @SuppressWarnings("unchecked")
+            SecuenciaPersistente<E> secuencia = (SecuenciaPersistente<E>) elementos;
+            return secuencia;
+        }
+        Object[] arreglo = elementos.toArray();
+        return arreglo.length == 0 ? vacia() : new SecuenciaPersistente<>(construir(arreglo, 0, arreglo.length));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Nodo<E> construir(Object[] arreglo, int desde, int hasta) {
+        if (desde >= hasta) {
+            return null;
+        }
+        int medio = (desde + hasta) >>> 1;
+        return new Nodo<>((E) arreglo[medio], construir(arreglo, desde, medio), construir(arreglo, medio + 1, hasta));
+    }
+
+    @Override
+    public int size() {
+        return tamañoDe(raiz);
+    }
+
+    @Override
+    public E get(int posicion) {
+        Objects.checkIndex(posicion, size());
+        Nodo<E> nodo = raiz;
+        while (true) {
+            int izquierda = tamañoDe(nodo.izquierdo);
+            if (posicion < izquierda) {
+                nodo = nodo.izquierdo;
+            } else if (posicion > izquierda) {
+                posicion -= izquierda + 1;
+                nodo = nodo.derecho;
+            } else {
+                return nodo.valor;
+            }
+        }
+    }
+
+    /**
+     * @return una secuencia igual a esta pero con el elemento dado en la posición indicada
+     */
+    public SecuenciaPersistente<E> con(int posicion, E elemento) {
+        Objects.checkIndex(posicion, size());
+        return new SecuenciaPersistente<>(cambiar(raiz, posicion, elemento));
+    }
+
+    /**
+     * @return una secuencia igual a esta con el elemento metido en la posición indicada;
+     *         los que estaban desde ahí corren un puesto
+     */
+    public SecuenciaPersistente<E> insertar(int posicion, E elemento) {
+        Objects.checkIndex(posicion, size() + 1);
+        return new SecuenciaPersistente<>(insertar(raiz, posicion, elemento));
+    }
+
+    /**
+     * @return una secuencia igual a esta con el elemento añadido al final
+     */
+    public SecuenciaPersistente<E> agregar(E elemento) {
+        return insertar(size(), elemento);
+    }
+
+    /**
+     * @return una secuencia igual a esta sin el elemento de la posición indicada
+     */
+    public SecuenciaPersistente<E> quitar(int posicion) {
+        Objects.checkIndex(posicion, size());
+        Nodo<E> nueva = quitar(raiz, posicion);
+        return nueva == null ? vacia() : new SecuenciaPersistente<>(nueva);
+    }
+
+    /**
+     * Recorre en orden en O(n) total, sin buscar cada posición desde la raíz
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private final ArrayDeque<Nodo<E>> camino = new ArrayDeque<>();
+            {
+                bajarPorLaIzquierda(raiz);
+            }
+
+            private void bajarPorLaIzquierda(Nodo<E> nodo) {
+                for (; nodo != null; nodo = nodo.izquierdo) {
+                    camino.push(nodo);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !camino.isEmpty();
+            }
+
+            @Override
+            public E next() {
+                if (camino.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Nodo<E> nodo = camino.pop();
+                bajarPorLaIzquierda(nodo.derecho);
+                return nodo.valor;
+            }
+        };
+    }
+
+    private static <E> Nodo<E> cambiar(Nodo<E> nodo, int posicion, E elemento) {
+        int izquierda = tamañoDe(nodo.izquierdo);
+        if (posicion < izquierda) {
+            return new Nodo<>(nodo.valor, cambiar(nodo.izquierdo, posicion, elemento), nodo.derecho);
+        }
+        if (posicion > izquierda) {
+            return new Nodo<>(nodo.valor, nodo.izquierdo, cambiar(nodo.derecho, posicion - izquierda - 1, elemento));
+        }
+        return new Nodo<>(elemento, nodo.izquierdo, nodo.derecho);
+    }
+
+    private static <E> Nodo<E> insertar(Nodo<E> nodo, int posicion, E elemento) {
+        if (nodo == null) {
+            return new Nodo<>(elemento, null, null);
+        }
+        int izquierda = tamañoDe(nodo.izquierdo);
+        if (posicion <= izquierda) {
+            return balancear(nodo.valor, insertar(nodo.izquierdo, posicion, elemento), nodo.derecho);
+        }
+        return balancear(nodo.valor, nodo.izquierdo, insertar(nodo.derecho, posicion - izquierda - 1, elemento));
+    }
+
+    private static <E> Nodo<E> quitar(Nodo<E> nodo, int posicion) {
+        int izquierda = tamañoDe(nodo.izquierdo);
+        if (posicion < izquierda) {
+            return balancear(nodo.valor, quitar(nodo.izquierdo, posicion), nodo.derecho);
+        }
+        if (posicion > izquierda) {
+            return balancear(nodo.valor, nodo.izquierdo, quitar(nodo.derecho, posicion - izquierda - 1));
+        }
+        if (nodo.izquierdo == null) {
+            return nodo.derecho;
+        }
+        if (nodo.derecho == null) {
+            return nodo.izquierdo;
+        }
+        // Sube el primero del subárbol derecho al sitio del que se va
+        Nodo<E> primero = nodo.derecho;
+        while (primero.izquierdo != null) {
+            primero = primero.izquierdo;
+        }
+        return balancear(primero.valor, nodo.izquierdo, quitar(nodo.derecho, 0));
+    }
+
+    /**
+     * Arma un nodo y, si sus hijos difieren en más de un nivel de altura, lo rota (rotación
+     * simple o doble del AVL). Basta una por nivel porque insertar o quitar cambia la altura
+     * de un subárbol en a lo sumo uno.
+     */
+    private static <E> Nodo<E> balancear(E valor, Nodo<E> izquierdo, Nodo<E> derecho) {
+        int alturaIzquierda = alturaDe(izquierdo);
+        int alturaDerecha = alturaDe(derecho);
+        if (alturaIzquierda > alturaDerecha + 1) {
+            if (alturaDe(izquierdo.izquierdo) >= alturaDe(izquierdo.derecho)) {
+                return new Nodo<>(izquierdo.valor, izquierdo.izquierdo,
+                                  new Nodo<>(valor, izquierdo.derecho, derecho));
+            }
+            Nodo<E> medio = izquierdo.derecho;
+            return new Nodo<>(medio.valor, new Nodo<>(izquierdo.valor, izquierdo.izquierdo, medio.izquierdo),
+                              new Nodo<>(valor, medio.derecho, derecho));
+        }
+        if (alturaDerecha > alturaIzquierda + 1) {
+            if (alturaDe(derecho.derecho) >= alturaDe(derecho.izquierdo)) {
+                return new Nodo<>(derecho.valor, new Nodo<>(valor, izquierdo, derecho.izquierdo),
+                                  derecho.derecho);
+            }
+            Nodo<E> medio = derecho.izquierdo;
+            return new Nodo<>(medio.valor, new Nodo<>(valor, izquierdo, medio.izquierdo),
+                              new Nodo<>(derecho.valor, medio.derecho, derecho.derecho));
+        }
+        return new Nodo<>(valor, izquierdo, derecho);
+    }
+
+    private static int tamañoDe(Nodo<?> nodo) {
+        return nodo == null ? 0 : nodo.tamaño;
+    }
+
+    private static int alturaDe(Nodo<?> nodo) {
+        return nodo == null ? 0 : nodo.altura;
+    }
+}
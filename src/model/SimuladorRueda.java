@@ -0,0 +1,173 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Juega partidas de la rueda una tras otra sin interfaz, sin pausas y sin esperar a nadie,
+ * para comparar variantes de las reglas o de las políticas sobre muchas partidas.
+ * Con la misma configuración, política y semilla se repiten exactamente las mismas partidas.
+ * Cada partida tiene su propia semilla, sacada de la del simulador y de su número de partida,
+ * y toda ella (recursos y decisiones) sale de esa semilla: cualquier partida se puede volver
+ * a jugar sola con repetirPartida, sin jugar las anteriores.
+ */
+public class SimuladorRueda {
+    /** Límite de turnos por partida, por si la política rescata una y otra vez sin acabar */
+    public static final int MAX_TURNOS_POR_DEFECTO = 10_000;
+    
+    private final ConfiguracionRueda configuracion;
+    private final PoliticaAccion politica;
+    private final TipoCorro tipoCorro;
+    private final long semilla;
+    private long partidasJugadas;   // las siguientes partidas siguen la numeración
+    private int maxTurnos = MAX_TURNOS_POR_DEFECTO;
+    private BitacoraRueda bitacora; // null si no se anotan las partidas
+    
+    /**
+     * Constructor del simulador
+     * configuracion número de pastores, n y recursos iniciales de cada partida
+     * politica quién decide la acción de cada turno
+     * semilla semilla de la fuente de azar (recursos iniciales y política)
+     */
+    public SimuladorRueda(ConfiguracionRueda configuracion, PoliticaAccion politica, long semilla) {
+        this(configuracion, politica, semilla, TipoCorro.LISTA);
+    }
+    
+    /**
+     * Constructor eligiendo la estructura del corro de las mesas
+     */
+    public SimuladorRueda(ConfiguracionRueda configuracion, PoliticaAccion politica, long semilla,
+                          TipoCorro tipoCorro) {
+        this.configuracion = configuracion;
+        this.politica = politica;
+        this.tipoCorro = tipoCorro;
+        this.semilla = semilla;
+    }
+    
+    /**
+     * Semilla de la partida número partida de una tanda: es el valor número partida que daría
+     * new SplittableRandom(semilla).nextLong(), pero se calcula directamente, sin recorrer los
+     * anteriores (SplittableRandom avanza su estado sumando siempre la misma constante)
+     */
+    public static long semillaDePartida(long semilla, long partida) {
+        return new SplittableRandom(semilla + partida * 0x9E3779B97F4A7C15L).nextLong();
+    }
+    
+    public void setMaxTurnos(int maxTurnos) {
+        this.maxTurnos = Math.max(1, maxTurnos);
+    }
+    
+    /**
+     * Anota cada partida simulada en la bitácora, turno a turno (null para no anotar)
+     */
+    public void setBitacora(BitacoraRueda bitacora) {
+        this.bitacora = bitacora;
+    }
+    
+    /**
+     * Juega las partidas indicadas y mide cuánto tardan
+     * partidas número de partidas a jugar
+     * @return resumen con partidas/s, turnos/s y victorias por trato
+     */
+    public ResultadoSimulacion simular(int partidas) {
+        int terminadas = 0;
+        long turnos = 0;
+        int[] victorias = new int[RegistroTratos.cantidad()];
+        
+        long inicio = System.nanoTime();
+        for (int i = 0; i < partidas; i++) {
+            JuegoRueda juego = crearPartida(partidasJugadas++);
+            juego.setBitacora(bitacora);
+            turnos += jugarPartida(juego, politica, maxTurnos);
+            Pastor rey = juego.obtenerReyDeBurlasYVeras();
+            if (rey != null) {
+                terminadas++;
+                victorias = RegistroTratos.sumarConteo(victorias, rey.getTratoOrdinal(), 1);
+            }
+        }
+        long nanos = System.nanoTime() - inicio;
+        
+        return new ResultadoSimulacion(partidas, terminadas, turnos, nanos, victorias);
+    }
+    
+    /**
+     * Vuelve a jugar sola una partida ya simulada, con el mismo resultado que tuvo en su tanda
+     * partida número de la partida, contando desde 0 todas las que ha simulado este simulador
+     * @return el juego terminado (o parado en el límite de turnos)
+     */
+    public JuegoRueda repetirPartida(long partida) {
+        JuegoRueda juego = crearPartida(partida);
+        jugarPartida(juego, politica, maxTurnos);
+        return juego;
+    }
+    
+    /**
+     * Juega una partida a la vez en un JuegoRueda y en una MesaPrimitiva, con los mismos recursos
+     * iniciales y las mismas acciones (las que elige la política sobre el JuegoRueda), las compara
+     * tras cada turno y, al llegar al límite de turnos, las acaba a guadaña derecha y las vuelve
+     * a comparar. Comprueba que la mesa primitiva juega con las reglas de JuegoRueda.
+     * partida número de partida, como en repetirPartida (los recursos son siempre aleatorios)
+     * @return null si jugaron igual, o la primera diferencia encontrada
+     */
+    public String compararConMesaPrimitiva(long partida) {
+        long semillaPartida = semillaDePartida(semilla, partida);
+        int numPastores = configuracion.getNumPastores();
+        int n = configuracion.getValorN();
+        JuegoRueda juego = new JuegoRueda(numPastores, n, tipoCorro, new SplittableRandom(semillaPartida));
+        MesaPrimitiva mesa = JuegoRueda.crearMesaPrimitiva(numPastores, n, new SplittableRandom(semillaPartida));
+        juego.empezarDanza();
+        mesa.empezarDanza();
+        String diferencia = mesa.diferenciaCon(juego);
+        for (int turnos = 0; diferencia == null && !juego.isJuegoTerminado() && turnos < maxTurnos; turnos++) {
+            AccionPastor accion = politica.elegir(juego, juego.getAzar());
+            boolean hecho = juego.tomarTurno(accion, accion != AccionPastor.ARRIMAR_GUADAÑA_IZQUIERDA).isExitoso();
+            if (hecho != mesa.tomarTurno(accion)) {
+                return desacuerdo(juego, accion, hecho);
+            }
+            if (!hecho) {
+                accion = AccionPastor.ARRIMAR_GUADAÑA_DERECHA;
+                hecho = juego.tomarTurno(accion, true).isExitoso();
+                if (hecho != mesa.tomarTurno(accion)) {
+                    return desacuerdo(juego, accion, hecho);
+                }
+                if (!hecho) {
+                    break;
+                }
+            }
+            diferencia = mesa.diferenciaCon(juego);
+        }
+        if (diferencia == null) {
+            juego.avanzarHastaFin();
+            mesa.avanzarHastaFin();
+            diferencia = mesa.diferenciaCon(juego);
+        }
+        return diferencia;
+    }
+    
+    private static String desacuerdo(JuegoRueda juego, AccionPastor accion, boolean hecho) {
+        return String.format("turno %d: %s %s en JuegoRueda pero %s en la mesa primitiva", juego.getTurno(),
+                             accion, hecho ? "se pudo" : "no se pudo", hecho ? "no" : "sí");
+    }
+    
+    private JuegoRueda crearPartida(long partida) {
+        return new JuegoRueda(configuracion.conSemilla(semillaDePartida(semilla, partida)), tipoCorro);
+    }
+    
+    /**
+     * Juega una partida hasta el final o hasta el límite de turnos, con el azar de la propia partida.
+     * Si la acción elegida no se puede realizar, el pastor arrima la guadaña a la derecha.
+     * @return número de turnos jugados
+     */
+    static int jugarPartida(JuegoRueda juego, PoliticaAccion politica, int maxTurnos) {
+        juego.empezarDanza();
+        int turnos = 0;
+        while (!juego.isJuegoTerminado() && turnos < maxTurnos) {
+            AccionPastor accion = politica.elegir(juego, juego.getAzar());
+            if (!juego.tomarTurno(accion, accion != AccionPastor.ARRIMAR_GUADAÑA_IZQUIERDA).isExitoso()
+                    && !juego.tomarTurno(AccionPastor.ARRIMAR_GUADAÑA_DERECHA, true).isExitoso()) {
+                break;
+            }
+            turnos++;
+        }
+        return turnos;
+    }
+}
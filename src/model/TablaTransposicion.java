@@ -0,0 +1,179 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tabla de transposición acotada para la búsqueda de Monte Carlo: guarda, por huella de Zobrist
+ * del estado, cuántas veces se visitó y cuántas visitas y cuánta recompensa lleva cada acción.
+ * Estados a los que se llega por caminos distintos comparten así sus estadísticas.
+ * <p>
+ * Tiene un número fijo de ranuras (potencia de dos) y cada estado va a la ranura que indica su
+ * huella; si ya la ocupa otro, lo reemplaza. Las estadísticas de la ranura van en un solo
+ * AtomicLongArray: [huella, visitas, visitas y recompensa de cada acción...]. La recompensa se
+ * guarda en coma fija para poder sumarla con getAndAdd.
+ * </p>
+ * Es segura entre hilos de dos maneras: con cerrojos, cada ranura se lee y se cambia bajo uno
+ * de CERROJOS candados repartidos por ranura, así que se ve siempre entera; sin bloqueos, cada
+ * contador se suma con operaciones atómicas y una lectura puede mezclar un reemplazo a medias,
+ * que la búsqueda tolera a cambio de no esperar nunca.
+ */
+final class TablaTransposicion {
+    static final int ACCIONES = AccionPastor.values().length;
+    /** Unidades de recompensa por punto: la recompensa va de 0 a 1 */
+    private static final double ESCALA = 1 << 20;
+    private static final int ANCHO = 2 + 2 * ACCIONES;
+    private static final int CERROJOS = 64;
+
+    private final AtomicLongArray datos;
+    private final int mascara;
+    private final boolean sinBloqueos;
+    private final Object[] cerrojos;
+
+    /**
+     * ranuras número de estados que caben (se redondea a potencia de dos)
+     * sinBloqueos true para sumar las estadísticas solo con operaciones atómicas
+     */
+    TablaTransposicion(int ranuras, boolean sinBloqueos) {
+        int capacidad = Integer.highestOneBit(Math.max(2, Math.min(ranuras, (1 << 30) / ANCHO)));
+        this.datos = new AtomicLongArray(capacidad * ANCHO);
+        this.mascara = capacidad - 1;
+        this.sinBloqueos = sinBloqueos;
+        this.cerrojos = new Object[CERROJOS];
+        for (int i = 0; i < CERROJOS; i++) {
+            cerrojos[i] = new Object();
+        }
+    }
+
+    int getRanuras() {
+        return mascara + 1;
+    }
+
+    boolean isSinBloqueos() {
+        return sinBloqueos;
+    }
+
+    /** La huella 0 marca una ranura vacía, así que ningún estado la usa */
+    static long huella(long clave) {
+        return clave == 0 ? 1 : clave;
+    }
+
+    private int base(long huella) {
+        return (int) (ClavesZobrist.mezclar(huella) & mascara) * ANCHO;
+    }
+
+    private Object cerrojo(int base) {
+        return cerrojos[(base / ANCHO) & (CERROJOS - 1)];
+    }
+
+    /**
+     * Copia las estadísticas del estado en destino: [visitas, visitas y recompensa por acción...]
+     * @return false si el estado no está en la tabla (destino queda sin tocar)
+     */
+    boolean leer(long huella, long[] destino) {
+        int base = base(huella);
+        if (sinBloqueos) {
+            return leerRanura(base, huella, destino);
+        }
+        synchronized (cerrojo(base)) {
+            return leerRanura(base, huella, destino);
+        }
+    }
+
+    private boolean leerRanura(int base, long huella, long[] destino) {
+        if (datos.get(base) != huella) {
+            return false;
+        }
+        for (int i = 1; i < ANCHO; i++) {
+            destino[i - 1] = datos.get(base + i);
+        }
+        return true;
+    }
+
+    /**
+     * Pone el estado en su ranura, con las estadísticas a cero, reemplazando al que estuviera
+     * @return false si ya estaba
+     */
+    boolean insertar(long huella) {
+        int base = base(huella);
+        if (sinBloqueos) {
+            long anterior = datos.get(base);
+            if (anterior == huella || !datos.compareAndSet(base, anterior, huella)) {
+                return false; // ya estaba, u otro hilo acaba de ocupar la ranura
+            }
+            for (int i = 1; i < ANCHO; i++) {
+                datos.set(base + i, 0);
+            }
+            return true;
+        }
+        synchronized (cerrojo(base)) {
+            if (datos.get(base) == huella) {
+                return false;
+            }
+            datos.set(base, huella);
+            for (int i = 1; i < ANCHO; i++) {
+                datos.set(base + i, 0);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Cuenta una visita al estado por la acción dada, antes de saber cómo acaba: mientras
+     * tanto la acción parece peor (pérdida virtual) y los demás hilos prueban otras
+     */
+    void visitar(long huella, int accion) {
+        sumar(huella, accion, 1, 0);
+    }
+
+    /**
+     * Suma la recompensa obtenida tras tomar la acción en el estado
+     */
+    void recompensar(long huella, int accion, double recompensa) {
+        sumar(huella, accion, 0, (long) (recompensa * ESCALA));
+    }
+
+    private void sumar(long huella, int accion, int visitas, long recompensa) {
+        int base = base(huella);
+        if (sinBloqueos) {
+            sumarRanura(base, huella, accion, visitas, recompensa);
+            return;
+        }
+        synchronized (cerrojo(base)) {
+            sumarRanura(base, huella, accion, visitas, recompensa);
+        }
+    }
+
+    private void sumarRanura(int base, long huella, int accion, int visitas, long recompensa) {
+        if (datos.get(base) != huella) {
+            return; // otro estado ocupó la ranura: estas estadísticas ya no tienen dónde ir
+        }
+        if (visitas != 0) {
+            datos.getAndAdd(base + 1, visitas);
+            datos.getAndAdd(base + 2 + 2 * accion, visitas);
+        }
+        if (recompensa != 0) {
+            datos.getAndAdd(base + 3 + 2 * accion, recompensa);
+        }
+    }
+
+    /** Recompensa media de una acción a partir de lo copiado por leer() */
+    static double media(long[] estadisticas, int accion) {
+        long visitas = estadisticas[1 + 2 * accion];
+        return visitas == 0 ? 0 : estadisticas[2 + 2 * accion] / ESCALA / visitas;
+    }
+
+    static long visitas(long[] estadisticas, int accion) {
+        return estadisticas[1 + 2 * accion];
+    }
+
+    /** Tamaño del arreglo que pide leer() */
+    static int anchoEstadisticas() {
+        return ANCHO - 1;
+    }
+
+    void vaciar() {
+        for (int i = 0; i < datos.length(); i++) {
+            datos.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package model;
+
+/**
+ * Estructura con la que la mesa guarda el orden de los pastores en el corro.
+ * Se elige al construir la {@link Mesa}.
+ */
+public enum TipoCorro {
+    /** Lista contigua: acceso directo barato, pero sacar a un pastor desplaza a los demás (O(n)). */
+    LISTA,
+    /** Anillo de estadísticos de orden sobre un árbol de Fenwick: sacar, ubicar y contar vecinos en O(log n). */
+    INDEXADO
+}
@@ -0,0 +1,194 @@
+package model;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Torneo de Monte Carlo: reparte muchas partidas independientes entre todos los núcleos
+ * con un ForkJoinPool y combina al final los resultados de cada trabajador.
+ * Cada partida tiene su propia semilla, que depende solo de la semilla de su celda y de su número
+ * de la partida (SimuladorRueda.semillaDePartida), y juega con su propio SplittableRandom:
+ * ningún hilo comparte azar con otro, el resultado es el mismo con uno o con muchos hilos
+ * y cualquier partida se puede volver a jugar sola con repetirPartida.
+ * La política la comparten todos los hilos y partidas: debe ser sin estado
+ * (PoliticaAccion.isSinEstado), o unas partidas influirían en otras y no se podrían repetir.
+ */
+public class TorneoRueda {
+    /** Partidas que juega un trabajador de un tirón antes de dejar de partir el tramo */
+    private static final int PARTIDAS_POR_TRAMO = 64;
+    
+    private final PoliticaAccion politica;
+    private final long semilla;
+    private final ForkJoinPool pool;
+    private TipoCorro tipoCorro = TipoCorro.LISTA;
+    private int maxTurnos = SimuladorRueda.MAX_TURNOS_POR_DEFECTO;
+    
+    /**
+     * Constructor del torneo sobre el pool común (tantos hilos como núcleos)
+     */
+    public TorneoRueda(PoliticaAccion politica, long semilla) {
+        this(politica, semilla, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Constructor del torneo sobre un pool dado, p. ej. para fijar el número de hilos
+     * @throws IllegalArgumentException si la política guarda estado
+     */
+    public TorneoRueda(PoliticaAccion politica, long semilla, ForkJoinPool pool) {
+        if (!politica.isSinEstado()) {
+            throw new IllegalArgumentException(
+                    "La política del torneo se comparte entre partidas: debe ser sin estado");
+        }
+        this.politica = politica;
+        this.semilla = semilla;
+        this.pool = pool;
+    }
+    
+    public void setTipoCorro(TipoCorro tipoCorro) {
+        this.tipoCorro = tipoCorro;
+    }
+    
+    public void setMaxTurnos(int maxTurnos) {
+        this.maxTurnos = Math.max(1, maxTurnos);
+    }
+    
+    /**
+     * Juega un torneo de una configuración, con la semilla del torneo en lugar de la suya
+     * partidas número de partidas a jugar
+     * @return victorias por asiento, trato y riqueza inicial, y rendimiento
+     */
+    public ResultadoTorneo jugar(ConfiguracionRueda configuracion, int partidas) {
+        return jugarCelda(configuracion.conSemilla(semilla), partidas);
+    }
+    
+    /**
+     * Juega las partidas de una configuración que ya lleva puesta la semilla de la celda
+     */
+    private ResultadoTorneo jugarCelda(ConfiguracionRueda configuracion, int partidas) {
+        long inicio = System.nanoTime();
+        ResultadoTorneo resultado = pool.invoke(new Tramo(configuracion, 0, partidas));
+        resultado.setNanos(System.nanoTime() - inicio);
+        return resultado;
+    }
+    
+    /**
+     * Barre una rejilla de configuraciones (numPastores × valorN), jugando el mismo número de
+     * partidas en cada celda. La celda número k de la rejilla juega con la semilla
+     * semillaDeCelda(k), que lleva puesta su configuración.
+     * @return resultados por configuración, en el orden de la rejilla
+     * @throws IllegalArgumentException si alguna celda no cabe en ConfiguracionRueda, que la
+     *         ajustaría a otra; se comprueba antes de jugar ninguna
+     */
+    public Map<ConfiguracionRueda, ResultadoTorneo> barrer(int[] numPastores, int[] valoresN, int partidasPorCelda) {
+        for (int pastores : numPastores) {
+            for (int n : valoresN) {
+                try {
+                    ConfiguracionRueda.exigirEnRango(pastores, n);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(
+                            String.format("Celda de %d pastores y n %d: %s", pastores, n, e.getMessage()), e);
+                }
+            }
+        }
+        
+        Map<ConfiguracionRueda, ResultadoTorneo> resultados = new LinkedHashMap<>();
+        int celda = 0;
+        for (int pastores : numPastores) {
+            for (int n : valoresN) {
+                ConfiguracionRueda configuracion = new ConfiguracionRueda(pastores, n).conSemilla(semillaDeCelda(celda++));
+                resultados.put(configuracion, jugarCelda(configuracion, partidasPorCelda));
+            }
+        }
+        return resultados;
+    }
+    
+    /**
+     * Semilla de la celda número k de barrer
+     */
+    public long semillaDeCelda(int k) {
+        return SimuladorRueda.semillaDePartida(semilla, k);
+    }
+    
+    /**
+     * Vuelve a jugar sola una partida del torneo, con el mismo resultado que tuvo en él
+     * configuracion la del resultado (ResultadoTorneo.getConfiguracion()), que lleva la semilla de su celda
+     * partida número de la partida dentro de la celda
+     * @return el juego terminado (o parado en el límite de turnos)
+     */
+    public JuegoRueda repetirPartida(ConfiguracionRueda configuracion, int partida) {
+        JuegoRueda juego = crearPartida(configuracion, partida);
+        SimuladorRueda.jugarPartida(juego, politica, maxTurnos);
+        return juego;
+    }
+    
+    private JuegoRueda crearPartida(ConfiguracionRueda configuracion, int partida) {
+        long semillaPartida = SimuladorRueda.semillaDePartida(configuracion.getSemilla(), partida);
+        return new JuegoRueda(configuracion.conSemilla(semillaPartida), tipoCorro);
+    }
+    
+    /**
+     * Tramo [desde, hasta) de partidas. Se parte por la mitad hasta PARTIDAS_POR_TRAMO;
+     * como cada partida saca su semilla de su número, no importa qué hilo juegue cada tramo.
+     */
+    private class Tramo extends RecursiveTask<ResultadoTorneo> {
+        private static final long serialVersionUID = 1L;
+        
+        private final ConfiguracionRueda configuracion;
+        private final int desde;
+        private final int hasta;
+        
+        Tramo(ConfiguracionRueda configuracion, int desde, int hasta) {
+            this.configuracion = configuracion;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+        
+        @Override
+        protected ResultadoTorneo compute() {
+            if (hasta - desde <= PARTIDAS_POR_TRAMO) {
+                return jugarTramo();
+            }
+            int medio = (desde + hasta) >>> 1;
+            Tramo derecho = new Tramo(configuracion, medio, hasta);
+            Tramo izquierdo = new Tramo(configuracion, desde, medio);
+            derecho.fork();
+            ResultadoTorneo resultado = izquierdo.compute();
+            return resultado.combinar(derecho.join());
+        }
+        
+        private ResultadoTorneo jugarTramo() {
+            ResultadoTorneo resultado = new ResultadoTorneo(configuracion);
+            int numPastores = configuracion.getNumPastores();
+            int[] asientoInicial = new int[numPastores + 1];   // por id de pastor
+            int[] puestoRiqueza = new int[numPastores + 1];
+            Integer[] porRiqueza = new Integer[numPastores];
+            
+            for (int i = desde; i < hasta; i++) {
+                JuegoRueda juego = crearPartida(configuracion, i);
+                
+                List<Pastor> iniciales = juego.getMesa().obtenerPastoresEnMesa();
+                for (int asiento = 0; asiento < iniciales.size(); asiento++) {
+                    asientoInicial[iniciales.get(asiento).getId()] = asiento;
+                    porRiqueza[asiento] = asiento;
+                }
+                // Puesto por doblones iniciales; a igualdad, el de asiento menor
+                Arrays.sort(porRiqueza, 0, iniciales.size(),
+                        (a, b) -> Integer.compare(iniciales.get(b).getDoblones(), iniciales.get(a).getDoblones()));
+                for (int puesto = 0; puesto < iniciales.size(); puesto++) {
+                    puestoRiqueza[iniciales.get(porRiqueza[puesto]).getId()] = puesto;
+                }
+                
+                int turnos = SimuladorRueda.jugarPartida(juego, politica, maxTurnos);
+                Pastor rey = juego.obtenerReyDeBurlasYVeras();
+                if (rey != null) {
+                    resultado.anotar(turnos, asientoInicial[rey.getId()], puestoRiqueza[rey.getId()],
+                                     rey.getTratoOrdinal(), rey.getDoblones());
+                } else {
+                    resultado.anotar(turnos, -1, -1, RegistroTratos.SIN_TRATO, 0);
+                }
+            }
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package view;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Aviso breve que flota sobre la parte baja de la ventana y se esconde solo, sin bloquear
+ * nada ni pedir que se cierre. Un aviso nuevo reemplaza al que se esté viendo.
+ * Se usa solo desde el hilo de Swing.
+ */
+final class AvisoFlotante extends JLabel {
+    private static final long serialVersionUID = 1L;
+    private static final int DURACION_MS = 2500;
+    private static final int MARGEN = 24;
+    private static final Color COLOR_TEXTO = Color.WHITE;
+    private static final Font FONT_AVISO = new Font("Arial", Font.BOLD, 13);
+
+    private final Timer esconder = new Timer(DURACION_MS, e -> setVisible(false));
+
+    AvisoFlotante() {
+        setOpaque(true);
+        setForeground(COLOR_TEXTO);
+        setFont(FONT_AVISO);
+        setBorder(BorderFactory.createEmptyBorder(8, 14, 8, 14));
+        setVisible(false);
+        esconder.setRepeats(false);
+    }
+
+    /**
+     * Muestra el texto sobre el fondo dado, centrado abajo del contenedor del aviso
+     */
+    void mostrar(String texto, Color fondo) {
+        Container capa = getParent();
+        if (capa == null) {
+            return;
+        }
+        setText(texto);
+        setBackground(fondo);
+        Dimension tamaño = getPreferredSize();
+        int ancho = Math.min(tamaño.width, Math.max(0, capa.getWidth() - 2 * MARGEN));
+        setBounds((capa.getWidth() - ancho) / 2, capa.getHeight() - tamaño.height - MARGEN, ancho, tamaño.height);
+        setVisible(true);
+        esconder.restart();
+    }
+}
@@ -0,0 +1,83 @@
+package view;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import model.EstadoRueda;
+
+/**
+ * Buzón entre el controlador y el hilo de Swing que guarda como mucho un estado pendiente:
+ * cada estado publicado reemplaza al que aún no se pintó, y el hilo de Swing pinta el último
+ * una vez por cuadro, a lo sumo fps veces por segundo. Los estados intermedios que el ojo no
+ * llegaría a ver se descartan, así que la cola de eventos de Swing no crece por rápido que
+ * vaya la partida: hay como mucho una tarea de pintado en camino.
+ */
+final class BuzonEstados {
+    private final AtomicReference<EstadoRueda> pendiente = new AtomicReference<>();
+    private final AtomicBoolean programado = new AtomicBoolean();
+    private final LongAdder descartados = new LongAdder();
+    private final Consumer<EstadoRueda> pintar;
+    private final Timer reloj;
+    private volatile long periodoNanos;
+    private long ultimoCuadro = System.nanoTime() - TimeUnit.SECONDS.toNanos(1); // solo en el hilo de Swing
+
+    /**
+     * pintar lo que pinta un estado; se llama siempre en el hilo de Swing
+     * fps cuadros por segundo como mucho
+     */
+    BuzonEstados(Consumer<EstadoRueda> pintar, int fps) {
+        this.pintar = pintar;
+        this.reloj = new Timer(0, e -> cuadro());
+        this.reloj.setRepeats(false);
+        setFps(fps);
+    }
+
+    void setFps(int fps) {
+        this.periodoNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, fps);
+    }
+
+    /**
+     * Deja el estado para el próximo cuadro. Se puede llamar desde cualquier hilo y no espera.
+     */
+    void publicar(EstadoRueda estado) {
+        if (pendiente.getAndSet(estado) != null) {
+            descartados.increment();
+        }
+        if (programado.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::programarCuadro);
+        }
+    }
+
+    /**
+     * @return cuántos estados se reemplazaron sin llegar a pintarse
+     */
+    long getDescartados() {
+        return descartados.sum();
+    }
+
+    /** En el hilo de Swing: pinta ya si pasó un cuadro desde el anterior, o espera a que pase */
+    private void programarCuadro() {
+        long espera = ultimoCuadro + periodoNanos - System.nanoTime();
+        if (espera <= 0) {
+            cuadro();
+        } else {
+            reloj.setInitialDelay((int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(espera)));
+            reloj.restart();
+        }
+    }
+
+    private void cuadro() {
+        ultimoCuadro = System.nanoTime();
+        // Se suelta antes de tomar el estado: lo que se publique desde aquí programa otro cuadro
+        programado.set(false);
+        EstadoRueda estado = pendiente.getAndSet(null);
+        if (estado != null) {
+            pintar.accept(estado);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package view;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.geom.*;
+import java.awt.image.BufferedImage;
 import java.util.*;
 import java.util.List;
 import model.*;
@@ -10,6 +11,12 @@ import model.*;
 /**
  * Panel que dibuja la mesa redonda con los pastores en círculo
  * "que pinte la mesa por círculos"
+ * <p>
+ * Lo que no cambia entre cuadros (fondo, mesa y leyenda) se pinta una vez en una imagen que
+ * se rehace solo al cambiar el tamaño; la posición de los asientos se calcula solo al cambiar
+ * el número de pastores, y colores, trazos, fuentes y textos se preparan de antemano, así que
+ * repintar no crea objetos.
+ * </p>
  */
 public class PanelCircular extends JPanel {
     
@@ -27,12 +34,60 @@ public class PanelCircular extends JPanel {
     private final Color COLOR_TEXTO = Color.WHITE;
     private final Color COLOR_FONDO = new Color(245, 245, 220); // Beige
     
+    // Colores derivados, calculados una vez para no crearlos en cada cuadro
+    private final Color COLOR_SOMBRA_MESA = new Color(0, 0, 0, 50);
+    private final Color COLOR_SOMBRA_PASTOR = new Color(0, 0, 0, 100);
+    private final Color COLOR_BORDE_MESA = COLOR_MESA.darker();
+    private final Color COLOR_INTERIOR_MESA = COLOR_MESA.brighter();
+    private final Color COLOR_BORDE_NORMAL = COLOR_PASTOR_NORMAL.darker();
+    private final Color COLOR_BORDE_ACTUAL = COLOR_PASTOR_ACTUAL.darker();
+    private final Color COLOR_BORDE_RICO = COLOR_PASTOR_RICO.darker();
+    private final Color COLOR_BORDE_POBRE = COLOR_PASTOR_POBRE.darker();
+    
+    private final BasicStroke TRAZO_FINO = new BasicStroke(1);
+    private final BasicStroke TRAZO_MEDIO = new BasicStroke(2);
+    private final BasicStroke TRAZO_GRUESO = new BasicStroke(3);
+    
     // Configuración de tamaños
     private final int RADIO_MESA = 180;
     private final int RADIO_PASTOR = 35;
     private final int RADIO_PASTOR_ACTUAL = 45;
+    private final int LARGO_NOMBRE = 8;
     private final Font FONT_NOMBRE = new Font("Arial", Font.BOLD, 10);
+    private final Font FONT_NOMBRE_ACTUAL = FONT_NOMBRE.deriveFont(12f);
+    private final Font FONT_TRATO = FONT_NOMBRE.deriveFont(Font.BOLD, 14f);
     private final Font FONT_RECURSOS = new Font("Arial", Font.PLAIN, 8);
+    private final Font FONT_NUMERO = new Font("Arial", Font.BOLD, 12);
+    private final Font FONT_VACIO = new Font("Arial", Font.ITALIC, 16);
+    private final Font FONT_LEYENDA = new Font("Arial", Font.PLAIN, 11);
+    private final String MENSAJE_VACIO = "Mesa vacía";
+    
+    // Métricas de las fuentes, tomadas una vez
+    private final FontMetrics fmNombre = getFontMetrics(FONT_NOMBRE);
+    private final FontMetrics fmNombreActual = getFontMetrics(FONT_NOMBRE_ACTUAL);
+    private final FontMetrics fmTrato = getFontMetrics(FONT_TRATO);
+    private final FontMetrics fmRecursos = getFontMetrics(FONT_RECURSOS);
+    private final FontMetrics fmNumero = getFontMetrics(FONT_NUMERO);
+    private final FontMetrics fmVacio = getFontMetrics(FONT_VACIO);
+    
+    // Capa fija (fondo, mesa y leyenda) pintada una vez; se rehace solo al cambiar el tamaño
+    private BufferedImage capaFija;
+    
+    // Asientos: desplazamiento de cada uno desde el centro y su número, según cuántos hay;
+    // se recalculan solo cuando cambia el número de pastores
+    private int[] asientoX = new int[0];
+    private int[] asientoY = new int[0];
+    private String[] numeroAsiento = new String[0];
+    
+    // Textos de cada asiento, rehechos solo cuando cambia lo que muestran
+    private String[] nombreVisto = new String[0];
+    private String[] tratoVisto = new String[0];
+    private int[] doblonesVistos = new int[0];
+    private int[] feligresesVistos = new int[0];
+    private String[] nombreAsiento = new String[0];
+    private String[] tratoAsiento = new String[0];
+    private String[] doblonesAsiento = new String[0];
+    private String[] feligresesAsiento = new String[0];
     
     public PanelCircular() {
         this.pastores = new ArrayList<>();
@@ -47,7 +102,8 @@ public class PanelCircular extends JPanel {
      * posicionActual posición del pastor con turno (-1 si no hay)
      */
     public void setPastores(List<Pastor> pastores, int posicionActual) {
-        this.pastores = new ArrayList<>(pastores);
+        // Las instantáneas del modelo son inmutables: no hace falta copiarlas
+        this.pastores = pastores instanceof SecuenciaPersistente ? pastores : new ArrayList<>(pastores);
         this.posicionActual = posicionActual;
         calcularPastoresEspeciales();
         repaint();
@@ -80,7 +136,7 @@ public class PanelCircular extends JPanel {
      * Limpia el panel
      */
     public void limpiar() {
-        pastores.clear();
+        pastores = new ArrayList<>();
         posicionActual = -1;
         masRico = null;
         masPobre = null;
@@ -89,9 +145,13 @@ public class PanelCircular extends JPanel {
     
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
+        // La capa fija cubre todo el panel, fondo incluido: no hace falta super.paintComponent
+        g.drawImage(capaFija(), 0, 0, null);
         
-        Graphics2D g2d = (Graphics2D) g.create();
+        Graphics2D g2d = (Graphics2D) g;
+        Object antialiasAntes = g2d.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+        Object textoAntes = g2d.getRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING);
+        Stroke trazoAntes = g2d.getStroke();
         
         // Activar antialiasing para mejor calidad visual
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
@@ -101,9 +161,6 @@ public class PanelCircular extends JPanel {
         int centerX = getWidth() / 2;
         int centerY = getHeight() / 2;
         
-        // Dibujar mesa redonda
-        dibujarMesa(g2d, centerX, centerY);
-        
         // Dibujar pastores si los hay
         if (!pastores.isEmpty()) {
             dibujarPastores(g2d, centerX, centerY);
@@ -111,10 +168,44 @@ public class PanelCircular extends JPanel {
             dibujarMensajeVacio(g2d, centerX, centerY);
         }
         
-        // Dibujar leyenda
-        dibujarLeyenda(g2d);
+        // Se deja el contexto como llegó, sin copiarlo, para no crear nada en cada cuadro
+        g2d.setStroke(trazoAntes);
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialiasAntes);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, textoAntes);
+    }
+    
+    @Override
+    public void setBackground(Color fondo) {
+        super.setBackground(fondo);
+        capaFija = null; // el fondo va pintado en la capa fija
+    }
+    
+    /**
+     * La capa fija del tamaño actual del panel, pintándola de nuevo si cambió el tamaño
+     */
+    private BufferedImage capaFija() {
+        int ancho = Math.max(1, getWidth());
+        int alto = Math.max(1, getHeight());
+        if (capaFija != null && capaFija.getWidth() == ancho && capaFija.getHeight() == alto) {
+            return capaFija;
+        }
+        if (capaFija != null) {
+            capaFija.flush();
+        }
+        GraphicsConfiguration configuracion = getGraphicsConfiguration();
+        capaFija = configuracion != null
+                ? configuracion.createCompatibleImage(ancho, alto, Transparency.OPAQUE)
+                : new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
         
+        Graphics2D g2d = capaFija.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setColor(getBackground());
+        g2d.fillRect(0, 0, ancho, alto);
+        dibujarMesa(g2d, ancho / 2, alto / 2);
+        dibujarLeyenda(g2d);
         g2d.dispose();
+        return capaFija;
     }
     
     /**
@@ -122,7 +213,7 @@ public class PanelCircular extends JPanel {
      */
     private void dibujarMesa(Graphics2D g2d, int centerX, int centerY) {
         // Sombra de la mesa
-        g2d.setColor(new Color(0, 0, 0, 50));
+        g2d.setColor(COLOR_SOMBRA_MESA);
         g2d.fillOval(centerX - RADIO_MESA + 5, centerY - RADIO_MESA + 5, 
                     RADIO_MESA * 2, RADIO_MESA * 2);
         
@@ -132,14 +223,14 @@ public class PanelCircular extends JPanel {
                     RADIO_MESA * 2, RADIO_MESA * 2);
         
         // Borde de la mesa
-        g2d.setColor(COLOR_MESA.darker());
-        g2d.setStroke(new BasicStroke(3));
+        g2d.setColor(COLOR_BORDE_MESA);
+        g2d.setStroke(TRAZO_GRUESO);
         g2d.drawOval(centerX - RADIO_MESA, centerY - RADIO_MESA, 
                     RADIO_MESA * 2, RADIO_MESA * 2);
         
         // Círculo interior (decorativo)
-        g2d.setColor(COLOR_MESA.brighter());
-        g2d.setStroke(new BasicStroke(2));
+        g2d.setColor(COLOR_INTERIOR_MESA);
+        g2d.setStroke(TRAZO_MEDIO);
         g2d.drawOval(centerX - RADIO_MESA + 20, centerY - RADIO_MESA + 20, 
                     (RADIO_MESA - 20) * 2, (RADIO_MESA - 20) * 2);
     }
@@ -149,22 +240,68 @@ public class PanelCircular extends JPanel {
      */
     private void dibujarPastores(Graphics2D g2d, int centerX, int centerY) {
         int numPastores = pastores.size();
+        if (asientoX.length != numPastores) {
+            calcularAsientos(numPastores);
+        }
         
         for (int i = 0; i < numPastores; i++) {
             Pastor pastor = pastores.get(i);
-            
-            // Calcular posición angular (empezar desde arriba y seguir en sentido horario)
-            double angulo = (2 * Math.PI * i / numPastores) - (Math.PI / 2);
-            
-            // Calcular posición del pastor
-            int pastorX = centerX + (int) (RADIO_MESA * Math.cos(angulo));
-            int pastorY = centerY + (int) (RADIO_MESA * Math.sin(angulo));
+            actualizarTextos(i, pastor);
             
             // Determinar si es el pastor actual
             boolean esActual = (i == posicionActual);
             
             // Dibujar el pastor
-            dibujarPastor(g2d, pastor, pastorX, pastorY, esActual, i);
+            dibujarPastor(g2d, pastor, centerX + asientoX[i], centerY + asientoY[i], esActual, i);
+        }
+    }
+    
+    /**
+     * Calcula dónde va cada asiento respecto del centro: empezando desde arriba y siguiendo en
+     * sentido horario. Prepara también los textos de cada asiento.
+     */
+    private void calcularAsientos(int numPastores) {
+        asientoX = new int[numPastores];
+        asientoY = new int[numPastores];
+        numeroAsiento = new String[numPastores];
+        for (int i = 0; i < numPastores; i++) {
+            double angulo = (2 * Math.PI * i / numPastores) - (Math.PI / 2);
+            asientoX[i] = (int) (RADIO_MESA * Math.cos(angulo));
+            asientoY[i] = (int) (RADIO_MESA * Math.sin(angulo));
+            numeroAsiento[i] = String.valueOf(i + 1);
+        }
+        nombreVisto = new String[numPastores];
+        tratoVisto = new String[numPastores];
+        doblonesVistos = new int[numPastores];
+        feligresesVistos = new int[numPastores];
+        nombreAsiento = new String[numPastores];
+        tratoAsiento = new String[numPastores];
+        doblonesAsiento = new String[numPastores];
+        feligresesAsiento = new String[numPastores];
+    }
+    
+    /**
+     * Rehace los textos del asiento si cambió lo que muestran
+     */
+    private void actualizarTextos(int asiento, Pastor pastor) {
+        String nombre = pastor.getNombre();
+        if (nombre != nombreVisto[asiento]) {
+            nombreVisto[asiento] = nombre;
+            // Recortar nombre si es muy largo
+            nombreAsiento[asiento] = nombre.length() > LARGO_NOMBRE ? nombre.substring(0, LARGO_NOMBRE) + "..." : nombre;
+        }
+        String trato = pastor.getTrato();
+        if (trato != tratoVisto[asiento]) {
+            tratoVisto[asiento] = trato;
+            tratoAsiento[asiento] = trato.substring(0, 1); // Primera letra
+        }
+        if (doblonesAsiento[asiento] == null || pastor.getDoblones() != doblonesVistos[asiento]) {
+            doblonesVistos[asiento] = pastor.getDoblones();
+            doblonesAsiento[asiento] = "D:" + pastor.getDoblones();
+        }
+        if (feligresesAsiento[asiento] == null || pastor.getFeligreses() != feligresesVistos[asiento]) {
+            feligresesVistos[asiento] = pastor.getFeligreses();
+            feligresesAsiento[asiento] = "F:" + pastor.getFeligreses();
         }
     }
     
@@ -177,7 +314,7 @@ public class PanelCircular extends JPanel {
         Color colorPastor = determinarColorPastor(pastor, esActual);
         
         // Dibujar sombra
-        g2d.setColor(new Color(0, 0, 0, 100));
+        g2d.setColor(COLOR_SOMBRA_PASTOR);
         g2d.fillOval(x - radio + 3, y - radio + 3, radio * 2, radio * 2);
         
         // Dibujar círculo del pastor
@@ -185,22 +322,22 @@ public class PanelCircular extends JPanel {
         g2d.fillOval(x - radio, y - radio, radio * 2, radio * 2);
         
         // Borde del pastor
-        g2d.setColor(colorPastor.darker());
-        g2d.setStroke(new BasicStroke(esActual ? 3 : 2));
+        g2d.setColor(colorBorde(colorPastor));
+        g2d.setStroke(esActual ? TRAZO_GRUESO : TRAZO_MEDIO);
         g2d.drawOval(x - radio, y - radio, radio * 2, radio * 2);
         
         // Si es el pastor actual, agregar anillo dorado
         if (esActual) {
             g2d.setColor(Color.YELLOW);
-            g2d.setStroke(new BasicStroke(2));
+            g2d.setStroke(TRAZO_MEDIO);
             g2d.drawOval(x - radio - 5, y - radio - 5, (radio + 5) * 2, (radio + 5) * 2);
         }
         
         // Dibujar información del pastor
-        dibujarInfoPastor(g2d, pastor, x, y, radio, esActual);
+        dibujarInfoPastor(g2d, posicion, x, y, esActual);
         
         // Dibujar número de posición
-        dibujarNumeroPosicion(g2d, posicion + 1, x, y, radio);
+        dibujarNumeroPosicion(g2d, posicion, x, y, radio);
     }
     
     /**
@@ -219,42 +356,41 @@ public class PanelCircular extends JPanel {
     }
     
     /**
-     * Dibuja la información del pastor (nombre y recursos)
+     * Color del borde de cada color de pastor, ya calculado
      */
-    private void dibujarInfoPastor(Graphics2D g2d, Pastor pastor, int x, int y, int radio, boolean esActual) {
+    private Color colorBorde(Color colorPastor) {
+        if (colorPastor == COLOR_PASTOR_ACTUAL) {
+            return COLOR_BORDE_ACTUAL;
+        } else if (colorPastor == COLOR_PASTOR_RICO) {
+            return COLOR_BORDE_RICO;
+        } else if (colorPastor == COLOR_PASTOR_POBRE) {
+            return COLOR_BORDE_POBRE;
+        } else {
+            return COLOR_BORDE_NORMAL;
+        }
+    }
+    
+    /**
+     * Dibuja la información del pastor del asiento (nombre y recursos)
+     */
+    private void dibujarInfoPastor(Graphics2D g2d, int asiento, int x, int y, boolean esActual) {
         g2d.setColor(COLOR_TEXTO);
         
         // Nombre del pastor
-        g2d.setFont(esActual ? FONT_NOMBRE.deriveFont(12f) : FONT_NOMBRE);
-        FontMetrics fmNombre = g2d.getFontMetrics();
-        String nombre = pastor.getNombre();
-        
-        // Recortar nombre si es muy largo
-        if (nombre.length() > 8) {
-            nombre = nombre.substring(0, 8) + "...";
-        }
-        
-        int nombreX = x - fmNombre.stringWidth(nombre) / 2;
-        int nombreY = y - 5;
-        g2d.drawString(nombre, nombreX, nombreY);
+        String nombre = nombreAsiento[asiento];
+        FontMetrics fm = esActual ? fmNombreActual : fmNombre;
+        g2d.setFont(esActual ? FONT_NOMBRE_ACTUAL : FONT_NOMBRE);
+        g2d.drawString(nombre, x - fm.stringWidth(nombre) / 2, y - 5);
         
         // Recursos (doblones y feligreses)
         g2d.setFont(FONT_RECURSOS);
-        FontMetrics fmRecursos = g2d.getFontMetrics();
-        
-        String doblones = "D:" + pastor.getDoblones();
-        String feligreses = "F:" + pastor.getFeligreses();
-        
-        int doblonesX = x - fmRecursos.stringWidth(doblones) / 2;
-        int feligresesX = x - fmRecursos.stringWidth(feligreses) / 2;
-        
-        g2d.drawString(doblones, doblonesX, y + 5);
-        g2d.drawString(feligreses, feligresesX, y + 15);
+        String doblones = doblonesAsiento[asiento];
+        String feligreses = feligresesAsiento[asiento];
+        g2d.drawString(doblones, x - fmRecursos.stringWidth(doblones) / 2, y + 5);
+        g2d.drawString(feligreses, x - fmRecursos.stringWidth(feligreses) / 2, y + 15);
         
         // Trato/oficio
-        String trato = pastor.getTrato().substring(0, 1); // Primera letra
-        g2d.setFont(FONT_NOMBRE.deriveFont(Font.BOLD, 14f));
-        FontMetrics fmTrato = g2d.getFontMetrics();
+        String trato = tratoAsiento[asiento];
         int tratoX = x - fmTrato.stringWidth(trato) / 2;
         int tratoY = y - 15;
         
@@ -262,27 +398,27 @@ public class PanelCircular extends JPanel {
         g2d.setColor(Color.WHITE);
         g2d.fillOval(x - 8, y - 22, 16, 16);
         g2d.setColor(Color.BLACK);
+        g2d.setFont(FONT_TRATO);
         g2d.drawString(trato, tratoX, tratoY);
     }
     
     /**
      * Dibuja el número de posición del pastor
      */
-    private void dibujarNumeroPosicion(Graphics2D g2d, int numero, int x, int y, int radio) {
+    private void dibujarNumeroPosicion(Graphics2D g2d, int asiento, int x, int y, int radio) {
         // Círculo pequeño para el número
         g2d.setColor(Color.BLACK);
         g2d.fillOval(x + radio - 10, y - radio, 20, 20);
         
         g2d.setColor(Color.WHITE);
-        g2d.setStroke(new BasicStroke(1));
+        g2d.setStroke(TRAZO_FINO);
         g2d.drawOval(x + radio - 10, y - radio, 20, 20);
         
         // Número
-        g2d.setFont(new Font("Arial", Font.BOLD, 12));
-        FontMetrics fm = g2d.getFontMetrics();
-        String numStr = String.valueOf(numero);
-        int numX = x + radio - fm.stringWidth(numStr) / 2;
-        int numY = y - radio + fm.getAscent() - 2;
+        g2d.setFont(FONT_NUMERO);
+        String numStr = numeroAsiento[asiento];
+        int numX = x + radio - fmNumero.stringWidth(numStr) / 2;
+        int numY = y - radio + fmNumero.getAscent() - 2;
         
         g2d.drawString(numStr, numX, numY);
     }
@@ -292,18 +428,16 @@ public class PanelCircular extends JPanel {
      */
     private void dibujarMensajeVacio(Graphics2D g2d, int centerX, int centerY) {
         g2d.setColor(Color.GRAY);
-        g2d.setFont(new Font("Arial", Font.ITALIC, 16));
+        g2d.setFont(FONT_VACIO);
         
-        String mensaje = "Mesa vacía";
-        FontMetrics fm = g2d.getFontMetrics();
-        int mensajeX = centerX - fm.stringWidth(mensaje) / 2;
-        int mensajeY = centerY + fm.getAscent() / 2;
+        int mensajeX = centerX - fmVacio.stringWidth(MENSAJE_VACIO) / 2;
+        int mensajeY = centerY + fmVacio.getAscent() / 2;
         
-        g2d.drawString(mensaje, mensajeX, mensajeY);
+        g2d.drawString(MENSAJE_VACIO, mensajeX, mensajeY);
     }
     
     /**
-     * Dibuja la leyenda de colores
+     * Dibuja la leyenda de colores (en la capa fija)
      */
     private void dibujarLeyenda(Graphics2D g2d) {
         int x = 10;
@@ -311,7 +445,7 @@ public class PanelCircular extends JPanel {
         int tamaño = 15;
         int espacioY = 25;
         
-        g2d.setFont(new Font("Arial", Font.PLAIN, 11));
+        g2d.setFont(FONT_LEYENDA);
         
         // Pastor actual
         g2d.setColor(COLOR_PASTOR_ACTUAL);
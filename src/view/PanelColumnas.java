@@ -43,7 +43,8 @@ public class PanelColumnas extends JPanel {
      * desposeidos lista de pastores desposeídos (desde el fondo hasta la cima)
      */
     public void setDesposeidos(List<Pastor> desposeidos) {
-        this.desposeidos = new ArrayList<>(desposeidos);
+        // Las instantáneas del modelo son inmutables: no hace falta copiarlas
+        this.desposeidos = desposeidos instanceof SecuenciaPersistente ? desposeidos : new ArrayList<>(desposeidos);
         repaint();
     }
     
@@ -51,7 +52,7 @@ public class PanelColumnas extends JPanel {
      * Limpia el panel
      */
     public void limpiar() {
-        desposeidos.clear();
+        desposeidos = new ArrayList<>();
         repaint();
     }
     
@@ -0,0 +1,271 @@
+package view;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Panel que lista los eventos de la partida (degüellos, rescates, hurtos, errores...) uno por
+ * renglón, sin ventanas que detengan el juego. Los eventos se guardan en un RegistroEventos
+ * acotado y solo se pintan los renglones que caen dentro de lo visible, así que pintar cuesta
+ * lo mismo con diez eventos que con diez mil.
+ * <p>
+ * agregar() se puede llamar desde cualquier hilo y no espera: anota el evento y, si no hay ya
+ * uno en camino, programa un refresco en el hilo de Swing, a lo sumo REFRESCOS_POR_SEGUNDO
+ * veces por segundo. Miles de eventos por segundo cuestan así unos pocos refrescos.
+ * Si la vista está al final sigue a los eventos nuevos; si no, se queda donde está.
+ * </p>
+ */
+public class PanelEventos extends JPanel implements Scrollable {
+    private static final long serialVersionUID = 1L;
+
+    /** Clases de evento, cada una con su color */
+    public enum TipoEvento {
+        DEGUELLO(new Color(220, 20, 60)),   // Carmesí
+        RESCATE(new Color(60, 179, 113)),   // Verde mar
+        HURTO(new Color(255, 165, 0)),      // Naranja
+        ERROR(new Color(178, 34, 34)),      // Rojo ladrillo
+        MENSAJE(new Color(100, 149, 237)),  // Azul aciano
+        FIN(new Color(184, 134, 11));       // Dorado oscuro
+
+        private static final TipoEvento[] TODOS = values();
+        private final Color color;
+
+        TipoEvento(Color color) {
+            this.color = color;
+        }
+
+        public Color getColor() {
+            return color;
+        }
+    }
+
+    public static final int CAPACIDAD_POR_DEFECTO = 10_000;
+    public static final int REFRESCOS_POR_SEGUNDO = 30;
+
+    // Configuración visual
+    private final Color COLOR_FONDO = Color.WHITE;
+    private final Color COLOR_TEXTO = Color.BLACK;
+    private final Color COLOR_NUMERO = Color.GRAY;
+    private final Font FONT_EVENTO = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+    private final int MARGEN = 4;
+    private final int LADO_MARCA = 6;
+
+    private final RegistroEventos registro;
+    private final AtomicBoolean programado = new AtomicBoolean();
+    private final Timer reloj;
+    private final int altoRenglon;
+    private final int anchoNumero;
+    private final int ascenso;
+    private long ultimoRefresco = System.nanoTime() - TimeUnit.SECONDS.toNanos(1); // solo en el hilo de Swing
+
+    // Lo que se pintó en el último refresco; solo en el hilo de Swing
+    private int filasVistas;
+    private long totalVisto;
+    private AvisoFlotante aviso;
+
+    // Renglones copiados del registro para pintar, reutilizados de un cuadro al siguiente
+    private String[] textosVisibles = new String[0];
+    private byte[] tiposVisibles = new byte[0];
+    private final StringBuilder numero = new StringBuilder();
+
+    public PanelEventos() {
+        this(CAPACIDAD_POR_DEFECTO);
+    }
+
+    /**
+     * capacidad cuántos eventos se conservan; los más antiguos se olvidan
+     */
+    public PanelEventos(int capacidad) {
+        this.registro = new RegistroEventos(capacidad);
+        this.reloj = new Timer(0, e -> refrescar());
+        this.reloj.setRepeats(false);
+        FontMetrics metricas = getFontMetrics(FONT_EVENTO);
+        this.altoRenglon = metricas.getHeight() + 2;
+        this.ascenso = metricas.getAscent() + 1;
+        this.anchoNumero = metricas.stringWidth("#0000000 ");
+        setBackground(COLOR_FONDO);
+        setOpaque(true);
+    }
+
+    /**
+     * Anota un evento. Se puede llamar desde cualquier hilo y no espera.
+     */
+    public void agregar(TipoEvento tipo, String texto) {
+        registro.agregar((byte) tipo.ordinal(), texto);
+        if (programado.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::programarRefresco);
+        }
+    }
+
+    /**
+     * @return cuántos eventos se anotaron desde el principio, olvidados o no
+     */
+    public long getTotalEventos() {
+        return registro.getTotal();
+    }
+
+    /**
+     * Aviso donde mostrar, en cada refresco, el último evento llegado (null: sin avisos).
+     * Solo en el hilo de Swing.
+     */
+    void setAviso(AvisoFlotante aviso) {
+        this.aviso = aviso;
+    }
+
+    /** En el hilo de Swing: refresca ya si pasó un cuadro desde el anterior, o espera a que pase */
+    private void programarRefresco() {
+        long periodo = TimeUnit.SECONDS.toNanos(1) / REFRESCOS_POR_SEGUNDO;
+        long espera = ultimoRefresco + periodo - System.nanoTime();
+        if (espera <= 0) {
+            refrescar();
+        } else {
+            reloj.setInitialDelay((int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(espera)));
+            reloj.restart();
+        }
+    }
+
+    private void refrescar() {
+        ultimoRefresco = System.nanoTime();
+        // Se suelta antes de leer: lo que se agregue desde aquí programa otro refresco
+        programado.set(false);
+        long total;
+        int filas;
+        synchronized (registro) {
+            total = registro.getTotal();
+            filas = registro.getFilas();
+        }
+        long nuevos = total - totalVisto;
+        // Renglones que se cayeron por arriba, al llenarse o vaciarse el registro
+        long caidos = nuevos - (filas - filasVistas);
+        totalVisto = total;
+        filasVistas = filas;
+        if (nuevos == 0 && caidos == 0) {
+            return;
+        }
+
+        JViewport ventana = getParent() instanceof JViewport ? (JViewport) getParent() : null;
+        if (ventana == null) {
+            revalidate();
+            repaint();
+        } else {
+            Point posicion = ventana.getViewPosition();
+            boolean alFinal = posicion.y + ventana.getExtentSize().height >= getHeight() - altoRenglon;
+            // Se ajusta el alto ya, para poder colocar la vista en este mismo refresco; las barras
+            // se ajustan al validar
+            setSize(ventana.getWidth(), filas * altoRenglon);
+            revalidate();
+            int maximo = Math.max(0, getHeight() - ventana.getExtentSize().height);
+            if (alFinal) {
+                posicion.y = maximo;
+            } else if (caidos > 0) {
+                // Los renglones a la vista suben al caer los de arriba: se sube la vista con ellos
+                posicion.y = (int) Math.max(0, posicion.y - caidos * altoRenglon);
+            }
+            ventana.setViewPosition(new Point(posicion.x, Math.min(posicion.y, maximo)));
+            ventana.repaint();
+        }
+
+        if (aviso != null && nuevos > 0) {
+            avisarUltimo(total);
+        }
+    }
+
+    private void avisarUltimo(long total) {
+        String[] texto = new String[1];
+        byte[] tipo = new byte[1];
+        registro.copiar(total - 1, 1, texto, tipo);
+        if (texto[0] != null) {
+            aviso.mostrar(texto[0], TipoEvento.TODOS[tipo[0]].getColor());
+        }
+    }
+
+    /**
+     * Olvida todos los eventos. Se puede llamar desde cualquier hilo.
+     */
+    public void limpiar() {
+        registro.vaciar();
+        if (programado.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::programarRefresco);
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(0, filasVistas * altoRenglon);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Rectangle recorte = g.getClipBounds();
+        if (recorte == null) {
+            recorte = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int primera = Math.max(0, recorte.y / altoRenglon);
+        int ultima = Math.min(filasVistas - 1, (recorte.y + recorte.height) / altoRenglon);
+        int cuantas = ultima - primera + 1;
+        if (cuantas <= 0) {
+            return;
+        }
+        if (textosVisibles.length < cuantas) {
+            textosVisibles = new String[cuantas];
+            tiposVisibles = new byte[cuantas];
+        }
+        // Las filas son las del último refresco; lo que llegó después se pinta en el siguiente
+        long primerEvento = totalVisto - filasVistas + primera;
+        registro.copiar(primerEvento, cuantas, textosVisibles, tiposVisibles);
+
+        Graphics2D g2d = (Graphics2D) g;
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2d.setFont(FONT_EVENTO);
+        for (int i = 0; i < cuantas; i++) {
+            String texto = textosVisibles[i];
+            textosVisibles[i] = null;
+            if (texto == null) {
+                continue; // el registro ya lo olvidó
+            }
+            int y = (primera + i) * altoRenglon;
+            g2d.setColor(TipoEvento.TODOS[tiposVisibles[i]].getColor());
+            g2d.fillRect(MARGEN, y + (altoRenglon - LADO_MARCA) / 2, LADO_MARCA, LADO_MARCA);
+
+            numero.setLength(0);
+            numero.append('#').append(primerEvento + i + 1);
+            g2d.setColor(COLOR_NUMERO);
+            g2d.drawString(numero.toString(), 2 * MARGEN + LADO_MARCA, y + ascenso);
+            g2d.setColor(COLOR_TEXTO);
+            g2d.drawString(texto, 2 * MARGEN + LADO_MARCA + anchoNumero, y + ascenso);
+        }
+    }
+
+    // Desplazamiento: de renglón en renglón con la rueda, de página en página con la barra
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(0, 10 * altoRenglon);
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visible, int orientacion, int direccion) {
+        return orientacion == SwingConstants.VERTICAL ? altoRenglon : MARGEN;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visible, int orientacion, int direccion) {
+        if (orientacion != SwingConstants.VERTICAL) {
+            return visible.width;
+        }
+        return Math.max(altoRenglon, visible.height - visible.height % altoRenglon);
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+}
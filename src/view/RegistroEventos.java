@@ -0,0 +1,65 @@
+package view;
+
+/**
+ * Búfer circular acotado con los últimos eventos de la partida (tipo y texto de cada uno).
+ * Cuando se llena, cada evento nuevo pisa al más antiguo, así que la memoria no crece por
+ * larga que sea la partida. Se llena desde el hilo del controlador y se lee desde el de
+ * Swing; cada operación toca unas pocas casillas bajo el cerrojo del registro, que se suelta
+ * enseguida.
+ */
+final class RegistroEventos {
+    private final String[] textos;
+    private final byte[] tipos;
+    private long total; // eventos agregados desde el principio; el evento e está en e % capacidad
+    private long vaciadoEn; // eventos anteriores a este número se olvidaron al vaciar
+
+    RegistroEventos(int capacidad) {
+        this.textos = new String[Math.max(1, capacidad)];
+        this.tipos = new byte[textos.length];
+    }
+
+    synchronized void agregar(byte tipo, String texto) {
+        int casilla = (int) (total % textos.length);
+        textos[casilla] = texto;
+        tipos[casilla] = tipo;
+        total++;
+    }
+
+    /**
+     * @return cuántos eventos se agregaron desde el principio; el siguiente tendrá este número
+     */
+    synchronized long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return cuántos eventos se conservan (como mucho la capacidad); son los últimos que se agregaron
+     */
+    synchronized int getFilas() {
+        return (int) Math.min(total - vaciadoEn, textos.length);
+    }
+
+    /**
+     * Copia los eventos numerados desde..desde+cuantas-1 (contando desde 0 el primero que se
+     * agregó) en los arreglos dados, reutilizables para no crear nada al pintar. El evento
+     * desde+i va a la casilla i; los que ya se olvidaron o aún no llegaron quedan en null.
+     */
+    synchronized void copiar(long desde, int cuantas, String[] destinoTextos, byte[] destinoTipos) {
+        long primero = Math.max(vaciadoEn, total - textos.length);
+        for (int i = 0; i < cuantas; i++) {
+            long evento = desde + i;
+            if (evento < primero || evento >= total) {
+                destinoTextos[i] = null;
+                continue;
+            }
+            int casilla = (int) (evento % textos.length);
+            destinoTextos[i] = textos[casilla];
+            destinoTipos[i] = tipos[casilla];
+        }
+    }
+
+    synchronized void vaciar() {
+        java.util.Arrays.fill(textos, null);
+        vaciadoEn = total; // los números siguen: quien pinta no confunde eventos de antes y después
+    }
+}
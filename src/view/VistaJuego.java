@@ -11,6 +11,8 @@ public interface VistaJuego {
     
     /**
      * Actualiza la visualización completa del juego con el nuevo estado
+     * Puede llamarse desde cualquier hilo y muy seguido: la vista puede saltarse estados
+     * intermedios y pintar solo el último
      * estado estado actual del juego
      */
     void actualizarEstado(EstadoRueda estado);
@@ -74,11 +76,11 @@ public interface VistaJuego {
     void mostrarReyFinal(Pastor ganador);
     
     /**
-     * Solicita al usuario que elija una acción
+     * Ofrece al usuario las acciones que puede elegir, sin esperar su respuesta:
+     * la elección llega después al controlador por ControladorJuego.recibirAccion
      * accionesDisponibles lista de acciones que puede tomar
-     * @return la acción elegida por el usuario
      */
-    AccionPastor pedirAccion(List<AccionPastor> accionesDisponibles);
+    void ofrecerAcciones(List<AccionPastor> accionesDisponibles);
     
     /**
      * Solicita al usuario que elija una dirección (para arrimar guadaña)
@@ -0,0 +1,107 @@
+package view;
+
+import java.util.List;
+import model.*;
+
+/**
+ * Vista que no muestra nada, para las partidas que se juegan en un servidor sin nadie
+ * mirando: todas las llamadas vuelven en seguida sin hacer nada. Como no ofrece las acciones
+ * a nadie, sus partidas las juega una política o, si no, el tiempo límite de cada turno.
+ */
+public class VistaSinPantalla implements VistaJuego {
+
+    @Override
+    public void actualizarEstado(EstadoRueda estado) {
+    }
+
+    @Override
+    public void pintarMesa(List<Pastor> pastores, int posicionActual) {
+    }
+
+    @Override
+    public void pintarPila(List<Pastor> desposeidos) {
+    }
+
+    @Override
+    public void mostrarTurno(Pastor pastorActual, boolean puedeHurtar, boolean puedeRescatar, int turno) {
+    }
+
+    @Override
+    public void mostrarDeguello(Pastor eliminado, Pastor eliminador, boolean direccion) {
+    }
+
+    @Override
+    public void mostrarRescate(Pastor rescatado, Pastor rescatador) {
+    }
+
+    @Override
+    public void mostrarHurtoPiadoso(Pastor ladron, Pastor victima, int doblonesRobados, int feligresesRobados) {
+    }
+
+    @Override
+    public void mostrarReyFinal(Pastor ganador) {
+    }
+
+    @Override
+    public void ofrecerAcciones(List<AccionPastor> accionesDisponibles) {
+    }
+
+    @Override
+    public boolean pedirDireccion() {
+        return true;
+    }
+
+    @Override
+    public void mostrarError(String mensaje) {
+    }
+
+    @Override
+    public void mostrarMensaje(String mensaje) {
+    }
+
+    @Override
+    public void mostrarEstadisticas(EstadoRueda estadoActual) {
+    }
+
+    @Override
+    public boolean pedirConfirmacion(String mensaje) {
+        return false;
+    }
+
+    @Override
+    public void inicializar(int numPastores, int valorN) {
+    }
+
+    @Override
+    public void limpiar() {
+    }
+
+    @Override
+    public ConfiguracionRueda solicitarConfiguracion() {
+        return null;
+    }
+
+    @Override
+    public void habilitarInteraccion(boolean habilitado) {
+    }
+
+    @Override
+    public void resaltarPastor(Pastor pastor, TipoResaltado tipo) {
+    }
+
+    @Override
+    public void animarEliminacion(Pastor pastor) {
+    }
+
+    @Override
+    public void animarRescate(Pastor pastor) {
+    }
+
+    @Override
+    public void actualizarRecursosPastor(Pastor pastor) {
+    }
+
+    @Override
+    public void cerrar() {
+    }
+}
@@ -28,6 +28,9 @@ public class VistaSwing implements VistaJuego {
     private JPanel panelControl;
     private JTextArea areaInfo;
     private JTextArea areaEstadisticas;
+    private final PanelEventos panelEventos = new PanelEventos();
+    private final AvisoFlotante aviso = new AvisoFlotante();
+    private boolean avisos = true;
     
     // Controles de acción
     private JButton btnArrimarDerecha;
@@ -36,9 +39,12 @@ public class VistaSwing implements VistaJuego {
     private JButton btnMeterMano;
     private JButton btnNuevoJuego;
     
+    /** Cuadros por segundo que se pintan como mucho al seguir una partida */
+    public static final int FPS_POR_DEFECTO = 60;
+    
     // Estado actual
     private EstadoRueda estadoActual;
-    private CompletableFuture<AccionPastor> futuraAccion;
+    private final BuzonEstados buzon = new BuzonEstados(this::pintarEstado, FPS_POR_DEFECTO);
     private CompletableFuture<Boolean> futuraDireccion;
     private controller.ControladorJuego controlador;
     
@@ -54,6 +60,25 @@ public class VistaSwing implements VistaJuego {
         // Constructor vacío, la inicialización se hace en inicializar()
     }
     
+    /**
+     * Cuadros por segundo que se pintan como mucho; los estados que lleguen entre dos cuadros
+     * se descartan salvo el último
+     */
+    public void setFpsMaximo(int fps) {
+        buzon.setFps(fps);
+    }
+    
+    /**
+     * Muestra o no, además de anotarlos en la lista de eventos, un aviso flotante con el último
+     * evento
+     */
+    public void setAvisos(boolean avisos) {
+        SwingUtilities.invokeLater(() -> {
+            this.avisos = avisos;
+            panelEventos.setAviso(avisos && ventanaPrincipal != null ? aviso : null);
+        });
+    }
+    
     /**
      * Establece la referencia al controlador
      * controlador el controlador del juego
@@ -69,6 +94,9 @@ public class VistaSwing implements VistaJuego {
             configurarComponentes();
             configurarEventos();
             ventanaPrincipal.setVisible(true);
+            if (estadoActual != null) {
+                pintarEstado(estadoActual);
+            }
         });
     }
     
@@ -97,6 +125,10 @@ public class VistaSwing implements VistaJuego {
         // Panel lateral - Información y estadísticas
         JPanel panelLateral = crearPanelLateral();
         ventanaPrincipal.add(panelLateral, BorderLayout.EAST);
+        
+        // Aviso flotante sobre todo lo demás
+        ventanaPrincipal.getLayeredPane().add(aviso, JLayeredPane.POPUP_LAYER);
+        panelEventos.setAviso(avisos ? aviso : null);
     }
     
     /**
@@ -189,8 +221,16 @@ public class VistaSwing implements VistaJuego {
         areaEstadisticas.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
         areaEstadisticas.setBorder(BorderFactory.createTitledBorder("Estadísticas"));
         
+        // Lista de eventos: se desplaza por sí sola mientras se mire el final
+        JScrollPane scrollEventos = new JScrollPane(panelEventos,
+                                                    JScrollPane.VERTICAL_SCROLLBAR_ALWAYS,
+                                                    JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+        scrollEventos.setBorder(BorderFactory.createTitledBorder("Eventos"));
+        scrollEventos.setPreferredSize(new Dimension(250, 220));
+        
         panel.add(new JScrollPane(areaInfo), BorderLayout.NORTH);
         panel.add(new JScrollPane(areaEstadisticas), BorderLayout.CENTER);
+        panel.add(scrollEventos, BorderLayout.SOUTH);
         
         return panel;
     }
@@ -216,11 +256,13 @@ public class VistaSwing implements VistaJuego {
     }
     
     /**
-     * Completa una acción cuando el usuario hace clic
+     * Entrega la acción al controlador cuando el usuario hace clic; los botones se apagan
+     * hasta que el controlador ofrezca las del turno siguiente
      */
     private void completarAccion(AccionPastor accion) {
-        if (futuraAccion != null && !futuraAccion.isDone()) {
-            futuraAccion.complete(accion);
+        habilitarBotones(false);
+        if (controlador != null) {
+            controlador.recibirAccion(accion);
         }
     }
     
@@ -239,20 +281,29 @@ public class VistaSwing implements VistaJuego {
         }
     }
     
+    /**
+     * Deja el estado en el buzón: se pinta en el próximo cuadro si no llega otro antes.
+     * No copia nada (el estado es inmutable) ni encola más de un pintado a la vez.
+     */
     @Override
     public void actualizarEstado(EstadoRueda estado) {
+        buzon.publicar(estado);
+    }
+    
+    /**
+     * Pinta un estado entero en el hilo de Swing, sin encolar más tareas
+     */
+    private void pintarEstado(EstadoRueda estado) {
         this.estadoActual = estado;
-        SwingUtilities.invokeLater(() -> {
-            pintarMesa(estado.getPastoresEnMesa(), estado.getPosicionPastorActual());
-            pintarPila(estado.getPastoresDesposeidos());
-            mostrarTurno(estado.getPastorConTurno(), estado.isPuedeHurtar(), 
-                        estado.isPuedeRescatar(), estado.getTurno());
-            mostrarEstadisticas(estado);
-            
-            if (estado.isDanzaTerminada()) {
-                mostrarReyFinal(estado.getGanador());
-            }
-        });
+        if (ventanaPrincipal == null) {
+            return; // la ventana aún no está creada: lo pinta inicializar
+        }
+        panelMesa.setPastores(estado.getPastoresEnMesa(), estado.getPosicionPastorActual());
+        panelMesa.repaint();
+        panelPila.setDesposeidos(estado.getPastoresDesposeidos());
+        panelPila.repaint();
+        escribirTurno(estado.getPastorConTurno(), estado.isPuedeHurtar(), estado.isPuedeRescatar(), estado.getTurno());
+        escribirEstadisticas(estado);
     }
     
     @Override
@@ -273,86 +324,84 @@ public class VistaSwing implements VistaJuego {
     
     @Override
     public void mostrarTurno(Pastor pastorActual, boolean puedeHurtar, boolean puedeRescatar, int turno) {
-        SwingUtilities.invokeLater(() -> {
-            if (pastorActual == null) return;
-            
-            StringBuilder info = new StringBuilder();
-            info.append("=== TURNO ").append(turno).append(" ===\n");
-            info.append("Pastor: ").append(pastorActual.getNombre()).append("\n");
-            info.append("Doblones: ").append(pastorActual.getDoblones()).append("\n");
-            info.append("Feligreses: ").append(pastorActual.getFeligreses()).append("\n");
-            info.append("Trato: ").append(pastorActual.getTrato()).append("\n\n");
-            
-            info.append("Acciones disponibles:\n");
-            info.append("• Arrimar guadaña\n");
-            if (puedeRescatar) info.append("• Sacar del olvido\n");
-            if (puedeHurtar) info.append("• Hurto piadoso\n");
-            
-            areaInfo.setText(info.toString());
-            
-            // Actualizar título de ventana
-            ventanaPrincipal.setTitle("Juego de Pastores - Turno " + turno + 
-                                    " (" + pastorActual.getNombre() + ")");
-        });
+        SwingUtilities.invokeLater(() -> escribirTurno(pastorActual, puedeHurtar, puedeRescatar, turno));
+    }
+    
+    private void escribirTurno(Pastor pastorActual, boolean puedeHurtar, boolean puedeRescatar, int turno) {
+        if (pastorActual == null) return;
+        
+        StringBuilder info = new StringBuilder();
+        info.append("=== TURNO ").append(turno).append(" ===\n");
+        info.append("Pastor: ").append(pastorActual.getNombre()).append("\n");
+        info.append("Doblones: ").append(pastorActual.getDoblones()).append("\n");
+        info.append("Feligreses: ").append(pastorActual.getFeligreses()).append("\n");
+        info.append("Trato: ").append(pastorActual.getTrato()).append("\n\n");
+        
+        info.append("Acciones disponibles:\n");
+        info.append("• Arrimar guadaña\n");
+        if (puedeRescatar) info.append("• Sacar del olvido\n");
+        if (puedeHurtar) info.append("• Hurto piadoso\n");
+        
+        areaInfo.setText(info.toString());
+        
+        // Actualizar título de ventana
+        ventanaPrincipal.setTitle("Juego de Pastores - Turno " + turno + 
+                                " (" + pastorActual.getNombre() + ")");
     }
     
     @Override
     public void mostrarEstadisticas(EstadoRueda estado) {
-        SwingUtilities.invokeLater(() -> {
-            EstadisticasRecursos estatsMesa = estado.getEstadisticasRecursosMesa();
-            EstadisticasRecursos estatsPila = estado.getEstadisticasRecursosPila();
-            
-            StringBuilder stats = new StringBuilder();
-            stats.append("=== EN LA MESA ===\n");
-            stats.append("Pastores: ").append(estatsMesa.getNumPastores()).append("\n");
-            stats.append("Doblones: ").append(estatsMesa.getTotalDoblones()).append("\n");
-            stats.append("Feligreses: ").append(estatsMesa.getTotalFeligreses()).append("\n");
-            stats.append("Promedio D: ").append(String.format("%.1f", estatsMesa.getPromedioDoblones())).append("\n");
-            stats.append("Promedio F: ").append(String.format("%.1f", estatsMesa.getPromedioFeligreses())).append("\n\n");
-            
-            stats.append("=== DESPOSEÍDOS ===\n");
-            stats.append("Pastores: ").append(estatsPila.getNumPastores()).append("\n");
-            stats.append("Doblones: ").append(estatsPila.getTotalDoblones()).append("\n");
-            stats.append("Feligreses: ").append(estatsPila.getTotalFeligreses()).append("\n\n");
-            
-            stats.append("=== MÁS RICO ===\n");
-            if (estado.getMasRico() != null) {
-                Pastor rico = estado.getMasRico();
-                stats.append(rico.getNombre()).append("\n");
-                stats.append("D: ").append(rico.getDoblones()).append(" F: ").append(rico.getFeligreses()).append("\n\n");
-            }
-            
-            stats.append("=== MÁS POBRE ===\n");
-            if (estado.getMasPobre() != null) {
-                Pastor pobre = estado.getMasPobre();
-                stats.append(pobre.getNombre()).append("\n");
-                stats.append("D: ").append(pobre.getDoblones()).append(" F: ").append(pobre.getFeligreses()).append("\n");
-            }
-            
-            areaEstadisticas.setText(stats.toString());
-        });
+        SwingUtilities.invokeLater(() -> escribirEstadisticas(estado));
+    }
+    
+    private void escribirEstadisticas(EstadoRueda estado) {
+        EstadisticasRecursos estatsMesa = estado.getEstadisticasRecursosMesa();
+        EstadisticasRecursos estatsPila = estado.getEstadisticasRecursosPila();
+        
+        StringBuilder stats = new StringBuilder();
+        stats.append("=== EN LA MESA ===\n");
+        stats.append("Pastores: ").append(estatsMesa.getNumPastores()).append("\n");
+        stats.append("Doblones: ").append(estatsMesa.getTotalDoblones()).append("\n");
+        stats.append("Feligreses: ").append(estatsMesa.getTotalFeligreses()).append("\n");
+        stats.append("Promedio D: ").append(String.format("%.1f", estatsMesa.getPromedioDoblones())).append("\n");
+        stats.append("Promedio F: ").append(String.format("%.1f", estatsMesa.getPromedioFeligreses())).append("\n");
+        if (!Double.isNaN(estatsMesa.getGiniDoblones())) {
+            stats.append("Mediana D: ").append(String.format("%.0f", estatsMesa.getCuantilDoblones(0.5))).append("\n");
+            stats.append("Gini D: ").append(String.format("%.3f", estatsMesa.getGiniDoblones())).append("\n");
+        }
+        stats.append("\n");
+        
+        stats.append("=== DESPOSEÍDOS ===\n");
+        stats.append("Pastores: ").append(estatsPila.getNumPastores()).append("\n");
+        stats.append("Doblones: ").append(estatsPila.getTotalDoblones()).append("\n");
+        stats.append("Feligreses: ").append(estatsPila.getTotalFeligreses()).append("\n\n");
+        
+        stats.append("=== MÁS RICO ===\n");
+        if (estado.getMasRico() != null) {
+            Pastor rico = estado.getMasRico();
+            stats.append(rico.getNombre()).append("\n");
+            stats.append("D: ").append(rico.getDoblones()).append(" F: ").append(rico.getFeligreses()).append("\n\n");
+        }
+        
+        stats.append("=== MÁS POBRE ===\n");
+        if (estado.getMasPobre() != null) {
+            Pastor pobre = estado.getMasPobre();
+            stats.append(pobre.getNombre()).append("\n");
+            stats.append("D: ").append(pobre.getDoblones()).append(" F: ").append(pobre.getFeligreses()).append("\n");
+        }
+        
+        areaEstadisticas.setText(stats.toString());
     }
     
     @Override
-    public AccionPastor pedirAccion(List<AccionPastor> accionesDisponibles) {
+    public void ofrecerAcciones(List<AccionPastor> accionesDisponibles) {
         SwingUtilities.invokeLater(() -> {
-            // Habilitar solo los botones de acciones disponibles
+            // Habilitar solo los botones de acciones disponibles; el clic irá al controlador
             btnArrimarDerecha.setEnabled(accionesDisponibles.contains(AccionPastor.ARRIMAR_GUADAÑA_DERECHA));
             btnArrimarIzquierda.setEnabled(accionesDisponibles.contains(AccionPastor.ARRIMAR_GUADAÑA_IZQUIERDA));
             btnSacarOlvido.setEnabled(accionesDisponibles.contains(AccionPastor.SACAR_DEL_OLVIDO));
             btnMeterMano.setEnabled(accionesDisponibles.contains(AccionPastor.METER_MANO_FALTRIQUERA));
         });
-        
-        // Crear future para esperar acción del usuario
-        futuraAccion = new CompletableFuture<>();
-        
-        try {
-            return futuraAccion.get(); // Bloquea hasta que el usuario haga clic
-        } catch (Exception e) {
-            return AccionPastor.ARRIMAR_GUADAÑA_DERECHA; // Default
-        } finally {
-            SwingUtilities.invokeLater(() -> habilitarBotones(false));
-        }
     }
     
     @Override
@@ -362,34 +411,30 @@ public class VistaSwing implements VistaJuego {
         return true; // Default: derecha
     }
     
+    // Los eventos van a la lista de eventos sin detener a nadie: se pueden anotar miles por
+    // segundo desde el hilo del controlador
+    
     @Override
     public void mostrarDeguello(Pastor eliminado, Pastor eliminador, boolean direccion) {
-        SwingUtilities.invokeLater(() -> {
-            String dir = direccion ? "derecha" : "izquierda";
-            String mensaje = String.format("¡DEGÜELLO EJECUTADO!\n\n%s eliminó a %s\n(mirando hacia la %s)", 
-                                         eliminador.getNombre(), eliminado.getNombre(), dir);
-            JOptionPane.showMessageDialog(ventanaPrincipal, mensaje, "Degüello", JOptionPane.WARNING_MESSAGE);
-        });
+        String dir = direccion ? "derecha" : "izquierda";
+        panelEventos.agregar(PanelEventos.TipoEvento.DEGUELLO,
+                             String.format("%s degolló a %s (hacia la %s)",
+                                           eliminador.getNombre(), eliminado.getNombre(), dir));
     }
     
     @Override
     public void mostrarRescate(Pastor rescatado, Pastor rescatador) {
-        SwingUtilities.invokeLater(() -> {
-            String mensaje = String.format("¡RESCATE EXITOSO!\n\n%s rescató a %s del olvido\n\"Como Lázaro al llamado\"", 
-                                         rescatador.getNombre(), rescatado.getNombre());
-            JOptionPane.showMessageDialog(ventanaPrincipal, mensaje, "Rescate", JOptionPane.INFORMATION_MESSAGE);
-        });
+        panelEventos.agregar(PanelEventos.TipoEvento.RESCATE,
+                             String.format("%s rescató a %s del olvido",
+                                           rescatador.getNombre(), rescatado.getNombre()));
     }
     
     @Override
     public void mostrarHurtoPiadoso(Pastor ladron, Pastor victima, int doblonesRobados, int feligresesRobados) {
-        SwingUtilities.invokeLater(() -> {
-            String mensaje = String.format("¡HURTO PIADOSO!\n\n%s le quitó la tercia parte a %s\n" +
-                                         "Botín: %d doblones, %d feligreses", 
-                                         ladron.getNombre(), victima.getNombre(), 
-                                         doblonesRobados, feligresesRobados);
-            JOptionPane.showMessageDialog(ventanaPrincipal, mensaje, "Hurto Piadoso", JOptionPane.PLAIN_MESSAGE);
-        });
+        panelEventos.agregar(PanelEventos.TipoEvento.HURTO,
+                             String.format("%s hurtó a %s: %d doblones, %d feligreses",
+                                           ladron.getNombre(), victima.getNombre(),
+                                           doblonesRobados, feligresesRobados));
     }
     
     @Override
@@ -397,6 +442,7 @@ public class VistaSwing implements VistaJuego {
         SwingUtilities.invokeLater(() -> {
             if (ganador == null) return;
             
+            panelEventos.agregar(PanelEventos.TipoEvento.FIN, "Rey de burlas y veras: " + ganador.getNombre());
             String mensaje = String.format("¡JUEGO TERMINADO!\n\n" +
                                          "REY DE BURLAS Y VERAS:\n%s\n\n" +
                                          "Dueño de bolsas y conciencias\n" +
@@ -411,16 +457,12 @@ public class VistaSwing implements VistaJuego {
     
     @Override
     public void mostrarError(String mensaje) {
-        SwingUtilities.invokeLater(() -> {
-            JOptionPane.showMessageDialog(ventanaPrincipal, mensaje, "Error", JOptionPane.ERROR_MESSAGE);
-        });
+        panelEventos.agregar(PanelEventos.TipoEvento.ERROR, mensaje);
     }
     
     @Override
     public void mostrarMensaje(String mensaje) {
-        SwingUtilities.invokeLater(() -> {
-            JOptionPane.showMessageDialog(ventanaPrincipal, mensaje, "Información", JOptionPane.INFORMATION_MESSAGE);
-        });
+        panelEventos.agregar(PanelEventos.TipoEvento.MENSAJE, mensaje);
     }
     
     @Override
@@ -465,6 +507,7 @@ public class VistaSwing implements VistaJuego {
             areaInfo.setText("");
             areaEstadisticas.setText("");
             habilitarBotones(false);
+            panelEventos.agregar(PanelEventos.TipoEvento.MENSAJE, "Nueva partida");
         });
     }
     